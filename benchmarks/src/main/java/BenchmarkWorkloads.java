@@ -0,0 +1,303 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * BenchmarkWorkloads - Builds the game objects that the JMH benchmarks measure.
+ *
+ * JMH refuses benchmark classes in the default package, and classes in a named
+ * package can't see the game's classes, so the benchmarks look these factories
+ * up by name and only call the returned Runnable/Supplier in the timed loop.
+ * Living in the default package also lets the workloads reach package-private
+ * game code such as GameWorld.resolveCoinCollisions().
+ *
+ * Every workload is seeded so repeated runs measure the same data.
+ */
+public class BenchmarkWorkloads {
+
+    private static final int BOARD_WIDTH = GameWorld.BOARD_WIDTH;
+    private static final int BOARD_HEIGHT = GameWorld.BOARD_HEIGHT;
+    private static final long SEED = 42;
+
+    /**
+     * ShapeObject.move() on a board of coins.
+     *
+     * @param count Number of coins
+     * @return Moves every coin once
+     */
+    public static Runnable shapeObjectMove(int count) {
+        ShapeObject[] coins = spawnViews(EntityStore.COIN, count, Coin.COIN_SIZE, 6);
+        return () -> {
+            for (ShapeObject coin : coins) {
+                coin.move();
+            }
+        };
+    }
+
+    /**
+     * PowerUp.move() on a board of powerups.
+     *
+     * @param count Number of powerups
+     * @return Moves every powerup once
+     */
+    public static Runnable powerUpMove(int count) {
+        ShapeObject[] powerUps = spawnViews(EntityStore.POWERUP, count, PowerUp.POWERUP_SIZE, 4);
+        return () -> {
+            for (ShapeObject powerUp : powerUps) {
+                powerUp.move();
+            }
+        };
+    }
+
+    /**
+     * EntityStore's movement and expiry stage on a single thread.
+     *
+     * @param count Number of coins
+     * @return Moves every coin once and removes finished ones
+     */
+    public static Runnable entityUpdate(int count) {
+        return entityUpdate(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * EntityStore's movement and expiry stage, split across cores for any list size.
+     *
+     * @param count Number of coins
+     * @return Moves every coin once and removes finished ones
+     */
+    public static Runnable parallelEntityUpdate(int count) {
+        return entityUpdate(count, 1);
+    }
+
+    private static Runnable entityUpdate(int count, int parallelThreshold) {
+        EntityStore entities = new EntityStore(count, BOARD_WIDTH, BOARD_HEIGHT);
+        entities.setParallelThreshold(parallelThreshold);
+        Random random = new Random(SEED);
+        for (int i = 0; i < count; i++) {
+            entities.spawn(EntityStore.COIN,
+                random.nextDouble() * (BOARD_WIDTH - 50) + 25,
+                random.nextDouble() * (BOARD_HEIGHT - 100) + 25,
+                (random.nextDouble() - 0.5) * 6,
+                (random.nextDouble() - 0.5) * 6,
+                Coin.COIN_SIZE, 0);
+        }
+        // Coins created on frame 0 never expire while the frame stays at 0
+        return () -> {
+            entities.moveCoins(0);
+            entities.removeFinishedCoins(0);
+        };
+    }
+
+    /**
+     * CollectionPurse.collidesWith() against every coin on the board, as in a click.
+     *
+     * @param count Number of coins
+     * @return Counts the coins in collection range of the purse
+     */
+    public static IntSupplier purseCollidesWith(int count) {
+        ShapeObject[] coins = spawnViews(EntityStore.COIN, count, Coin.COIN_SIZE, 6);
+        CollectionPurse purse = new CollectionPurse(new EntityStore(1, BOARD_WIDTH, BOARD_HEIGHT));
+        purse.followMouse(BOARD_WIDTH / 2, BOARD_HEIGHT / 2);
+        return () -> {
+            int hits = 0;
+            for (ShapeObject coin : coins) {
+                if (purse.collidesWith(coin)) {
+                    hits++;
+                }
+            }
+            return hits;
+        };
+    }
+
+    /**
+     * CollectionPurse.findCollisions() over every coin on the board at once.
+     *
+     * @param count Number of coins
+     * @return Counts the coins in collection range of the purse
+     */
+    public static IntSupplier purseFindCollisions(int count) {
+        EntityStore entities = new EntityStore(count, BOARD_WIDTH, BOARD_HEIGHT);
+        Random random = new Random(SEED);
+        int[] slots = new int[count];
+        for (int i = 0; i < count; i++) {
+            slots[i] = entities.spawn(EntityStore.COIN,
+                random.nextDouble() * (BOARD_WIDTH - Coin.COIN_SIZE) + Coin.COIN_SIZE / 2.0,
+                random.nextDouble() * (BOARD_HEIGHT - Coin.COIN_SIZE) + Coin.COIN_SIZE / 2.0,
+                0, 0, Coin.COIN_SIZE, 0);
+        }
+        CollectionPurse purse = new CollectionPurse(entities);
+        purse.followMouse(BOARD_WIDTH / 2, BOARD_HEIGHT / 2);
+        int[] hits = new int[count];
+        return () -> purse.findCollisions(entities.x, entities.y, entities.size, slots, count, hits);
+    }
+
+    /**
+     * EntityStore.entitiesWithin() around the purse followed by collidesWith()
+     * on what it finds, as in a click (the index is built once, as at the end of a tick).
+     *
+     * @param count Number of coins
+     * @return Counts the coins in collection range of the purse
+     */
+    public static IntSupplier purseEntitiesWithin(int count) {
+        EntityStore entities = new EntityStore(count, BOARD_WIDTH, BOARD_HEIGHT);
+        Random random = new Random(SEED);
+        for (int i = 0; i < count; i++) {
+            entities.spawn(EntityStore.COIN,
+                random.nextDouble() * (BOARD_WIDTH - Coin.COIN_SIZE) + Coin.COIN_SIZE / 2.0,
+                random.nextDouble() * (BOARD_HEIGHT - Coin.COIN_SIZE) + Coin.COIN_SIZE / 2.0,
+                0, 0, Coin.COIN_SIZE, 0);
+        }
+        entities.indexPositions();
+        CollectionPurse purse = new CollectionPurse(entities);
+        purse.followMouse(BOARD_WIDTH / 2, BOARD_HEIGHT / 2);
+        double reach = purse.collisionRange(Coin.COIN_SIZE);
+        return () -> {
+            EntityStore.SlotList nearby = entities.entitiesWithin(purse.getX(), purse.getY(), reach);
+            int hits = 0;
+            for (int i = 0; i < nearby.size(); i++) {
+                int slot = nearby.get(i);
+                if (purse.collidesWith(entities.x[slot], entities.y[slot], entities.size[slot])) {
+                    hits++;
+                }
+            }
+            return hits;
+        };
+    }
+
+    /**
+     * The coin-vs-coin collision pass from GameWorld.tick(), on a single thread.
+     * Every call starts from the same coin positions and velocities, so later
+     * iterations don't measure coins that earlier ones have already pushed apart.
+     *
+     * @param count Number of live coins
+     * @return Puts the coins back and runs one collision pass
+     */
+    public static Runnable coinPairPass(int count) {
+        return coinPairPass(count, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The coin-vs-coin collision pass, resolved in colour batches across cores for any coin count.
+     *
+     * @param count Number of live coins
+     * @return Puts the coins back and runs one collision pass
+     */
+    public static Runnable parallelCoinPairPass(int count) {
+        return coinPairPass(count, 1);
+    }
+
+    private static Runnable coinPairPass(int count, int parallelThreshold) {
+        GameWorld world = new GameWorld(SEED);
+        EntityStore entities = world.getEntities();
+        entities.setParallelThreshold(parallelThreshold);
+        Random random = new Random(SEED);
+        for (int i = 0; i < count; i++) {
+            entities.spawn(EntityStore.COIN,
+                random.nextDouble() * (BOARD_WIDTH - 50) + 25,
+                random.nextDouble() * (BOARD_HEIGHT - 100) + 25,
+                (random.nextDouble() - 0.5) * 6,
+                (random.nextDouble() - 0.5) * 6,
+                Coin.COIN_SIZE, 0);
+        }
+
+        // The pass moves and bounces coins, so restore them before every run
+        double[][] state = {entities.x, entities.y, entities.previousX, entities.previousY,
+            entities.velocityX, entities.velocityY};
+        double[][] saved = new double[state.length][];
+        for (int i = 0; i < state.length; i++) {
+            saved[i] = state[i].clone();
+        }
+        return () -> {
+            for (int i = 0; i < state.length; i++) {
+                System.arraycopy(saved[i], 0, state[i], 0, saved[i].length);
+            }
+            world.resolveCoinCollisions();
+        };
+    }
+
+    /**
+     * ScoreManager.getFormattedScores() for a player with a long score history.
+     * The scores are written as an old text file and converted by ScoreManager's
+     * migrator, and the files are deleted on exit.
+     *
+     * @param records Number of scores in the player's file
+     * @return Loads and formats the player's scores
+     */
+    public static Supplier<String> formattedScores(int records) {
+        String username = "benchmark-" + records;
+        File scoreDir = new File("scores");
+        scoreDir.mkdirs();
+        File textFile = new File(scoreDir, username + ".txt");
+        File scoreFile = new File(scoreDir, username + ".scores");
+        scoreFile.delete();
+        scoreFile.deleteOnExit();
+        new File(scoreDir, username + ".txt.migrated").deleteOnExit();
+
+        Random random = new Random(SEED);
+        try (FileWriter fw = new FileWriter(textFile)) {
+            for (int i = 0; i < records; i++) {
+                fw.write(random.nextInt(500) + " | 2025-01-01 12:00:00\n");
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write " + textFile, e);
+        }
+        ScoreManager.migrateTextScores();
+        return () -> ScoreManager.getFormattedScores(username);
+    }
+
+    /**
+     * CredentialStore password check with many registered users.
+     * Each call logs in the next user in turn. Hashing runs at a single
+     * iteration so the benchmark measures the lookup rather than the
+     * deliberately slow KDF, and the user file is deleted on exit.
+     *
+     * @param users Number of registered users
+     * @return Checks one user's credentials
+     */
+    public static BooleanSupplier credentialLookup(int users) {
+        File userFile = new File("benchmark-users-" + users + ".dat");
+        userFile.delete();
+        userFile.deleteOnExit();
+        CredentialStore credentials = new CredentialStore(userFile, 1);
+        String[] usernames = new String[users];
+        String[] passwords = new String[users];
+        try {
+            for (int i = 0; i < users; i++) {
+                usernames[i] = "benchmark-user-" + i;
+                passwords[i] = "password-" + i;
+                credentials.addUser(usernames[i], passwords[i]);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write " + userFile, e);
+        }
+        int[] next = new int[1];
+        return () -> {
+            int i = next[0];
+            next[0] = i + 1 == users ? 0 : i + 1;
+            return credentials.check(usernames[i], passwords[i]);
+        };
+    }
+
+    /**
+     * Spawn entities at random places with random velocities and return views of them.
+     */
+    private static ShapeObject[] spawnViews(byte entityType, int count, int size, double maxSpeed) {
+        EntityStore entities = new EntityStore(count, BOARD_WIDTH, BOARD_HEIGHT);
+        Random random = new Random(SEED);
+        ShapeObject[] views = new ShapeObject[count];
+        for (int i = 0; i < count; i++) {
+            int slot = entities.spawn(entityType,
+                random.nextDouble() * (BOARD_WIDTH - size) + size / 2.0,
+                random.nextDouble() * (BOARD_HEIGHT - size) + size / 2.0,
+                (random.nextDouble() - 0.5) * maxSpeed,
+                (random.nextDouble() - 0.5) * maxSpeed,
+                size, 0);
+            views[i] = entities.getView(slot);
+        }
+        return views;
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.SplittableRandom;
+
+/**
+ * CollisionCheck - Command-line cross-check of the squared-distance collision tests.
+ *
+ * ShapeObject and CollectionPurse used to decide collisions by comparing
+ * Math.sqrt(dx * dx + dy * dy) with the collision range. They now compare the
+ * squared distance with a cached threshold, after a bounding-box reject. This
+ * checks that nothing changed, for every whole-number range in the threshold
+ * tables and the purse's 1.5x ranges:
+ * - each cached threshold is exact: its square root reaches the range and the
+ *   square root of the next smaller double doesn't, so (Math.sqrt never
+ *   decreasing) the two comparisons agree for every possible squared distance,
+ * - the new tests give the same answers as the old formulas, bit for bit, on
+ *   random offsets and on offsets a few ulps either side of the range, both
+ *   directly and through coin, bomb, and purse objects and the batch form,
+ * - the swept test (time of impact) finds every contact that checking many
+ *   points along the two paths finds, no later than they do, with the
+ *   circles just touching at the time it reports, and never misses a pair
+ *   the plain test catches at the end of the tick.
+ * Exits with status 1 if anything differs.
+ *
+ * Usage: java CollisionCheck [--samples N] [--seed S]
+ */
+public class CollisionCheck {
+
+    private static final int BOARD_WIDTH = GameWorld.BOARD_WIDTH;
+    private static final int BOARD_HEIGHT = GameWorld.BOARD_HEIGHT;
+    private static final double PURSE_SCALE = 1.5;
+
+    private static long checks = 0;
+    private static long mismatches = 0;
+
+    /**
+     * Main method - parses arguments, runs every check, and prints a report.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        int samples = 200;
+        long seed = 42;
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--samples":
+                    samples = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    i++;
+                    break;
+                default:
+                    System.out.println("Usage: java CollisionCheck [--samples N] [--seed S]");
+                    return;
+            }
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int adjusted = 0;
+        for (int r = 0; r < ShapeObject.REACH_TABLE_SIZE; r++) {
+            adjusted += checkThreshold(r) ? 1 : 0;
+            adjusted += checkThreshold(r * PURSE_SCALE) ? 1 : 0;
+            checkOffsets(r, random, samples);
+            checkOffsets(r * PURSE_SCALE, random, samples);
+        }
+        checkObjects(random, samples * 100);
+        checkSweeps(random, samples * 100);
+
+        System.out.printf("%d checks, %d mismatches (%d thresholds differ from range * range)%n",
+            checks, mismatches, adjusted);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Check that the cached threshold for a range splits squared distances
+     * exactly where Math.sqrt does.
+     *
+     * @return true if the threshold had to be moved off range * range
+     */
+    private static boolean checkThreshold(double range) {
+        double threshold = ShapeObject.squaredReach(range);
+        boolean exact = range <= 0
+            ? threshold == 0
+            : Math.sqrt(threshold) >= range && Math.sqrt(Math.nextDown(threshold)) < range;
+        record(exact, "threshold for range " + range);
+        return range > 0 && threshold != range * range;
+    }
+
+    /**
+     * Compare the new test with the old formula on offsets around a range.
+     */
+    private static void checkOffsets(double range, SplittableRandom random, int samples) {
+        double threshold = ShapeObject.squaredReach(range);
+        for (int i = 0; i < samples; i++) {
+            // Anywhere near the range
+            compare(random.nextDouble(-2, 2) * (range + 1), random.nextDouble(-2, 2) * (range + 1), range, threshold);
+
+            // Right on the circle, then a few ulps either side of it
+            double angle = random.nextDouble(2 * Math.PI);
+            double dx = range * Math.cos(angle);
+            double dy = range * Math.sin(angle);
+            for (int ulps = -3; ulps <= 3; ulps++) {
+                compare(nudge(dx, ulps), dy, range, threshold);
+                compare(dx, nudge(dy, ulps), range, threshold);
+            }
+        }
+
+        // Along the axes, where the bounding box reject is decided
+        double squared = range * range;
+        for (int ulps = -3; ulps <= 3; ulps++) {
+            compare(nudge(range, ulps), 0, range, threshold);
+            compare(0, -nudge(range, ulps), range, threshold);
+            compare(Math.sqrt(nudge(squared, ulps)), 0, range, threshold);
+        }
+    }
+
+    /**
+     * Compare collidesWith() and findCollisions() on coins, bombs, and the purse
+     * with the formulas they replaced.
+     */
+    private static void checkObjects(SplittableRandom random, int samples) {
+        EntityStore store = new EntityStore(samples, BOARD_WIDTH, BOARD_HEIGHT);
+        int[] slots = new int[samples];
+        for (int i = 0; i < samples; i++) {
+            boolean coin = random.nextInt(4) != 0;
+            double x = random.nextDouble(BOARD_WIDTH);
+            double y = random.nextDouble(BOARD_HEIGHT);
+            if (random.nextBoolean()) {
+                // Whole-number positions, as the purse gets from the mouse
+                x = Math.rint(x);
+                y = Math.rint(y);
+            }
+            slots[i] = store.spawn(coin ? EntityStore.COIN : EntityStore.BOMB, x, y, 0, 0,
+                coin ? Coin.COIN_SIZE : Bomb.BOMB_SIZE, 0);
+        }
+
+        CollectionPurse purse = new CollectionPurse(store);
+        int[] hits = new int[samples];
+        for (int round = 0; round < 20; round++) {
+            purse.followMouse(random.nextInt(BOARD_WIDTH), random.nextInt(BOARD_HEIGHT));
+            int hitCount = purse.findCollisions(store.x, store.y, store.size, slots, samples, hits);
+            int expectedHits = 0;
+            for (int i = 0; i < samples; i++) {
+                int slot = slots[i];
+                double dx = purse.getX() - store.x[slot];
+                double dy = purse.getY() - store.y[slot];
+                double collisionRange = (purse.getWidth() / 2 + store.size[slot] / 2) * PURSE_SCALE;
+                boolean expected = Math.sqrt(dx * dx + dy * dy) < collisionRange;
+                record(purse.collidesWith(store.getView(slot)) == expected, "purse vs slot " + slot);
+                if (expected) {
+                    record(expectedHits < hitCount && hits[expectedHits] == slot, "batch hit " + slot);
+                    expectedHits++;
+                }
+            }
+            record(hitCount == expectedHits, "batch hit count");
+        }
+
+        for (int i = 0; i + 1 < samples; i++) {
+            ShapeObject a = store.getView(slots[i]);
+            ShapeObject b = store.getView(slots[i + 1]);
+            double dx = a.getX() - b.getX();
+            double dy = a.getY() - b.getY();
+            boolean expected = Math.sqrt(dx * dx + dy * dy) < (a.getWidth() / 2 + b.getWidth() / 2);
+            record(a.collidesWith(b) == expected, "slot " + slots[i] + " vs slot " + slots[i + 1]);
+        }
+    }
+
+    /**
+     * Compare the swept test with stepping along the two paths, for random
+     * pairs moving up to a few coin widths in a tick.
+     */
+    private static void checkSweeps(SplittableRandom random, int samples) {
+        int steps = 256;
+        for (int i = 0; i < samples; i++) {
+            int range = 1 + random.nextInt(60);
+            double threshold = ShapeObject.squaredReach(range);
+            double startDx = random.nextDouble(-4, 4) * range;
+            double startDy = random.nextDouble(-4, 4) * range;
+            double endDx = random.nextDouble(-4, 4) * range;
+            double endDy = random.nextDouble(-4, 4) * range;
+            double impact = ShapeObject.firstContact(startDx, startDy, endDx, endDy, range);
+
+            // Never misses what the plain test sees at either end
+            if (ShapeObject.withinReach(startDx, startDy, range, threshold)) {
+                record(impact == 0, "sweep already touching at the start");
+            } else if (ShapeObject.withinReach(endDx, endDy, range, threshold)) {
+                record(impact != ShapeObject.NO_IMPACT, "sweep touching at the end");
+            }
+
+            // The first sampled point that touches can't come before the impact
+            double firstTouch = ShapeObject.NO_IMPACT;
+            for (int step = 0; step <= steps; step++) {
+                double t = (double) step / steps;
+                double dx = startDx + (endDx - startDx) * t;
+                double dy = startDy + (endDy - startDy) * t;
+                if (Math.sqrt(dx * dx + dy * dy) < range * (1 - 1e-9)) {
+                    firstTouch = t;
+                    break;
+                }
+            }
+            if (firstTouch != ShapeObject.NO_IMPACT) {
+                record(impact != ShapeObject.NO_IMPACT && impact <= firstTouch,
+                    "sweep impact " + impact + " after sampled contact " + firstTouch);
+            }
+
+            // Between the ends, the circles are just touching at the impact
+            if (impact > 0 && impact < 1) {
+                double dx = startDx + (endDx - startDx) * impact;
+                double dy = startDy + (endDy - startDy) * impact;
+                record(Math.abs(Math.sqrt(dx * dx + dy * dy) - range) < 1e-9 * range,
+                    "sweep distance at impact " + impact);
+            }
+        }
+
+        // Two coins passing straight through each other in one tick
+        double impact = ShapeObject.firstContact(-40, 0, 40, 0, Coin.COIN_SIZE / 2 * 2);
+        record(impact > 0 && impact < 0.5, "head-on pass-through");
+    }
+
+    private static void compare(double dx, double dy, double range, double threshold) {
+        boolean expected = Math.sqrt(dx * dx + dy * dy) < range;
+        record(ShapeObject.withinReach(dx, dy, range, threshold) == expected,
+            "offset (" + dx + ", " + dy + ") range " + range);
+        if (range == Math.rint(range) && range < ShapeObject.REACH_TABLE_SIZE) {
+            record(ShapeObject.overlaps(dx, dy, (int) range) == expected, "overlaps range " + range);
+        }
+    }
+
+    /**
+     * Move a value a number of ulps up (positive) or down (negative).
+     */
+    private static double nudge(double value, int ulps) {
+        for (int i = 0; i < ulps; i++) {
+            value = Math.nextUp(value);
+        }
+        for (int i = 0; i > ulps; i--) {
+            value = Math.nextDown(value);
+        }
+        return value;
+    }
+
+    private static void record(boolean ok, String what) {
+        checks++;
+        if (!ok) {
+            mismatches++;
+            if (mismatches <= 10) {
+                System.out.println("Mismatch: " + what);
+            }
+        }
+    }
+}
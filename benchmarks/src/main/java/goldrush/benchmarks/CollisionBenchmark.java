@@ -0,0 +1,72 @@
+package goldrush.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CollisionBenchmark - Purse-vs-coin checks for a click (one at a time, as a batch, and
+ * through the proximity index), and one coin-vs-coin pass (on one thread, and in colour batches across cores).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CollisionBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int coins;
+
+    private IntSupplier purseCollidesWith;
+    private IntSupplier purseFindCollisions;
+    private IntSupplier purseEntitiesWithin;
+    private Runnable coinPairPass;
+    private Runnable parallelCoinPairPass;
+
+    @Setup
+    public void setUp() {
+        purseCollidesWith = Workloads.create("purseCollidesWith", coins, IntSupplier.class);
+        purseFindCollisions = Workloads.create("purseFindCollisions", coins, IntSupplier.class);
+        purseEntitiesWithin = Workloads.create("purseEntitiesWithin", coins, IntSupplier.class);
+        coinPairPass = Workloads.create("coinPairPass", coins, Runnable.class);
+        parallelCoinPairPass = Workloads.create("parallelCoinPairPass", coins, Runnable.class);
+    }
+
+    @Benchmark
+    public int purseCollidesWith() {
+        return purseCollidesWith.getAsInt();
+    }
+
+    @Benchmark
+    public int purseFindCollisions() {
+        return purseFindCollisions.getAsInt();
+    }
+
+    @Benchmark
+    public int purseEntitiesWithin() {
+        return purseEntitiesWithin.getAsInt();
+    }
+
+    @Benchmark
+    public void coinPairPass() {
+        coinPairPass.run();
+    }
+
+    @Benchmark
+    public void parallelCoinPairPass() {
+        parallelCoinPairPass.run();
+    }
+}
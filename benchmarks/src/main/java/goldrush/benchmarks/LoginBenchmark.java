@@ -0,0 +1,43 @@
+package goldrush.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LoginBenchmark - Checking one user's credentials against every registered user.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LoginBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int users;
+
+    private BooleanSupplier credentialLookup;
+
+    @Setup
+    public void setUp() {
+        credentialLookup = Workloads.create("credentialLookup", users, BooleanSupplier.class);
+    }
+
+    @Benchmark
+    public boolean credentialLookup() {
+        return credentialLookup.getAsBoolean();
+    }
+}
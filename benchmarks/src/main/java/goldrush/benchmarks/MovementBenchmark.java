@@ -0,0 +1,65 @@
+package goldrush.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MovementBenchmark - Time to move every entity on the board once.
+ * entityUpdate and parallelEntityUpdate compare EntityStore's update stage on
+ * one thread and split across cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class MovementBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int entities;
+
+    private Runnable shapeObjectMove;
+    private Runnable powerUpMove;
+    private Runnable entityUpdate;
+    private Runnable parallelEntityUpdate;
+
+    @Setup
+    public void setUp() {
+        shapeObjectMove = Workloads.create("shapeObjectMove", entities, Runnable.class);
+        powerUpMove = Workloads.create("powerUpMove", entities, Runnable.class);
+        entityUpdate = Workloads.create("entityUpdate", entities, Runnable.class);
+        parallelEntityUpdate = Workloads.create("parallelEntityUpdate", entities, Runnable.class);
+    }
+
+    @Benchmark
+    public void shapeObjectMove() {
+        shapeObjectMove.run();
+    }
+
+    @Benchmark
+    public void powerUpMove() {
+        powerUpMove.run();
+    }
+
+    @Benchmark
+    public void entityUpdate() {
+        entityUpdate.run();
+    }
+
+    @Benchmark
+    public void parallelEntityUpdate() {
+        parallelEntityUpdate.run();
+    }
+}
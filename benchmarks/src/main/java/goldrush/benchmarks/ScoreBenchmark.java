@@ -0,0 +1,43 @@
+package goldrush.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ScoreBenchmark - Loading and formatting a player's score history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ScoreBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int records;
+
+    private Supplier<String> formattedScores;
+
+    @Setup
+    public void setUp() {
+        formattedScores = Workloads.create("formattedScores", records, Supplier.class);
+    }
+
+    @Benchmark
+    public String formattedScores() {
+        return formattedScores.get();
+    }
+}
@@ -0,0 +1,35 @@
+package goldrush.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Workloads - Looks up the factories in the default-package BenchmarkWorkloads class.
+ *
+ * The game lives in the default package, which can't be imported from here,
+ * so each benchmark fetches its workload by name once during setup. The timed
+ * code then only calls the returned functional interface.
+ */
+final class Workloads {
+
+    private Workloads() {
+    }
+
+    /**
+     * Build a workload.
+     *
+     * @param name Name of the BenchmarkWorkloads factory method
+     * @param size Entity or record count to pass to it
+     * @param type The functional interface the factory returns
+     * @return The workload
+     */
+    static <T> T create(String name, int size, Class<T> type) {
+        try {
+            Class<?> factories = Class.forName("BenchmarkWorkloads");
+            return type.cast(factories.getMethod(name, int.class).invoke(null, size));
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Workload " + name + " failed to build", e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("No workload named " + name, e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.util.function.Supplier;
+
+/**
+ * ActiveCanvas - Draws the game straight to the screen with page flipping.
+ *
+ * In the normal (passive) mode GamePanel asks Swing to repaint and Swing
+ * paints on the event dispatch thread whenever it gets round to it, merging
+ * requests that arrive close together. In active mode the game loop thread
+ * draws each frame itself into the back buffer of a BufferStrategy (three
+ * buffers where the system allows it) and flips it onto the screen, so frames
+ * arrive when the loop schedules them and painting never waits on the EDT.
+ *
+ * The canvas is a heavyweight AWT component, so it also receives the mouse
+ * events for the board. Repaints that AWT asks for (e.g. when the window is
+ * uncovered) are drawn the same way.
+ */
+public class ActiveCanvas extends Canvas {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int BUFFERS = 3;  // Triple buffering
+
+    private final GameRenderer renderer;
+    private final Supplier<GameSnapshot> snapshot;
+
+    private long framesShown = 0;
+
+    /**
+     * Constructor for ActiveCanvas.
+     *
+     * @param renderer The renderer that draws each frame
+     * @param snapshot Gives a reference to the newest snapshot, for frames drawn before any was prepared
+     */
+    public ActiveCanvas(GameRenderer renderer, Supplier<GameSnapshot> snapshot) {
+        this.renderer = renderer;
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Draw the frame the renderer last prepared and flip it onto the screen.
+     * Does nothing until the canvas is on screen. Safe to call from any thread.
+     */
+    public synchronized void render() {
+        if (!isDisplayable() || getWidth() <= 0 || getHeight() <= 0) {
+            return;
+        }
+        BufferStrategy strategy = getBufferStrategy();
+        if (strategy == null) {
+            createBufferStrategy(BUFFERS);
+            strategy = getBufferStrategy();
+        }
+
+        // The buffers can be lost (e.g. the display mode changed), so redraw until a frame survives
+        do {
+            do {
+                Graphics2D g2 = (Graphics2D) strategy.getDrawGraphics();
+                try {
+                    renderer.paint(this, g2, snapshot);
+                } finally {
+                    g2.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+
+        // Push the frame out now rather than whenever the windowing system flushes
+        Toolkit.getDefaultToolkit().sync();
+        framesShown++;
+    }
+
+    /**
+     * Redraw when AWT asks, e.g. when the window is uncovered.
+     */
+    @Override
+    public void paint(Graphics g) {
+        render();
+    }
+
+    /**
+     * Skip AWT's clear-then-paint; every frame covers the whole canvas.
+     */
+    @Override
+    public void update(Graphics g) {
+        render();
+    }
+
+    /**
+     * Get the number of frames flipped onto the screen.
+     *
+     * @return Frames shown since the canvas was created
+     */
+    public synchronized long getFramesShown() {
+        return framesShown;
+    }
+}
@@ -0,0 +1,104 @@
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.imageio.ImageIO;
+
+/**
+ * AssetManager - Finds the game's images and decodes them in the background.
+ *
+ * Images are resolved from the images folder on the classpath (which the
+ * Maven build copies from src/images), or from src/images itself when the
+ * game is run from the project folder without a build. Each image is decoded
+ * once, on a small startup executor, so several images decode at the same
+ * time and none of them on the Swing thread.
+ *
+ * preloadImages() is called while the login page is up, so by the time a
+ * player logs in the game's images are usually ready. Code that draws asks
+ * with getImageNow(), which never waits: until an image is decoded it gets
+ * null and draws a placeholder for that frame instead.
+ */
+public class AssetManager {
+
+    // Every image the game draws
+    public static final String[] GAME_IMAGES = {"game_bg.png", "bomb.png", "powerup.png", "purse.png"};
+
+    private static final String IMAGE_RESOURCE_PATH = "/images/";
+    private static final String IMAGE_SOURCE_DIRECTORY = "src/images";
+
+    private static final ExecutorService LOADER = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(GAME_IMAGES.length, Runtime.getRuntime().availableProcessors())), task -> {
+            Thread thread = new Thread(task, "GoldRush-AssetLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    // Decoded images by file name; a future completes with null if the image couldn't be loaded
+    private static final ConcurrentHashMap<String, CompletableFuture<BufferedImage>> images = new ConcurrentHashMap<>();
+
+    /**
+     * Start decoding every game image in parallel.
+     *
+     * @return A future that completes once all of them have been tried
+     */
+    public static CompletableFuture<Void> preloadImages() {
+        CompletableFuture<?>[] loads = new CompletableFuture<?>[GAME_IMAGES.length];
+        for (int i = 0; i < GAME_IMAGES.length; i++) {
+            loads[i] = requestImage(GAME_IMAGES[i]);
+        }
+        return CompletableFuture.allOf(loads);
+    }
+
+    /**
+     * Get an image, starting to decode it if nobody has asked for it yet.
+     *
+     * @param name File name of the image in the images folder
+     * @return A future for the image, which completes with null if it couldn't be loaded
+     */
+    public static CompletableFuture<BufferedImage> requestImage(String name) {
+        return images.computeIfAbsent(name, n -> CompletableFuture.supplyAsync(() -> load(n), LOADER));
+    }
+
+    /**
+     * Get an image without waiting for it.
+     *
+     * @param name File name of the image in the images folder
+     * @return The image, or null if it's still decoding or couldn't be loaded
+     */
+    public static BufferedImage getImageNow(String name) {
+        return requestImage(name).getNow(null);
+    }
+
+    /**
+     * Check whether an image has finished loading (or failed to).
+     *
+     * @param name File name of the image in the images folder
+     * @return true once getImageNow() gives its final answer for the image
+     */
+    public static boolean isSettled(String name) {
+        return requestImage(name).isDone();
+    }
+
+    /**
+     * Read an image from the classpath, or from src/images if it isn't there.
+     */
+    private static BufferedImage load(String name) {
+        try (InputStream in = AssetManager.class.getResourceAsStream(IMAGE_RESOURCE_PATH + name)) {
+            if (in != null) {
+                return ImageIO.read(in);
+            }
+            File file = new File(IMAGE_SOURCE_DIRECTORY, name);
+            if (file.exists()) {
+                return ImageIO.read(file);
+            }
+            System.out.println("Image not found: " + name);
+        } catch (IOException e) {
+            System.out.println("Error loading image " + name + ": " + e.getMessage());
+        }
+        return null;
+    }
+}
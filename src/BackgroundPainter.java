@@ -1,21 +1,25 @@
 import java.awt.*;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
-import javax.swing.*;
+import java.awt.image.VolatileImage;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * BackgroundPainter - Utility class for managing background images in JPanels
  * 
  * Provides methods to set and paint background images with optional scaling
  * and color overlays for customization.
+ * 
+ * The image is scaled to the component's size once and kept in a VolatileImage
+ * (video memory where available), so each frame is a plain copy. The scaled
+ * copy is rebuilt when the component is resized or the video memory is lost.
+ * Until the image has been decoded by AssetManager, the fallback colour (or
+ * the component's own background colour) is painted instead.
  */
 public class BackgroundPainter {
     
-    private BufferedImage backgroundImage;
+    private CompletableFuture<BufferedImage> backgroundImage;
+    private Image scaledImage;  // backgroundImage at the component's size
     private String imagePath;
-    private boolean useColor;
     private Color backgroundColor;
     
     /**
@@ -25,7 +29,6 @@ public class BackgroundPainter {
      */
     public BackgroundPainter(String imagePath) {
         this.imagePath = imagePath;
-        this.useColor = false;
         loadImage();
     }
     
@@ -38,68 +41,108 @@ public class BackgroundPainter {
     public BackgroundPainter(String imagePath, Color fallbackColor) {
         this.imagePath = imagePath;
         this.backgroundColor = fallbackColor;
-        this.useColor = true;
         loadImage();
     }
     
     /**
-     * Load the image from the specified path
+     * Start loading the image from the images folder (it may already be preloaded)
      */
     private void loadImage() {
-        try {
-            // Construct full path to image
-            String basePath = "C:\\Users\\sawks\\Home\\School\\Grade 12\\Compsci\\JSwing_v2\\src\\images\\";
-            String fullPath = basePath + imagePath;
-            File imageFile = new File(fullPath);
-            if (imageFile.exists()) {
-                backgroundImage = ImageIO.read(imageFile);
-                useColor = false;
-            } else {
-                System.out.println("Image not found: " + imagePath);
-                if (backgroundColor != null) {
-                    useColor = true;
-                }
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading image: " + e.getMessage());
-            if (backgroundColor != null) {
-                useColor = true;
-            }
-        }
+        backgroundImage = AssetManager.requestImage(imagePath);
+        scaledImage = null;
     }
     
     /**
      * Paint the background on a component
      * 
-     * @param component The JPanel to paint on
+     * @param component The JPanel (or Canvas) to paint on
      * @param g Graphics object
      */
-    public void paint(JPanel component, Graphics g) {
-        if (useColor && backgroundColor != null) {
-            g.setColor(backgroundColor);
+    public void paint(Component component, Graphics g) {
+        BufferedImage image = backgroundImage.getNow(null);
+        if (image != null) {
+            // Draw the pre-scaled image to fill the entire component
+            drawScaled(component, g, image);
+        } else {
+            // Still loading, or not available: use the fallback colour
+            g.setColor(backgroundColor != null ? backgroundColor : component.getBackground());
             g.fillRect(0, 0, component.getWidth(), component.getHeight());
-        } else if (backgroundImage != null) {
-            // Draw scaled image to fill the entire component
-            g.drawImage(backgroundImage, 0, 0, component.getWidth(), component.getHeight(), component);
         }
     }
     
+    /**
+     * Copy the pre-scaled image onto the component, scaling it again first if
+     * the component was resized or the video memory holding it was lost
+     * 
+     * @param component The JPanel (or Canvas) to paint on
+     * @param g Graphics object
+     * @param image The full-size background image
+     */
+    private void drawScaled(Component component, Graphics g, BufferedImage image) {
+        int width = component.getWidth();
+        int height = component.getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        
+        if (scaledImage == null || scaledImage.getWidth(null) != width || scaledImage.getHeight(null) != height) {
+            scaledImage = component.createVolatileImage(width, height);
+            if (scaledImage == null) {
+                // No video memory (e.g. headless): keep a scaled copy in memory instead
+                scaledImage = SpriteAtlas.scale(image, width, height, component.getGraphicsConfiguration());
+            } else {
+                renderScaled((VolatileImage) scaledImage, image);
+            }
+        }
+        
+        if (scaledImage instanceof VolatileImage) {
+            VolatileImage volatileImage = (VolatileImage) scaledImage;
+            do {
+                int status = volatileImage.validate(component.getGraphicsConfiguration());
+                if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                    volatileImage = component.createVolatileImage(width, height);
+                    scaledImage = volatileImage;
+                    renderScaled(volatileImage, image);
+                } else if (status == VolatileImage.IMAGE_RESTORED) {
+                    renderScaled(volatileImage, image);
+                }
+                g.drawImage(volatileImage, 0, 0, null);
+            } while (volatileImage.contentsLost());
+        } else {
+            g.drawImage(scaledImage, 0, 0, null);
+        }
+    }
+    
+    /**
+     * Scale the background image into a VolatileImage
+     * 
+     * @param target The image to fill
+     * @param image The full-size background image
+     */
+    private void renderScaled(VolatileImage target, BufferedImage image) {
+        Graphics2D g2 = target.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(image, 0, 0, target.getWidth(), target.getHeight(), null);
+        g2.dispose();
+    }
+    
     /**
      * Check if image loaded successfully
      * 
      * @return true if image is loaded, false otherwise
      */
     public boolean hasImage() {
-        return backgroundImage != null;
+        return backgroundImage.getNow(null) != null;
     }
     
     /**
      * Get the background image
      * 
-     * @return The BufferedImage, or null if not loaded
+     * @return The BufferedImage, or null if not loaded (yet)
      */
     public BufferedImage getImage() {
-        return backgroundImage;
+        return backgroundImage.getNow(null);
     }
     
     /**
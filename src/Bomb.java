@@ -1,8 +1,5 @@
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
+import java.util.SplittableRandom;
 
 /**
  * Bomb class representing a dangerous object in the game.
@@ -12,94 +9,116 @@ import javax.imageio.ImageIO;
  */
 public class Bomb extends ShapeObject {
     
-    private static BufferedImage bombImage;
+    private static final String BOMB_IMAGE = "bomb.png";
     
-    static {
-        try {
-            bombImage = ImageIO.read(new File("c:\\Users\\sawks\\Home\\School\\Grade 12\\Compsci\\JSwing_v2\\src\\images\\bomb.png"));
-        } catch (IOException e) {
-            System.err.println("Failed to load bomb image: " + e.getMessage());
-        }
-    }
+    // Size of a bomb, frames it stays on the board, and frames the explosion lasts
+    public static final int BOMB_SIZE = 50;
+    public static final int LIFETIME_FRAMES = 180;  // 3 seconds at 60 FPS
+    public static final int EXPLOSION_DURATION = 10;
     
-    private int pointPenalty = 25;  // Points lost when bomb is collected
-    private boolean detonated = false;
-    private int explosionFrame = 0;
-    private final int explosionDuration = 10;  // Frames for explosion animation
-    private int creationFrame;  // Frame when this bomb was created
-    private static final int LIFETIME_FRAMES = 180;  // 3 seconds at 60 FPS
+    public static final int POINT_PENALTY = 25;  // Points lost when bomb is collected
+    private static final Color BOMB_COLOR = new Color(150, 50, 50);
     
     /**
      * Constructor for Bomb.
      * 
      * @param x Initial x-coordinate (center)
      * @param y Initial y-coordinate (center)
-     * @param boardWidth Width of the game board
-     * @param boardHeight Height of the game board
+     * @param store The store to add the bomb to
+     * @param random The game's random number generator, used for the velocity
      */
-    public Bomb(double x, double y, int boardWidth, int boardHeight, String imagePath) {
+    public Bomb(double x, double y, EntityStore store, String imagePath,
+                SplittableRandom random) {
         // Initialize bomb with dark red color and moderate speed
-        super(x, y, 50, 50,
-              (Math.random() - 0.5) * 4,  // Random x velocity between -2 and 2
-              (Math.random() - 0.5) * 4,  // Random y velocity between -2 and 2
-              new Color(150, 50, 50), boardWidth, boardHeight);
-        this.creationFrame = 0;  // Will be set by GamePanel when spawned
+        super(store, EntityStore.BOMB, x, y, BOMB_SIZE, BOMB_SIZE,
+              (random.nextDouble() - 0.5) * 4,  // Random x velocity between -2 and 2
+              (random.nextDouble() - 0.5) * 4,  // Random y velocity between -2 and 2
+              BOMB_COLOR);
+    }
+    
+    /**
+     * Constructor for a view onto a bomb in an EntityStore.
+     * 
+     * @param store The store holding the bomb
+     * @param slot The bomb's slot in the store
+     */
+    Bomb(EntityStore store, int slot) {
+        super(store, slot, BOMB_SIZE, BOMB_SIZE, BOMB_COLOR);
     }
     
     /**
-     * Draw the bomb using the image loaded from file.
+     * Draw the bomb using its sprite.
      * When detonated, shows an explosion effect.
      * 
      * @param g Graphics object to draw on
      */
     @Override
     public void draw(Graphics g) {
-        if (!detonated) {
-            Graphics2D g2 = (Graphics2D) g;
-            
-            if (bombImage != null) {
-                // Draw image centered at (x, y)
-                g2.drawImage(bombImage, (int)(x - width/2), (int)(y - height/2), 
-                            width, height, null);
-             }// else {
-            //     // Fallback to shape if image failed to load
-            //     g2.setColor(color);
-            //     g2.fillOval((int)(x - width/2), (int)(y - height/2), width, height);
-                
-            //     // Draw dark outline and cross pattern to indicate bomb
-            //     g2.setColor(Color.BLACK);
-            //     g2.setStroke(new BasicStroke(2));
-            //     g2.drawOval((int)(x - width/2), (int)(y - height/2), width, height);
-                
-            //     // Draw a cross pattern to make bombs clearly distinguishable
-            //     g2.drawLine((int)(x - 5), (int)y, (int)(x + 5), (int)y);
-            //     g2.drawLine((int)x, (int)(y - 5), (int)x, (int)(y + 5));
-            // }
-        } else if (explosionFrame < explosionDuration) {
-            // Draw explosion effect: expanding circles with fading color
-            Graphics2D g2 = (Graphics2D) g;
-            int radius = (int)(10 + explosionFrame * 5);
-            
-            // Outer explosion circle (bright yellow/orange)
-            g2.setColor(new Color(255, 165, 0, 255 - (explosionFrame * 20)));
-            g2.fillOval((int)(x - radius), (int)(y - radius), radius * 2, radius * 2);
-            
-            // Inner explosion circle (bright white)
-            int innerRadius = (int)(radius * 0.6);
-            g2.setColor(new Color(255, 255, 255, 255 - (explosionFrame * 20)));
-            g2.fillOval((int)(x - innerRadius), (int)(y - innerRadius), 
-                        innerRadius * 2, innerRadius * 2);
-            
-            explosionFrame++;
+        if (!isDetonated()) {
+            drawBomb((Graphics2D) g, getX(), getY(), width, height);
+        } else if (!isDetonationComplete()) {
+            drawExplosion((Graphics2D) g, getX(), getY(), store.getExplosionFrame(slot));
         }
     }
     
+    /**
+     * Draw an intact bomb using its pre-scaled sprite, centered at a position.
+     * 
+     * @param g2 Graphics object to draw on
+     * @param x X-coordinate of the center
+     * @param y Y-coordinate of the center
+     * @param width Width to draw the bomb at
+     * @param height Height to draw the bomb at
+     */
+    public static void drawBomb(Graphics2D g2, double x, double y, int width, int height) {
+        // Draw image centered at (x, y)
+        SpriteAtlas.draw(g2, BOMB_IMAGE, (int)(x - width/2), (int)(y - height/2), width, height);
+    }
+    
+    /**
+     * Draw one frame of the explosion effect: expanding circles with fading color.
+     * 
+     * @param g2 Graphics object to draw on
+     * @param x X-coordinate of the center
+     * @param y Y-coordinate of the center
+     * @param explosionFrame How many frames the explosion has been running
+     */
+    public static void drawExplosion(Graphics2D g2, double x, double y, int explosionFrame) {
+        // The frames are pre-rendered by SpriteBatch
+        SpriteBatch.getSprites(g2).drawExplosion(g2, x, y, explosionFrame);
+    }
+    
+    /**
+     * Advance the explosion animation by one frame.
+     * Called once per game tick so the animation runs at the simulation rate.
+     */
+    public void updateExplosion() {
+        store.updateExplosion(slot);
+    }
+    
+    /**
+     * Get the current frame of the explosion animation.
+     * 
+     * @return Frames since detonation, or -1 if the bomb hasn't been detonated
+     */
+    public int getExplosionFrame() {
+        return isDetonated() ? store.getExplosionFrame(slot) : -1;
+    }
+    
+    /**
+     * Get the number of frames the explosion animation lasts.
+     * 
+     * @return The explosion duration in frames
+     */
+    public int getExplosionDuration() {
+        return EXPLOSION_DURATION;
+    }
+    
     /**
      * Detonate the bomb, triggering the explosion effect.
      */
     public void detonate() {
-        detonated = true;
-        explosionFrame = 0;
+        store.detonate(slot);
     }
     
     /**
@@ -108,7 +127,7 @@ public class Bomb extends ShapeObject {
      * @return true if detonation animation is complete, false otherwise
      */
     public boolean isDetonationComplete() {
-        return detonated && explosionFrame >= explosionDuration;
+        return store.isDetonationComplete(slot);
     }
     
     /**
@@ -117,7 +136,7 @@ public class Bomb extends ShapeObject {
      * @return The point penalty for collecting this bomb
      */
     public int getPointPenalty() {
-        return pointPenalty;
+        return POINT_PENALTY;
     }
     
     /**
@@ -126,7 +145,7 @@ public class Bomb extends ShapeObject {
      * @return true if bomb is detonated, false otherwise
      */
     public boolean isDetonated() {
-        return detonated;
+        return store.isDetonated(slot);
     }
     
     /**
@@ -135,7 +154,7 @@ public class Bomb extends ShapeObject {
      * @param frameCount The current game frame count
      */
     public void setCreationFrame(int frameCount) {
-        this.creationFrame = frameCount;
+        store.setCreationFrame(slot, frameCount);
     }
     
     /**
@@ -145,6 +164,6 @@ public class Bomb extends ShapeObject {
      * @return true if expired, false otherwise
      */
     public boolean isExpired(int currentFrame) {
-        return (currentFrame - creationFrame) >= LIFETIME_FRAMES;
+        return store.isExpired(slot, currentFrame);
     }
 }
@@ -1,4 +1,5 @@
 import java.awt.*;
+import java.util.SplittableRandom;
 
 /**
  * Coin class representing a collectible item in the game.
@@ -35,11 +36,13 @@ public class Coin extends ShapeObject {
         }
     }
     
-    private CoinType type;
-    private int pointValue;
-    private boolean collected = false;
-    private int creationFrame;  // Frame when this coin was created
-    private static final int LIFETIME_FRAMES = 240;  // 4 seconds at 60 FPS
+    // Diameter of every coin (also the cell size of the collision grid)
+    public static final int COIN_SIZE = 15;
+    
+    // Frames a coin stays on the board
+    public static final int LIFETIME_FRAMES = 240;  // 4 seconds at 60 FPS
+    
+    private static final CoinType[] COIN_TYPES = CoinType.values();
     
     /**
      * Constructor for Coin.
@@ -47,19 +50,39 @@ public class Coin extends ShapeObject {
      * @param x Initial x-coordinate (center)
      * @param y Initial y-coordinate (center)
      * @param type CoinType enum specifying the coin type
-     * @param boardWidth Width of the game board
-     * @param boardHeight Height of the game board
+     * @param store The store to add the coin to
+     * @param random The game's random number generator, used for the velocity
      */
-    public Coin(double x, double y, CoinType type, int boardWidth, int boardHeight) {
+    public Coin(double x, double y, CoinType type, EntityStore store,
+                SplittableRandom random) {
         // Initialize with coin-specific properties
-        super(x, y, 15, 15, 
-              (Math.random() - 0.5) * 6,  // Random horizontal velocity between -3 and 3
-              (Math.random() - 0.5) * 6,  // Random vertical velocity between -3 and 3
-              type.color, boardWidth, boardHeight);
+        super(store, EntityStore.COIN, x, y, COIN_SIZE, COIN_SIZE, 
+              (random.nextDouble() - 0.5) * 6,  // Random horizontal velocity between -3 and 3
+              (random.nextDouble() - 0.5) * 6,  // Random vertical velocity between -3 and 3
+              type.color);
         
-        this.type = type;
-        this.pointValue = type.pointValue;
-        this.creationFrame = 0;  // Will be set by GamePanel when spawned
+        store.setVariant(slot, (byte) type.ordinal());
+    }
+    
+    /**
+     * Constructor for a view onto a coin in an EntityStore.
+     * 
+     * @param store The store holding the coin
+     * @param slot The coin's slot in the store
+     */
+    Coin(EntityStore store, int slot) {
+        super(store, slot, COIN_SIZE, COIN_SIZE, COIN_TYPES[store.getVariant(slot)].color);
+    }
+    
+    /**
+     * Point this recycled view at another coin, picking up that coin's color.
+     * 
+     * @param slot The coin's slot in the store
+     */
+    @Override
+    protected void reset(int slot) {
+        super.reset(slot);
+        this.color = getCoinType().color;
     }
     
     /**
@@ -71,18 +94,24 @@ public class Coin extends ShapeObject {
      */
     @Override
     public void draw(Graphics g) {
-        if (!collected) {
-            Graphics2D g2 = (Graphics2D) g;
-            g2.setColor(color);
-            g2.fillOval((int)(x - width/2), (int)(y - height/2), width, height);
-            
-            // Draw a dark outline for visibility
-            g2.setColor(Color.BLACK);
-            g2.setStroke(new BasicStroke(2));
-            g2.drawOval((int)(x - width/2), (int)(y - height/2), width, height);
+        if (!isCollected()) {
+            drawCoin((Graphics2D) g, getCoinType(), getX(), getY());
         }
     }
     
+    /**
+     * Draw a coin of the given type centered at a position, using its pre-rendered sprite.
+     * To draw many coins, get SpriteBatch.getSprites() once and draw them all with it.
+     * 
+     * @param g2 Graphics object to draw on
+     * @param type The type of coin, which decides its color
+     * @param x X-coordinate of the center
+     * @param y Y-coordinate of the center
+     */
+    public static void drawCoin(Graphics2D g2, CoinType type, double x, double y) {
+        SpriteBatch.getSprites(g2).drawCoin(g2, type, x, y);
+    }
+    
     /**
      * Draw the coin with lifetime tracking.
      * Only renders if the coin has not expired and has not been collected.
@@ -91,7 +120,7 @@ public class Coin extends ShapeObject {
      * @param currentFrame The current game frame count
      */
     public void draw(Graphics g, int currentFrame) {
-        if (!collected && !isExpired(currentFrame)) {
+        if (!isCollected() && !isExpired(currentFrame)) {
             draw(g);
         }
     }
@@ -102,7 +131,7 @@ public class Coin extends ShapeObject {
      * @return The number of points this coin is worth
      */
     public int getPointValue() {
-        return pointValue;
+        return getCoinType().pointValue;
     }
     
     /**
@@ -111,14 +140,14 @@ public class Coin extends ShapeObject {
      * @return The CoinType of this coin
      */
     public CoinType getCoinType() {
-        return type;
+        return COIN_TYPES[store.getVariant(slot)];
     }
     
     /**
      * Mark this coin as collected (collected coins are no longer drawn or active).
      */
     public void collect() {
-        collected = true;
+        store.collect(slot);
     }
     
     /**
@@ -127,7 +156,7 @@ public class Coin extends ShapeObject {
      * @return true if collected, false otherwise
      */
     public boolean isCollected() {
-        return collected;
+        return store.isCollected(slot);
     }
     
     /**
@@ -136,7 +165,7 @@ public class Coin extends ShapeObject {
      * @param frameCount The current game frame count
      */
     public void setCreationFrame(int frameCount) {
-        this.creationFrame = frameCount;
+        store.setCreationFrame(slot, frameCount);
     }
     
     /**
@@ -146,6 +175,6 @@ public class Coin extends ShapeObject {
      * @return true if expired, false otherwise
      */
     public boolean isExpired(int currentFrame) {
-        return (currentFrame - creationFrame) >= LIFETIME_FRAMES;
+        return store.isExpired(slot, currentFrame);
     }
 }
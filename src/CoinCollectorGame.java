@@ -40,6 +40,9 @@ public class CoinCollectorGame {
      * @param args Command line arguments (not used)
      */
     public static void main(String[] args) {
+        // Decode the game's images in the background while the login page is up
+        AssetManager.preloadImages();
+        
         // Run the game on the Event Dispatch Thread for thread safety
         SwingUtilities.invokeLater(() -> {
             // Create the main game window
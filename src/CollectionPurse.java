@@ -1,8 +1,4 @@
 import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import javax.imageio.ImageIO;
 
 /**
  * CollectionPurse class representing the player's collection tool.
@@ -13,29 +9,22 @@ import javax.imageio.ImageIO;
  */
 public class CollectionPurse extends ShapeObject {
     
-    private static final int PURSE_SIZE = 25;
-    private static BufferedImage purseImage;
+    public static final int PURSE_SIZE = 25;
+    private static final double COLLECTION_SCALE = 1.5;  // 50% larger collection area
+    private static final double[] SQUARED_COLLECTION_RANGE = squaredReachTable(COLLECTION_SCALE);
+    private static final String PURSE_IMAGE = "purse.png";
     private boolean isActive = true;  // Whether the purse can collect items
     
-    static {
-        try {
-            purseImage = ImageIO.read(new File("c:\\Users\\sawks\\Home\\School\\Grade 12\\Compsci\\JSwing_v2\\src\\images\\purse.png"));
-        } catch (IOException e) {
-            System.err.println("Failed to load purse image: " + e.getMessage());
-        }
-    }
-    
     /**
      * Constructor for CollectionPurse.
      * 
-     * @param boardWidth Width of the game board
-     * @param boardHeight Height of the game board
+     * @param store The store to keep the purse in (it takes one slot there)
      */
-    public CollectionPurse(int boardWidth, int boardHeight) {
+    public CollectionPurse(EntityStore store) {
         // Initialize purse at center of board with no velocity
         // (velocity is overridden by mouse movement)
-        super(boardWidth / 2.0, boardHeight / 2.0, PURSE_SIZE, PURSE_SIZE,
-              0, 0, new Color(100, 150, 255), boardWidth, boardHeight);
+        super(store, store.getBoardWidth() / 2.0, store.getBoardHeight() / 2.0, PURSE_SIZE, PURSE_SIZE,
+              0, 0, new Color(100, 150, 255));
     }
     
     /**
@@ -47,54 +36,58 @@ public class CollectionPurse extends ShapeObject {
      */
     public void followMouse(int mouseX, int mouseY) {
         // Keep the purse within board boundaries while following mouse
-        this.x = Math.max(PURSE_SIZE / 2, Math.min(mouseX, boardWidth - PURSE_SIZE / 2));
-        this.y = Math.max(PURSE_SIZE / 2, Math.min(mouseY, boardHeight - PURSE_SIZE / 2));
+        setX(Math.max(PURSE_SIZE / 2, Math.min(mouseX, boardWidth - PURSE_SIZE / 2)));
+        setY(Math.max(PURSE_SIZE / 2, Math.min(mouseY, boardHeight - PURSE_SIZE / 2)));
     }
     
     /**
-     * Draw the purse using the image loaded from file.
+     * Draw the purse using its sprite.
      * 
      * @param g Graphics object to draw on
      */
     @Override
     public void draw(Graphics g) {
         if (isActive) {
-            Graphics2D g2 = (Graphics2D) g;
-            
-            if (purseImage != null) {
-                // Draw image centered at (x, y)
-                g2.drawImage(purseImage, (int)(x - PURSE_SIZE / 2), (int)(y - PURSE_SIZE / 2), 
-                            PURSE_SIZE, PURSE_SIZE, null);
-            } //else {
-            //     // Fallback to shape if image failed to load
-            //     g2.setColor(color);
-            //     g2.fillOval((int)(x - PURSE_SIZE / 2.5), (int)(y - PURSE_SIZE / 2.5), 
-            //                 (int)(PURSE_SIZE / 1.25), (int)(PURSE_SIZE / 1.25));
-                
-            //     // Draw purse outline for definition
-            //     g2.setColor(Color.BLACK);
-            //     g2.setStroke(new BasicStroke(2));
-            //     g2.drawOval((int)(x - PURSE_SIZE / 2.5), (int)(y - PURSE_SIZE / 2.5),
-            //                 (int)(PURSE_SIZE / 1.25), (int)(PURSE_SIZE / 1.25));
-            // }
+            drawPurse((Graphics2D) g, getX(), getY());
         }
     }
     
     /**
-     * Check if a coin or bomb collides with the purse collection area.
-     * This is used when the player clicks to determine what was collected.
+     * Draw the purse's pre-scaled sprite centered at a position.
+     * Used to render the purse from a game snapshot.
+     * 
+     * @param g2 Graphics object to draw on
+     * @param x X-coordinate of the center
+     * @param y Y-coordinate of the center
+     */
+    public static void drawPurse(Graphics2D g2, double x, double y) {
+        // Draw image centered at (x, y)
+        SpriteAtlas.draw(g2, PURSE_IMAGE, (int)(x - PURSE_SIZE / 2), (int)(y - PURSE_SIZE / 2), 
+                         PURSE_SIZE, PURSE_SIZE);
+    }
+    
+    /**
+     * Get the purse's collection range for a coin or bomb.
+     * The purse has a larger effective collision radius for easier collection,
+     * so collidesWith() tells what a click collects.
+     * 
+     * @param otherWidth Width of the coin or bomb
+     * @return The collection range
+     */
+    @Override
+    public double collisionRange(int otherWidth) {
+        return (this.width/2 + otherWidth/2) * COLLECTION_SCALE;
+    }
+    
+    /**
+     * Get the cached squared threshold for the collection range.
      * 
-     * @param other The ShapeObject to check collision with
-     * @return true if the object overlaps with the purse, false otherwise
+     * @param otherWidth Width of the coin or bomb
+     * @return squaredReach() of the collection range
      */
     @Override
-    public boolean collidesWith(ShapeObject other) {
-        // Purse has a larger effective collision radius for easier collection
-        double dx = this.x - other.x;
-        double dy = this.y - other.y;
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        double collisionRange = (this.width/2 + other.width/2) * 1.5;  // 50% larger collection area
-        return distance < collisionRange;
+    protected double squaredCollisionRange(int otherWidth) {
+        return squaredReach(SQUARED_COLLECTION_RANGE, this.width/2 + otherWidth/2, COLLECTION_SCALE);
     }
     
     /**
@@ -0,0 +1,456 @@
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.security.spec.KeySpec;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * CredentialStore - Usernames and salted password hashes in a single file.
+ *
+ * Every account is kept in a HashMap, so finding a user takes the same time
+ * however many accounts there are. Passwords are never stored: each one gets
+ * a random salt and is hashed with PBKDF2 at a configurable cost (the
+ * goldrush.kdf.iterations system property). Hashing is slow on purpose, so
+ * verify() and register() run it on a background executor and hand back a
+ * future instead of blocking the caller.
+ *
+ * The file is append-only: a new account, or a rehash at a new cost, adds a
+ * record, and the last record for a username wins. When superseded records
+ * pile up the file is compacted by rewriting just the live accounts. It is
+ * read the first time it's needed. Accounts in old usernames.txt/passwords.txt
+ * files count as registered straight away; each is hashed into the store on
+ * that user's first login, or by a background task, never while holding the
+ * store's lock. The text files are renamed once every account is converted.
+ *
+ * File format (big-endian): magic, version, then one record per account:
+ * username, iterations, salt, hash.
+ */
+public class CredentialStore {
+
+    public static final int DEFAULT_ITERATIONS = 120_000;
+    public static final String ITERATIONS_PROPERTY = "goldrush.kdf.iterations";
+
+    private static final int MAGIC = 0x47525553;  // "GRUS"
+    private static final int VERSION = 1;
+    private static final String KDF = "PBKDF2WithHmacSHA256";
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int COMPACT_MIN_RECORDS = 64;  // Never compact files smaller than this
+
+    private static final String USERNAME_FILE = "usernames.txt";
+    private static final String PASSWORD_FILE = "passwords.txt";
+    private static final String MIGRATED_EXTENSION = ".migrated";
+
+    // Hashing runs here, never on the caller's thread
+    private static final ExecutorService HASHER = Executors.newFixedThreadPool(
+        Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())), task -> {
+            Thread thread = new Thread(task, "GoldRush-PasswordHasher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private static final SecureRandom SALTS = new SecureRandom();
+
+    private final File file;
+    private final int iterations;
+
+    private HashMap<String, Credential> accounts;  // null until loaded
+    private final HashMap<String, String> textUsers = new HashMap<>();  // Old text-file accounts not hashed yet
+    private int recordCount = 0;                   // Records in the file, including superseded ones
+
+    /**
+     * Constructor for CredentialStore. Hashes at the configured cost.
+     *
+     * @param file The file the accounts are saved to
+     */
+    public CredentialStore(File file) {
+        this(file, Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS));
+    }
+
+    /**
+     * Constructor for CredentialStore.
+     *
+     * @param file The file the accounts are saved to
+     * @param iterations PBKDF2 iterations for new hashes
+     */
+    public CredentialStore(File file, int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("iterations must be at least 1");
+        }
+        this.file = file;
+        this.iterations = iterations;
+    }
+
+    /**
+     * Check a username and password in the background.
+     *
+     * @param username The username to look up
+     * @param password The password entered for it
+     * @return A future that completes with true if the user exists and the password matches
+     */
+    public CompletableFuture<Boolean> verify(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> check(username, password), HASHER);
+    }
+
+    /**
+     * Create a new account in the background.
+     *
+     * @param username The new username
+     * @param password The new user's password
+     * @return A future that completes with false if the username is taken,
+     *         or exceptionally if the account couldn't be saved
+     */
+    public CompletableFuture<Boolean> register(String username, String password) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return addUser(username, password);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, HASHER);
+    }
+
+    /**
+     * Check a username and password on the calling thread.
+     * Unknown users cost a full hash too, so timing doesn't reveal which usernames exist.
+     * A match hashed at an old cost is rehashed at the current one.
+     *
+     * @param username The username to look up
+     * @param password The password entered for it
+     * @return true if the user exists and the password matches
+     */
+    public boolean check(String username, String password) {
+        Credential credential;
+        String textPassword;
+        synchronized (this) {
+            ensureLoaded();
+            credential = accounts.get(username);
+            textPassword = textUsers.get(username);
+        }
+        if (credential == null && textPassword != null) {
+            try {
+                credential = migrateTextUser(username, textPassword);
+            } catch (IOException e) {
+                System.out.println("Error migrating user data: " + e.getMessage());
+                return false;
+            }
+        }
+        if (credential == null) {
+            hash(password, new byte[SALT_LENGTH], iterations);
+            return false;
+        }
+        if (!MessageDigest.isEqual(hash(password, credential.salt, credential.iterations), credential.hash)) {
+            return false;
+        }
+        if (credential.iterations != iterations) {
+            try {
+                put(username, newCredential(password), credential);
+            } catch (IOException e) {
+                System.out.println("Error rehashing password: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Create a new account on the calling thread.
+     *
+     * @param username The new username
+     * @param password The new user's password
+     * @return false if the username is already taken
+     * @throws IOException If the account can't be saved
+     */
+    public boolean addUser(String username, String password) throws IOException {
+        if (contains(username)) {
+            return false;
+        }
+        return put(username, newCredential(password), null);
+    }
+
+    /**
+     * Check whether a username is taken.
+     *
+     * @param username The username to look up
+     * @return true if an account exists for it
+     */
+    public synchronized boolean contains(String username) {
+        ensureLoaded();
+        return accounts.containsKey(username) || textUsers.containsKey(username);
+    }
+
+    /**
+     * Get the number of accounts.
+     *
+     * @return The number of registered users
+     */
+    public synchronized int size() {
+        ensureLoaded();
+        return accounts.size() + textUsers.size();
+    }
+
+    /**
+     * Rewrite the file with only the live accounts.
+     * Writes a temporary file, syncs it to disk, and renames it over the old
+     * one, so a crash leaves either the old file or the new one. If the file
+     * system can't rename atomically, falls back to a plain replace.
+     *
+     * @throws IOException If the file can't be written
+     */
+    public synchronized void compact() throws IOException {
+        ensureLoaded();
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            for (String username : accounts.keySet()) {
+                writeRecord(out, username, accounts.get(username));
+            }
+            out.flush();
+            fileOut.getChannel().force(true);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = accounts.size();
+    }
+
+    /**
+     * Store a credential and append it to the file, compacting the file if
+     * most of it is superseded records.
+     *
+     * @param expected The credential being replaced, or null for a new account
+     * @return false if the account changed since expected was read
+     */
+    private synchronized boolean put(String username, Credential credential, Credential expected) throws IOException {
+        ensureLoaded();
+        if (accounts.get(username) != expected || textUsers.containsKey(username)) {
+            return false;
+        }
+        boolean newFile = !file.exists();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file, true)))) {
+            if (newFile) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+            }
+            writeRecord(out, username, credential);
+        }
+        accounts.put(username, credential);
+        recordCount++;
+        if (recordCount > COMPACT_MIN_RECORDS && recordCount > accounts.size() * 2) {
+            compact();
+        }
+        return true;
+    }
+
+    /**
+     * Read the file the first time it's needed, then pick up any old text files.
+     */
+    private void ensureLoaded() {
+        if (accounts != null) {
+            return;
+        }
+        accounts = new HashMap<>();
+        boolean damaged = false;
+        if (file.exists()) {
+            try (DataInputStream in = new DataInputStream(
+                    new BufferedInputStream(new FileInputStream(file)))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException(file + " is not a Gold Rush user file");
+                }
+                while (true) {
+                    String username;
+                    try {
+                        username = in.readUTF();
+                    } catch (EOFException e) {
+                        break;  // Clean end of file
+                    }
+                    accounts.put(username, readCredential(in));
+                    recordCount++;
+                }
+            } catch (EOFException e) {
+                // A record was cut off part way (e.g. a crash mid-append); keep what was read
+                System.out.println("Error loading user data: " + file + " ends part way through a record");
+                damaged = true;
+            } catch (IOException e) {
+                System.out.println("Error loading user data: " + e.getMessage());
+            }
+        }
+        readTextUsers();
+        if (damaged) {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.out.println("Error repairing user data: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Read the accounts from the old usernames.txt/passwords.txt pair without
+     * hashing them, and start hashing them into this store in the background.
+     */
+    private void readTextUsers() {
+        File directory = file.getAbsoluteFile().getParentFile();
+        File usernameFile = new File(directory, USERNAME_FILE);
+        File passwordFile = new File(directory, PASSWORD_FILE);
+        if (!usernameFile.exists() || !passwordFile.exists()) {
+            return;
+        }
+        try {
+            ArrayList<String> usernames = new ArrayList<>(Files.readAllLines(usernameFile.toPath()));
+            ArrayList<String> passwords = new ArrayList<>(Files.readAllLines(passwordFile.toPath()));
+            for (int i = 0; i < Math.min(usernames.size(), passwords.size()); i++) {
+                String username = usernames.get(i);
+                if (!username.isEmpty() && !accounts.containsKey(username)) {
+                    textUsers.putIfAbsent(username, passwords.get(i));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error migrating user data: " + e.getMessage());
+            return;
+        }
+        if (textUsers.isEmpty()) {
+            retireTextFiles();
+        } else {
+            // Own thread, so logins on the hasher pool don't queue behind the whole migration
+            Thread migration = new Thread(this::migrateTextUsers, "GoldRush-UserMigration");
+            migration.setDaemon(true);
+            migration.setPriority(Thread.MIN_PRIORITY);
+            migration.start();
+        }
+    }
+
+    /**
+     * Background task: hash every old text-file account that hasn't logged in yet.
+     */
+    private void migrateTextUsers() {
+        ArrayList<String> usernames;
+        synchronized (this) {
+            usernames = new ArrayList<>(textUsers.keySet());
+        }
+        int migrated = 0;
+        for (String username : usernames) {
+            String password;
+            synchronized (this) {
+                password = textUsers.get(username);
+            }
+            if (password == null) {
+                continue;  // Already converted by a login
+            }
+            try {
+                migrateTextUser(username, password);
+                migrated++;
+            } catch (IOException e) {
+                System.out.println("Error migrating user data: " + e.getMessage());
+                return;
+            }
+        }
+        System.out.println("Migrated " + migrated + " users to " + file.getName());
+    }
+
+    /**
+     * Hash one old text-file account into the store. The hash is made before
+     * taking the lock, so other callers aren't held up by it.
+     *
+     * @return The user's credential afterwards
+     * @throws IOException If the account can't be saved
+     */
+    private Credential migrateTextUser(String username, String password) throws IOException {
+        Credential credential = newCredential(password);
+        synchronized (this) {
+            if (password.equals(textUsers.get(username))) {
+                textUsers.remove(username);
+                try {
+                    put(username, credential, null);
+                } catch (IOException e) {
+                    textUsers.put(username, password);
+                    throw e;
+                }
+                if (textUsers.isEmpty()) {
+                    retireTextFiles();
+                }
+            }
+            return accounts.get(username);
+        }
+    }
+
+    /**
+     * Rename the old text files so they're only converted once.
+     */
+    private void retireTextFiles() {
+        File directory = file.getAbsoluteFile().getParentFile();
+        try {
+            for (String name : new String[] { USERNAME_FILE, PASSWORD_FILE }) {
+                File textFile = new File(directory, name);
+                Files.move(textFile.toPath(), new File(textFile.getPath() + MIGRATED_EXTENSION).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            System.out.println("Error migrating user data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Salt and hash a password at the current cost.
+     */
+    private Credential newCredential(String password) {
+        byte[] salt = new byte[SALT_LENGTH];
+        SALTS.nextBytes(salt);
+        return new Credential(iterations, salt, hash(password, salt, iterations));
+    }
+
+    private static byte[] hash(String password, byte[] salt, int iterations) {
+        KeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_LENGTH * 8);
+        try {
+            return SecretKeyFactory.getInstance(KDF).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(KDF + " is not available", e);
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, String username, Credential credential) throws IOException {
+        out.writeUTF(username);
+        out.writeInt(credential.iterations);
+        out.write(credential.salt);
+        out.write(credential.hash);
+    }
+
+    private static Credential readCredential(DataInputStream in) throws IOException {
+        int iterations = in.readInt();
+        byte[] salt = new byte[SALT_LENGTH];
+        in.readFully(salt);
+        byte[] hash = new byte[HASH_LENGTH];
+        in.readFully(hash);
+        return new Credential(iterations, salt, hash);
+    }
+
+    /**
+     * A salted password hash and the cost it was made with
+     */
+    private static class Credential {
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        Credential(int iterations, byte[] salt, byte[] hash) {
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+import java.awt.Rectangle;
+
+/**
+ * DirtyRegions - A few separate rectangles of the screen that need repainting.
+ *
+ * A rectangle that overlaps or nearly touches one already in the set is
+ * merged into it, so a coin moving in one corner and another in the opposite
+ * corner stay two small regions instead of one that covers the whole board.
+ * The number of regions is capped: past MAX_REGIONS, a new rectangle is
+ * merged into whichever region grows least by taking it in.
+ *
+ * The rectangles are allocated once and reused, so adding and clearing
+ * regions never allocates. Not thread-safe.
+ */
+public class DirtyRegions {
+
+    public static final int MAX_REGIONS = 8;
+    private static final int MERGE_GAP = 8;  // Regions closer than this many pixels are painted as one
+
+    private final Rectangle[] regions = new Rectangle[MAX_REGIONS];
+    private int count = 0;
+
+    /**
+     * Constructor for DirtyRegions. Starts empty.
+     */
+    public DirtyRegions() {
+        for (int i = 0; i < MAX_REGIONS; i++) {
+            regions[i] = new Rectangle();
+        }
+    }
+
+    /**
+     * Mark a rectangle as needing a repaint.
+     *
+     * @param x Left edge
+     * @param y Top edge
+     * @param width Width of the rectangle
+     * @param height Height of the rectangle
+     */
+    public void add(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        int left = x;
+        int top = y;
+        int right = x + width;
+        int bottom = y + height;
+        while (true) {
+            // Take in every region this one overlaps or nearly touches; each merge
+            // makes it bigger, so look again from the start
+            for (int i = 0; i < count; i++) {
+                Rectangle region = regions[i];
+                if (region.x - MERGE_GAP <= right && left <= region.x + region.width + MERGE_GAP
+                        && region.y - MERGE_GAP <= bottom && top <= region.y + region.height + MERGE_GAP) {
+                    left = Math.min(left, region.x);
+                    top = Math.min(top, region.y);
+                    right = Math.max(right, region.x + region.width);
+                    bottom = Math.max(bottom, region.y + region.height);
+                    remove(i);
+                    i = -1;
+                }
+            }
+            if (count < MAX_REGIONS) {
+                break;
+            }
+
+            // No room for another region: take in the one that adds the least area
+            int best = 0;
+            long bestGrowth = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                Rectangle region = regions[i];
+                long unionWidth = Math.max(right, region.x + region.width) - Math.min(left, region.x);
+                long unionHeight = Math.max(bottom, region.y + region.height) - Math.min(top, region.y);
+                long growth = unionWidth * unionHeight - (long) region.width * region.height;
+                if (growth < bestGrowth) {
+                    best = i;
+                    bestGrowth = growth;
+                }
+            }
+            Rectangle region = regions[best];
+            left = Math.min(left, region.x);
+            top = Math.min(top, region.y);
+            right = Math.max(right, region.x + region.width);
+            bottom = Math.max(bottom, region.y + region.height);
+            remove(best);
+        }
+        regions[count++].setBounds(left, top, right - left, bottom - top);
+    }
+
+    /**
+     * Mark a rectangle as needing a repaint.
+     *
+     * @param r The rectangle
+     */
+    public void add(Rectangle r) {
+        add(r.x, r.y, r.width, r.height);
+    }
+
+    /**
+     * Mark every region of another set as needing a repaint.
+     *
+     * @param other The regions to add
+     */
+    public void addAll(DirtyRegions other) {
+        for (int i = 0; i < other.count; i++) {
+            add(other.regions[i]);
+        }
+    }
+
+    /**
+     * Forget every region.
+     */
+    public void clear() {
+        count = 0;
+    }
+
+    /**
+     * Get a region. The rectangle is reused, so copy it to keep it past the next change.
+     *
+     * @param i Index of the region, from 0 to size() - 1
+     * @return The region
+     */
+    public Rectangle get(int i) {
+        return regions[i];
+    }
+
+    // Getters for the region count
+    public int size() { return count; }
+    public boolean isEmpty() { return count == 0; }
+
+    /**
+     * Drop a region by moving the last one into its place.
+     */
+    private void remove(int i) {
+        count--;
+        Rectangle removed = regions[i];
+        regions[i] = regions[count];
+        regions[count] = removed;
+    }
+}
@@ -0,0 +1,90 @@
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * EntityPool - Recycles ShapeObject views so the game doesn't allocate them
+ * during play.
+ *
+ * acquire() hands out an idle object, or creates one if the pool is empty, and
+ * binds it to a slot. release() puts it back for the next acquire(). The pool
+ * counts hits (reused objects) and misses (newly created objects), so it is easy
+ * to check that steady-state gameplay creates no new entity objects.
+ *
+ * @param <T> The type of object being pooled
+ */
+public class EntityPool<T extends ShapeObject> {
+
+    private final IntFunction<T> factory;
+    private Object[] idle = new Object[0];  // Grown by the first release()
+    private int idleCount = 0;
+
+    // Counters
+    private long hits = 0;
+    private long misses = 0;
+    private long releases = 0;
+
+    /**
+     * Constructor for EntityPool.
+     *
+     * @param factory Creates a new object bound to a slot when the pool is empty
+     */
+    public EntityPool(IntFunction<T> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Get an object bound to a slot, reusing an idle one if possible.
+     *
+     * @param slot The slot the object should view
+     * @return An object reset to view the slot
+     */
+    @SuppressWarnings("unchecked")
+    public T acquire(int slot) {
+        if (idleCount == 0) {
+            misses++;
+            return factory.apply(slot);
+        }
+        hits++;
+        T object = (T) idle[--idleCount];
+        idle[idleCount] = null;
+        object.reset(slot);
+        return object;
+    }
+
+    /**
+     * Return an object to the pool so a later acquire() can reuse it.
+     *
+     * @param object The object to return
+     */
+    public void release(T object) {
+        if (idleCount == idle.length) {
+            idle = Arrays.copyOf(idle, Math.max(16, idleCount * 2));
+        }
+        idle[idleCount++] = object;
+        releases++;
+    }
+
+    /**
+     * Get the number of idle objects waiting to be reused.
+     *
+     * @return The pool size
+     */
+    public int getPoolSize() {
+        return idleCount;
+    }
+
+    /**
+     * Get the fraction of acquire() calls that reused an idle object.
+     *
+     * @return The hit rate from 0 to 1, or 1 if nothing has been acquired
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 1.0 : (double) hits / total;
+    }
+
+    // Getters for the counters
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getReleases() { return releases; }
+}
@@ -0,0 +1,926 @@
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * EntityStore - Structure-of-arrays storage for every moving game object.
+ *
+ * Instead of one heap object per coin, bomb, or powerup, each entity is a slot
+ * index into parallel primitive arrays (position, velocity, creation frame, type...).
+ * Slots of removed entities go on a free list and are reused by later spawns,
+ * so spawning doesn't allocate, and the movement, expiry, and collision loops
+ * walk flat arrays instead of chasing object pointers.
+ *
+ * Coin, Bomb, and PowerUp objects still exist as thin views onto a slot
+ * (see getView()), so code that works with ShapeObjects keeps working.
+ * Views are recycled through an EntityPool per type, so once the game has
+ * warmed up neither spawning nor removal allocates any entity objects.
+ *
+ * Moving and checking expiry only touch each entity's own slot, so once a
+ * list holds at least parallelThreshold entities (-Dgoldrush.parallelThreshold,
+ * 2048 by default) those loops are split into chunks and run across cores on
+ * the common ForkJoinPool. Slots are still freed and lists compacted in list
+ * order on the calling thread, so the result is exactly the same as the
+ * single-threaded loop, and small games never leave the calling thread.
+ *
+ * Lifetimes are tracked by a timing wheel: each entity is linked into the
+ * bucket for the frame its lifetime ends, and advancing to a frame marks
+ * just the entities due on it as expired. Loops then test one flag instead
+ * of working out every entity's age each time they look at it.
+ *
+ * indexPositions() bins every coin, bomb, and powerup into a SpatialGrid so
+ * entitiesWithin() can answer "what is near this point" by looking at a few
+ * cells instead of every entity, e.g. when the player clicks.
+ */
+public class EntityStore {
+
+    // Entity types
+    public static final byte COIN = 0;
+    public static final byte BOMB = 1;
+    public static final byte POWERUP = 2;
+    public static final byte OTHER = 3;  // Anything else, e.g. the purse
+    private static final byte FREE = -1;
+
+    // Entity flags
+    private static final byte COLLECTED = 1;
+    private static final byte DETONATED = 2;
+    private static final byte EXPIRED = 4;
+
+    // Expiry timing wheel: bucket (frame & EXPIRY_MASK) links the entities whose lifetime ends on that frame
+    private static final int EXPIRY_WHEEL_SIZE = 1024;  // More frames than any lifetime, so each bucket holds one frame
+    private static final int EXPIRY_MASK = EXPIRY_WHEEL_SIZE - 1;
+    private static final int UNSCHEDULED = -2;  // expiryPrevious of a slot that isn't in the wheel
+
+    // Parallel update: lists at least this long are split into chunks of PARALLEL_CHUNK entities.
+    // Moving or expiring an entity takes about 8 ns, so it takes two full chunks
+    // (about 16 us of work) to clearly outweigh the few microseconds it costs to
+    // hand them to the pool; a rush game peaks at about 2500 coins.
+    private static final int DEFAULT_PARALLEL_THRESHOLD = Integer.getInteger("goldrush.parallelThreshold", 2048);
+    private static final int PARALLEL_CHUNK = 1024;
+
+    // Frames each entity type lives for, indexed by type
+    private static final int[] LIFETIME_FRAMES = {
+        Coin.LIFETIME_FRAMES, Bomb.LIFETIME_FRAMES, PowerUp.LIFETIME_FRAMES, Integer.MAX_VALUE
+    };
+
+    // Per-slot state. Package-private so hot loops can read the arrays directly.
+    double[] x;
+    double[] y;
+    double[] velocityX;
+    double[] velocityY;
+    double[] previousX;
+    double[] previousY;
+    int[] size;
+    int[] creationFrame;
+    int[] explosionFrame;
+    byte[] type;
+    byte[] variant;  // Coin.CoinType ordinal for coins
+    byte[] flags;
+    private int[] expiryNext;  // Next slot in the same wheel bucket, or -1
+    private int[] expiryPrevious;  // Previous slot in the bucket, -1 if first, or UNSCHEDULED
+
+    // Slot allocation
+    private int slotCount = 0;  // Number of slots ever handed out
+    private int[] freeSlots;
+    private int freeCount = 0;
+    private long spawnCount = 0;
+    private long reusedSlotCount = 0;
+
+    // Live slots of each type, in spawn order
+    private final SlotList coins = new SlotList();
+    private final SlotList bombs = new SlotList();
+    private final SlotList powerUps = new SlotList();
+
+    // Heads of the expiry wheel's buckets, and the last frame it has been advanced to.
+    // The wheel is only created the first time the store is advanced, so standalone
+    // shapes (the purse, test objects), whose frame never moves, don't carry one.
+    private int[] expiryHead;
+    private int expiryFrame = 0;
+
+    // Views handed out by getView(), taken from the pools on first use
+    private ShapeObject[] views;
+    private final EntityPool<Coin> coinPool = new EntityPool<>(slot -> new Coin(this, slot));
+    private final EntityPool<Bomb> bombPool = new EntityPool<>(slot -> new Bomb(this, slot));
+    private final EntityPool<PowerUp> powerUpPool = new EntityPool<>(slot -> new PowerUp(this, slot));
+
+    private final int boardWidth;
+    private final int boardHeight;
+
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private boolean[] finished = new boolean[16];  // Which list entries to remove, filled in parallel
+    private final ChunkTask moveCoinTask = this::moveCoinRange;
+    private final ChunkTask moveBombTask = this::moveBombRange;
+    private final ChunkTask markFinishedCoinTask = this::markFinishedCoinRange;
+    private final ChunkTask markFinishedBombTask = this::markFinishedBombRange;
+    private Chunk[] chunks = new Chunk[0];  // Reused by runInChunks() so it doesn't allocate
+
+    // Proximity index over coins, bombs, and powerups, created by the first indexPositions()
+    private static final int INDEX_CELL_SIZE = 50;
+    private SpatialGrid proximityIndex;
+    private int[] indexedSlots = new int[16];  // Item i of the index is indexedSlots[i]
+    private double[] indexedX = new double[16];
+    private double[] indexedY = new double[16];
+    private double indexedMaxStep = 0;  // Farthest any indexed entity moved since its previous position
+    private final SpatialGrid.Neighbors indexCandidates = new SpatialGrid.Neighbors();
+    private final SlotList nearby = new SlotList();
+
+    /**
+     * Work done on one chunk of a slot list
+     */
+    private interface ChunkTask {
+        void run(int[] slots, int from, int to);
+    }
+
+    /**
+     * One chunk of a slot list to run a ChunkTask over, reused every tick
+     */
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private ChunkTask task;
+        private int[] slots;
+        private int from;
+        private int to;
+
+        @Override
+        protected void compute() {
+            task.run(slots, from, to);
+        }
+    }
+
+    /**
+     * A growable list of slot indices.
+     */
+    public static class SlotList {
+        private int[] slots = new int[16];
+        private int size = 0;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        public int get(int i) { return slots[i]; }
+        public int size() { return size; }
+    }
+
+    /**
+     * Constructor for EntityStore.
+     *
+     * @param initialCapacity Number of slots to allocate up front
+     * @param boardWidth Width of the game board
+     * @param boardHeight Height of the game board
+     */
+    public EntityStore(int initialCapacity, int boardWidth, int boardHeight) {
+        this.boardWidth = boardWidth;
+        this.boardHeight = boardHeight;
+        int capacity = Math.max(1, initialCapacity);
+        x = new double[capacity];
+        y = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        previousX = new double[capacity];
+        previousY = new double[capacity];
+        size = new int[capacity];
+        creationFrame = new int[capacity];
+        explosionFrame = new int[capacity];
+        type = new byte[capacity];
+        variant = new byte[capacity];
+        flags = new byte[capacity];
+        expiryNext = new int[capacity];
+        expiryPrevious = new int[capacity];
+        freeSlots = new int[capacity];
+        views = new ShapeObject[capacity];
+    }
+
+    /**
+     * Add a new entity, reusing a free slot if there is one.
+     *
+     * @param entityType COIN, BOMB, POWERUP, or OTHER
+     * @param x Initial x-coordinate (center)
+     * @param y Initial y-coordinate (center)
+     * @param velocityX Initial x-velocity
+     * @param velocityY Initial y-velocity
+     * @param entitySize Width and height of the entity
+     * @param frame The current game frame count
+     * @return The slot holding the new entity
+     */
+    public int spawn(byte entityType, double x, double y, double velocityX, double velocityY,
+                     int entitySize, int frame) {
+        int slot;
+        spawnCount++;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+            reusedSlotCount++;
+        } else {
+            if (slotCount == this.x.length) {
+                grow(slotCount * 2);
+            }
+            slot = slotCount++;
+        }
+
+        // Reset everything the slot's previous entity left behind
+        this.x[slot] = x;
+        this.y[slot] = y;
+        this.velocityX[slot] = velocityX;
+        this.velocityY[slot] = velocityY;
+        this.previousX[slot] = x;
+        this.previousY[slot] = y;
+        this.size[slot] = entitySize;
+        this.creationFrame[slot] = frame;
+        this.explosionFrame[slot] = 0;
+        this.type[slot] = entityType;
+        this.variant[slot] = 0;
+        this.flags[slot] = 0;
+        scheduleExpiry(slot);
+
+        SlotList list = listFor(entityType);
+        if (list != null) {
+            list.add(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * Remove every coin, bomb, and powerup.
+     */
+    public void clear() {
+        freeAll(coins);
+        freeAll(bombs);
+        freeAll(powerUps);
+        if (proximityIndex != null) {
+            proximityIndex.rebuild(0, indexedX, indexedY);
+        }
+        indexedMaxStep = 0;
+        expiryFrame = 0;  // The next game counts frames from 0 again
+    }
+
+    /**
+     * Remember every entity's current position as the start of this tick.
+     */
+    public void storePreviousPositions() {
+        System.arraycopy(x, 0, previousX, 0, slotCount);
+        System.arraycopy(y, 0, previousY, 0, slotCount);
+    }
+
+    /**
+     * Move every live coin.
+     *
+     * @param frame The current game frame count
+     */
+    public void moveCoins(int frame) {
+        advanceExpiry(frame);
+        if (coins.size < parallelThreshold) {
+            moveCoinRange(coins.slots, 0, coins.size);
+        } else {
+            runInChunks(coins, moveCoinTask);
+        }
+    }
+
+    private void moveCoinRange(int[] slots, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int slot = slots[i];
+            if ((flags[slot] & (COLLECTED | EXPIRED)) == 0) {
+                move(slot);
+            }
+        }
+    }
+
+    /**
+     * Move every live bomb and advance explosion animations.
+     *
+     * @param frame The current game frame count
+     */
+    public void moveBombs(int frame) {
+        advanceExpiry(frame);
+        if (bombs.size < parallelThreshold) {
+            moveBombRange(bombs.slots, 0, bombs.size);
+        } else {
+            runInChunks(bombs, moveBombTask);
+        }
+    }
+
+    private void moveBombRange(int[] slots, int from, int to) {
+        for (int i = from; i < to; i++) {
+            int slot = slots[i];
+            if ((flags[slot] & (DETONATED | EXPIRED)) == 0) {
+                move(slot);
+            }
+            updateExplosion(slot);
+        }
+    }
+
+    /**
+     * Move every powerup.
+     */
+    public void movePowerUps() {
+        for (int i = 0; i < powerUps.size; i++) {
+            movePowerUp(powerUps.slots[i]);
+        }
+    }
+
+    /**
+     * Move an entity by its velocity, bouncing off the walls.
+     *
+     * @param slot The entity to move
+     */
+    public void move(int slot) {
+        x[slot] += velocityX[slot];
+        y[slot] += velocityY[slot];
+        int half = size[slot] / 2;
+
+        // Bounce off walls
+        if (x[slot] - half < 0 || x[slot] + half > boardWidth) {
+            velocityX[slot] = -velocityX[slot];
+            x[slot] = Math.max(half, Math.min(x[slot], boardWidth - half));
+        }
+        if (y[slot] - half < 0 || y[slot] + half > boardHeight) {
+            velocityY[slot] = -velocityY[slot];
+            y[slot] = Math.max(half, Math.min(y[slot], boardHeight - half));
+        }
+    }
+
+    /**
+     * Move a powerup by its velocity, bouncing off the walls.
+     *
+     * @param slot The powerup to move
+     */
+    public void movePowerUp(int slot) {
+        x[slot] += velocityX[slot];
+        y[slot] += velocityY[slot];
+        int half = size[slot] / 2;
+        if (x[slot] < half) {
+            x[slot] = half;
+            velocityX[slot] = -velocityX[slot];
+        } else if (x[slot] > boardWidth - half) {
+            x[slot] = boardWidth - half;
+            velocityX[slot] = -velocityX[slot];
+        }
+        if (y[slot] < half) {
+            y[slot] = half;
+            velocityY[slot] = -velocityY[slot];
+        } else if (y[slot] > boardHeight - half) {
+            y[slot] = boardHeight - half;
+            velocityY[slot] = -velocityY[slot];
+        }
+    }
+
+    /**
+     * Remove collected or expired coins, freeing their slots.
+     *
+     * @param frame The current game frame count
+     */
+    public void removeFinishedCoins(int frame) {
+        advanceExpiry(frame);
+        if (coins.size < parallelThreshold) {
+            int kept = 0;
+            for (int i = 0; i < coins.size; i++) {
+                int slot = coins.slots[i];
+                if ((flags[slot] & (COLLECTED | EXPIRED)) != 0) {
+                    free(slot);
+                } else {
+                    coins.slots[kept++] = slot;
+                }
+            }
+            coins.size = kept;
+            return;
+        }
+        boolean[] done = finishedFlags(coins.size);
+        runInChunks(coins, markFinishedCoinTask);
+        removeFinished(coins, done);
+    }
+
+    private void markFinishedCoinRange(int[] slots, int from, int to) {
+        boolean[] done = finished;
+        for (int i = from; i < to; i++) {
+            int slot = slots[i];
+            done[i] = (flags[slot] & (COLLECTED | EXPIRED)) != 0;
+        }
+    }
+
+    /**
+     * Remove bombs that have finished exploding or expired, freeing their slots.
+     *
+     * @param frame The current game frame count
+     */
+    public void removeFinishedBombs(int frame) {
+        advanceExpiry(frame);
+        if (bombs.size < parallelThreshold) {
+            int kept = 0;
+            for (int i = 0; i < bombs.size; i++) {
+                int slot = bombs.slots[i];
+                if ((flags[slot] & EXPIRED) != 0 || isDetonationComplete(slot)) {
+                    free(slot);
+                } else {
+                    bombs.slots[kept++] = slot;
+                }
+            }
+            bombs.size = kept;
+            return;
+        }
+        boolean[] done = finishedFlags(bombs.size);
+        runInChunks(bombs, markFinishedBombTask);
+        removeFinished(bombs, done);
+    }
+
+    private void markFinishedBombRange(int[] slots, int from, int to) {
+        boolean[] done = finished;
+        for (int i = from; i < to; i++) {
+            int slot = slots[i];
+            done[i] = (flags[slot] & EXPIRED) != 0 || isDetonationComplete(slot);
+        }
+    }
+
+    /**
+     * Remove expired powerups, freeing their slots.
+     *
+     * @param frame The current game frame count
+     */
+    public void removeExpiredPowerUps(int frame) {
+        advanceExpiry(frame);
+        int kept = 0;
+        for (int i = 0; i < powerUps.size; i++) {
+            int slot = powerUps.slots[i];
+            if ((flags[slot] & EXPIRED) != 0) {
+                free(slot);
+            } else {
+                powerUps.slots[kept++] = slot;
+            }
+        }
+        powerUps.size = kept;
+    }
+
+    /**
+     * Run a task over a slot list in chunks across the common ForkJoinPool,
+     * returning once every chunk is done. The task may only write to the
+     * slots in its own chunk. The calling thread runs the first chunk itself.
+     * The chunk objects are kept and reused, so once the list has reached its
+     * largest size this allocates nothing.
+     */
+    private void runInChunks(SlotList list, ChunkTask task) {
+        int count = list.size;
+        int chunkCount = (count + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+        if (chunks.length < chunkCount) {
+            int oldLength = chunks.length;
+            chunks = Arrays.copyOf(chunks, chunkCount);
+            for (int i = oldLength; i < chunkCount; i++) {
+                chunks[i] = new Chunk();
+            }
+        }
+        for (int i = 0; i < chunkCount; i++) {
+            Chunk chunk = chunks[i];
+            chunk.reinitialize();
+            chunk.task = task;
+            chunk.slots = list.slots;
+            chunk.from = i * PARALLEL_CHUNK;
+            chunk.to = Math.min(count, (i + 1) * PARALLEL_CHUNK);
+        }
+        for (int i = 1; i < chunkCount; i++) {
+            chunks[i].fork();
+        }
+        chunks[0].compute();
+        for (int i = 1; i < chunkCount; i++) {
+            chunks[i].join();
+        }
+    }
+
+    /**
+     * Get the scratch array for marking list entries to remove, grown to fit.
+     */
+    private boolean[] finishedFlags(int count) {
+        if (finished.length < count) {
+            finished = new boolean[Math.max(count, finished.length * 2)];
+        }
+        return finished;
+    }
+
+    /**
+     * Free the marked entries of a list and close the gaps, in list order.
+     */
+    private void removeFinished(SlotList list, boolean[] done) {
+        int kept = 0;
+        for (int i = 0; i < list.size; i++) {
+            int slot = list.slots[i];
+            if (done[i]) {
+                free(slot);
+            } else {
+                list.slots[kept++] = slot;
+            }
+        }
+        list.size = kept;
+    }
+
+    /**
+     * Set how many entities a list needs before moving and expiry are run in parallel.
+     *
+     * @param threshold Smallest list size to split across cores; Integer.MAX_VALUE to never do so
+     */
+    public void setParallelThreshold(int threshold) {
+        this.parallelThreshold = Math.max(1, threshold);
+    }
+
+    public int getParallelThreshold() { return parallelThreshold; }
+
+    /**
+     * Remove one powerup straight away (e.g. when it is clicked).
+     *
+     * @param index Position of the powerup in getPowerUps()
+     */
+    public void removePowerUp(int index) {
+        free(powerUps.slots[index]);
+        System.arraycopy(powerUps.slots, index + 1, powerUps.slots, index, powerUps.size - index - 1);
+        powerUps.size--;
+    }
+
+    /**
+     * Remove one powerup straight away by its slot.
+     *
+     * @param slot The powerup's slot
+     */
+    public void removePowerUpSlot(int slot) {
+        for (int i = 0; i < powerUps.size; i++) {
+            if (powerUps.slots[i] == slot) {
+                removePowerUp(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Index where every coin, bomb, and powerup is now, for entitiesWithin().
+     * The index isn't updated as entities move, so call this again once they have.
+     */
+    public void indexPositions() {
+        int count = coins.size + bombs.size + powerUps.size;
+        if (indexedSlots.length < count) {
+            int newSize = Math.max(count, indexedSlots.length * 2);
+            indexedSlots = new int[newSize];
+            indexedX = new double[newSize];
+            indexedY = new double[newSize];
+        }
+        indexedMaxStep = 0;
+        int item = addToIndex(coins, 0);
+        item = addToIndex(bombs, item);
+        addToIndex(powerUps, item);
+        indexedMaxStep = Math.sqrt(indexedMaxStep);
+
+        if (proximityIndex == null) {
+            proximityIndex = new SpatialGrid(boardWidth, boardHeight, INDEX_CELL_SIZE);
+        }
+        proximityIndex.rebuild(count, indexedX, indexedY);
+    }
+
+    private int addToIndex(SlotList list, int item) {
+        for (int i = 0; i < list.size; i++) {
+            int slot = list.slots[i];
+            indexedSlots[item] = slot;
+            indexedX[item] = x[slot];
+            indexedY[item] = y[slot];
+            double stepX = x[slot] - previousX[slot];
+            double stepY = y[slot] - previousY[slot];
+            indexedMaxStep = Math.max(indexedMaxStep, stepX * stepX + stepY * stepY);
+            item++;
+        }
+        return item;
+    }
+
+    /**
+     * Get the farthest any entity had moved from its previous position when
+     * indexPositions() was last called. Something that touched a point at any
+     * time during that tick is within this distance of where it was indexed.
+     *
+     * @return The longest step, in pixels
+     */
+    public double getIndexedMaxStep() {
+        return indexedMaxStep;
+    }
+
+    /**
+     * Find the coins, bombs, and powerups whose centers were within a distance
+     * of a point when indexPositions() was last called. Entities removed since
+     * then are left out. Results are in list order: coins first, then bombs,
+     * then powerups, each in the same order as getCoins(), getBombs(), and
+     * getPowerUps() at the time of indexing.
+     *
+     * @param px X-coordinate of the point
+     * @param py Y-coordinate of the point
+     * @param radius The distance, inclusive
+     * @return The nearby slots (reused by the next call)
+     */
+    public SlotList entitiesWithin(double px, double py, double radius) {
+        nearby.size = 0;
+        if (proximityIndex == null) {
+            return nearby;
+        }
+        // sqrt(d) < nextUp(radius) is the same as sqrt(d) <= radius
+        double reach = Math.nextUp(radius);
+        double squaredReach = ShapeObject.squaredReach(reach);
+        int found = proximityIndex.findWithin(px, py, radius, indexCandidates);
+        for (int k = 0; k < found; k++) {
+            int item = indexCandidates.get(k);
+            int slot = indexedSlots[item];
+            if (type[slot] != FREE
+                    && ShapeObject.withinReach(indexedX[item] - px, indexedY[item] - py, reach, squaredReach)) {
+                nearby.add(slot);
+            }
+        }
+        return nearby;
+    }
+
+    /**
+     * Check if an entity has been on the board longer than its lifetime.
+     * Asking about the frame the expiry wheel has been advanced to (see
+     * advanceExpiry()) is just a flag test; any other frame is worked out
+     * from the entity's age. Never changes the wheel.
+     *
+     * @param slot The entity to check
+     * @param frame The current game frame count
+     * @return true if expired, false otherwise
+     */
+    public boolean isExpired(int slot, int frame) {
+        if (frame != expiryFrame) {
+            return (frame - creationFrame[slot]) >= LIFETIME_FRAMES[type[slot]];
+        }
+        return (flags[slot] & EXPIRED) != 0;
+    }
+
+    /**
+     * Advance the expiry wheel to a frame, marking every entity whose
+     * lifetime has ended by then as expired. Only the buckets for the frames
+     * passed are visited, and each entity is touched once when it comes due.
+     * Earlier frames than the wheel has reached are ignored; frames only go
+     * back to 0 through clear().
+     *
+     * @param frame The current game frame count
+     */
+    public void advanceExpiry(int frame) {
+        if (frame <= expiryFrame) {
+            return;
+        }
+        if (expiryHead == null) {
+            startExpiryWheel();
+        }
+        // One lap of the wheel reaches every bucket, however far the frame jumps
+        int frames = (int) Math.min((long) frame - expiryFrame, EXPIRY_WHEEL_SIZE);
+        for (int n = 1; n <= frames; n++) {
+            int slot = expiryHead[(expiryFrame + n) & EXPIRY_MASK];
+            while (slot >= 0) {
+                int next = expiryNext[slot];
+                if (creationFrame[slot] + LIFETIME_FRAMES[type[slot]] <= frame) {
+                    unscheduleExpiry(slot);
+                    flags[slot] |= EXPIRED;
+                }
+                slot = next;
+            }
+        }
+        expiryFrame = frame;
+    }
+
+    /**
+     * Create the expiry wheel and link in every entity spawned before it existed.
+     */
+    private void startExpiryWheel() {
+        expiryHead = new int[EXPIRY_WHEEL_SIZE];
+        Arrays.fill(expiryHead, -1);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (type[slot] != FREE && (flags[slot] & EXPIRED) == 0) {
+                scheduleExpiry(slot);
+            }
+        }
+    }
+
+    /**
+     * Link an entity into the wheel bucket for the frame its lifetime ends,
+     * or mark it expired straight away if that frame has already passed.
+     * Until the wheel exists only the second part is done; startExpiryWheel()
+     * links the entity in later.
+     */
+    private void scheduleExpiry(int slot) {
+        expiryPrevious[slot] = UNSCHEDULED;
+        int lifetime = LIFETIME_FRAMES[type[slot]];
+        if (lifetime == Integer.MAX_VALUE) {
+            return;  // Never expires
+        }
+        int dueFrame = creationFrame[slot] + lifetime;
+        if (dueFrame <= expiryFrame) {
+            flags[slot] |= EXPIRED;
+            return;
+        }
+        if (expiryHead == null) {
+            return;
+        }
+        int bucket = dueFrame & EXPIRY_MASK;
+        int head = expiryHead[bucket];
+        expiryNext[slot] = head;
+        expiryPrevious[slot] = -1;
+        if (head >= 0) {
+            expiryPrevious[head] = slot;
+        }
+        expiryHead[bucket] = slot;
+    }
+
+    /**
+     * Unlink an entity from its wheel bucket, if it is in one.
+     */
+    private void unscheduleExpiry(int slot) {
+        int previous = expiryPrevious[slot];
+        if (previous == UNSCHEDULED) {
+            return;
+        }
+        int next = expiryNext[slot];
+        if (previous >= 0) {
+            expiryNext[previous] = next;
+        } else {
+            expiryHead[(creationFrame[slot] + LIFETIME_FRAMES[type[slot]]) & EXPIRY_MASK] = next;
+        }
+        if (next >= 0) {
+            expiryPrevious[next] = previous;
+        }
+        expiryPrevious[slot] = UNSCHEDULED;
+    }
+
+    /**
+     * Get a ShapeObject view of an entity, for code that works with objects.
+     * The view reads and writes this store, so it always shows the current state.
+     * It is only valid until the entity is removed, when it goes back to its pool.
+     *
+     * @param slot The entity to view
+     * @return A Coin, Bomb, or PowerUp backed by the slot
+     */
+    public ShapeObject getView(int slot) {
+        ShapeObject view = views[slot];
+        if (view == null) {
+            switch (type[slot]) {
+                case COIN:
+                    view = coinPool.acquire(slot);
+                    break;
+                case BOMB:
+                    view = bombPool.acquire(slot);
+                    break;
+                case POWERUP:
+                    view = powerUpPool.acquire(slot);
+                    break;
+                default:
+                    throw new IllegalStateException("Slot " + slot + " has no view");
+            }
+            views[slot] = view;
+        }
+        return view;
+    }
+
+    // Coin state
+    public boolean isCollected(int slot) { return (flags[slot] & COLLECTED) != 0; }
+    public void collect(int slot) { flags[slot] |= COLLECTED; }
+
+    // Bomb state
+    public boolean isDetonated(int slot) { return (flags[slot] & DETONATED) != 0; }
+
+    public void detonate(int slot) {
+        flags[slot] |= DETONATED;
+        explosionFrame[slot] = 0;
+    }
+
+    public boolean isDetonationComplete(int slot) {
+        return (flags[slot] & DETONATED) != 0 && explosionFrame[slot] >= Bomb.EXPLOSION_DURATION;
+    }
+
+    public void updateExplosion(int slot) {
+        if ((flags[slot] & DETONATED) != 0 && explosionFrame[slot] < Bomb.EXPLOSION_DURATION) {
+            explosionFrame[slot]++;
+        }
+    }
+
+    // Getters for slot properties
+    public double getX(int slot) { return x[slot]; }
+    public double getY(int slot) { return y[slot]; }
+    public double getVelocityX(int slot) { return velocityX[slot]; }
+    public double getVelocityY(int slot) { return velocityY[slot]; }
+    public double getPreviousX(int slot) { return previousX[slot]; }
+    public double getPreviousY(int slot) { return previousY[slot]; }
+    public int getSize(int slot) { return size[slot]; }
+    public int getCreationFrame(int slot) { return creationFrame[slot]; }
+    public int getExplosionFrame(int slot) { return explosionFrame[slot]; }
+    public byte getType(int slot) { return type[slot]; }
+    public byte getVariant(int slot) { return variant[slot]; }
+
+    // Setters for slot properties
+    public void setX(int slot, double value) { x[slot] = value; }
+    public void setY(int slot, double value) { y[slot] = value; }
+    public void setVelocityX(int slot, double value) { velocityX[slot] = value; }
+    public void setVelocityY(int slot, double value) { velocityY[slot] = value; }
+    public void setCreationFrame(int slot, int frame) {
+        unscheduleExpiry(slot);
+        flags[slot] &= ~EXPIRED;
+        creationFrame[slot] = frame;
+        scheduleExpiry(slot);
+    }
+    public void setVariant(int slot, byte value) { variant[slot] = value; }
+
+    /**
+     * Get the fraction of spawns that reused a freed slot instead of a new one.
+     * 
+     * @return The slot hit rate from 0 to 1, or 1 if nothing has spawned
+     */
+    public double getSlotHitRate() {
+        return spawnCount == 0 ? 1.0 : (double) reusedSlotCount / spawnCount;
+    }
+
+    /**
+     * Get a one-line summary of slot and view pool usage, for logging.
+     * 
+     * @return Pool sizes and hit rates
+     */
+    public String getPoolStats() {
+        return String.format("slots: %d used, %d free, %.1f%% reused | views: coin %d idle %.1f%%, "
+                + "bomb %d idle %.1f%%, powerup %d idle %.1f%%",
+            slotCount - freeCount, freeCount, getSlotHitRate() * 100,
+            coinPool.getPoolSize(), coinPool.getHitRate() * 100,
+            bombPool.getPoolSize(), bombPool.getHitRate() * 100,
+            powerUpPool.getPoolSize(), powerUpPool.getHitRate() * 100);
+    }
+
+    // Getters for pool counters
+    public long getSpawnCount() { return spawnCount; }
+    public long getReusedSlotCount() { return reusedSlotCount; }
+    public int getFreeSlotCount() { return freeCount; }
+    public EntityPool<Coin> getCoinPool() { return coinPool; }
+    public EntityPool<Bomb> getBombPool() { return bombPool; }
+    public EntityPool<PowerUp> getPowerUpPool() { return powerUpPool; }
+
+    // Getters for the live entity lists and board
+    public SlotList getCoins() { return coins; }
+    public SlotList getBombs() { return bombs; }
+    public SlotList getPowerUps() { return powerUps; }
+    public int getSlotCount() { return slotCount; }
+    public int getBoardWidth() { return boardWidth; }
+    public int getBoardHeight() { return boardHeight; }
+
+    /**
+     * Get the live list for an entity type.
+     */
+    private SlotList listFor(byte entityType) {
+        switch (entityType) {
+            case COIN: return coins;
+            case BOMB: return bombs;
+            case POWERUP: return powerUps;
+            default: return null;
+        }
+    }
+
+    /**
+     * Put a slot back on the free list.
+     */
+    private void free(int slot) {
+        ShapeObject view = views[slot];
+        if (view != null) {
+            switch (type[slot]) {
+                case COIN:
+                    coinPool.release((Coin) view);
+                    break;
+                case BOMB:
+                    bombPool.release((Bomb) view);
+                    break;
+                default:
+                    powerUpPool.release((PowerUp) view);
+                    break;
+            }
+            views[slot] = null;
+        }
+        unscheduleExpiry(slot);
+        type[slot] = FREE;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Free every slot in a list and empty it.
+     */
+    private void freeAll(SlotList list) {
+        for (int i = 0; i < list.size; i++) {
+            free(list.slots[i]);
+        }
+        list.size = 0;
+    }
+
+    /**
+     * Grow every array to a new capacity.
+     */
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        previousX = Arrays.copyOf(previousX, capacity);
+        previousY = Arrays.copyOf(previousY, capacity);
+        size = Arrays.copyOf(size, capacity);
+        creationFrame = Arrays.copyOf(creationFrame, capacity);
+        explosionFrame = Arrays.copyOf(explosionFrame, capacity);
+        type = Arrays.copyOf(type, capacity);
+        variant = Arrays.copyOf(variant, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        expiryNext = Arrays.copyOf(expiryNext, capacity);
+        expiryPrevious = Arrays.copyOf(expiryPrevious, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+        views = Arrays.copyOf(views, capacity);
+    }
+}
@@ -0,0 +1,305 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * FrameMetrics - Measures where the time goes in each tick and each painted frame.
+ *
+ * Every tick records how long each GameWorld phase took (powerups, spawn,
+ * move, collide, cleanup, index) and the tick as a whole, how many entities are
+ * alive, and how many bytes the game loop thread allocated. Every painted
+ * frame records the time spent drawing the board and the HUD, and how many
+ * bytes the painting thread allocated. Each measurement keeps only its last
+ * WINDOW samples, so its p50 and p99 describe the last few seconds of play
+ * rather than the whole session.
+ *
+ * The numbers are shown in a debug overlay (toggled with F3, or shown from
+ * the start with -Dgoldrush.debugOverlay=true), and every tick and frame is
+ * also committed as a JDK Flight Recorder event (goldrush.Tick and
+ * goldrush.Frame). A session started with -XX:StartFlightRecording can then
+ * be examined afterwards in JDK Mission Control, next to the JVM's own GC
+ * events. While no recording is running the events are never created.
+ */
+public class FrameMetrics {
+
+    private static final int WINDOW = 600;  // Samples kept per measurement (10 seconds of ticks)
+    private static final GameWorld.Phase[] PHASES = GameWorld.Phase.values();
+
+    // Number of lines summarize() returns
+    public static final int SUMMARY_LINES = PHASES.length + 8;
+
+    // Per-thread allocation counter, or null if this JVM doesn't have one
+    private static final com.sun.management.ThreadMXBean ALLOCATION = allocationCounter();
+
+    private static final EventType TICK_EVENT = EventType.getEventType(TickEvent.class);
+    private static final EventType FRAME_EVENT = EventType.getEventType(FrameEvent.class);
+
+    /**
+     * Flight Recorder event committed after every tick
+     */
+    @Name("goldrush.Tick")
+    @Label("Game Tick")
+    @Category("GoldRush")
+    @Description("Time spent in each phase of one game tick, and the entities alive after it")
+    @StackTrace(false)
+    static final class TickEvent extends Event {
+        @Label("Tick Time") @Timespan long tickTime;
+        @Label("Powerups") @Timespan long powerups;
+        @Label("Spawn") @Timespan long spawn;
+        @Label("Move") @Timespan long move;
+        @Label("Collide") @Timespan long collide;
+        @Label("Cleanup") @Timespan long cleanup;
+        @Label("Index") @Timespan long index;
+        @Label("Coins") int coins;
+        @Label("Bombs") int bombs;
+        @Label("Powerups Alive") int powerUps;
+        @Label("Allocated") @DataAmount long allocated;
+    }
+
+    /**
+     * Flight Recorder event committed after every painted frame
+     */
+    @Name("goldrush.Frame")
+    @Label("Game Frame")
+    @Category("GoldRush")
+    @Description("Time spent painting one frame of the game board")
+    @StackTrace(false)
+    static final class FrameEvent extends Event {
+        @Label("Paint Time") @Timespan long paintTime;
+        @Label("HUD Time") @Timespan long hudTime;
+        @Label("Allocated") @DataAmount long allocated;
+    }
+
+    /**
+     * The last WINDOW values of one measurement
+     */
+    private static final class Window {
+        private final long[] samples = new long[WINDOW];
+        private final long[] sorted = new long[WINDOW];
+        private int count = 0;  // Samples stored so far, up to WINDOW
+        private int next = 0;   // Where the next sample goes
+        long p50;
+        long p99;
+
+        void add(long value) {
+            samples[next] = value;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) {
+                count++;
+            }
+        }
+
+        /**
+         * Work out p50 and p99 of the samples currently in the window.
+         */
+        void updatePercentiles() {
+            System.arraycopy(samples, 0, sorted, 0, count);
+            Arrays.sort(sorted, 0, count);
+            p50 = percentile(0.50);
+            p99 = percentile(0.99);
+        }
+
+        private long percentile(double fraction) {
+            if (count == 0) {
+                return 0;
+            }
+            return sorted[Math.max(0, (int) Math.ceil(fraction * count) - 1)];
+        }
+    }
+
+    private final Window tick = new Window();
+    private final Window[] phases = new Window[PHASES.length];
+    private final Window paint = new Window();
+    private final Window hud = new Window();
+    private final Window entities = new Window();
+    private final Window tickAllocation = new Window();
+
+    private volatile boolean overlayVisible = Boolean.getBoolean("goldrush.debugOverlay");
+
+    // Totals since the last summary, for rates
+    private long allocatedSinceSummary = 0;
+    private long lastSummaryNanos = System.nanoTime();
+    private long lastGcCount = gcCount();
+    private long lastGcMillis = gcMillis();
+
+    /**
+     * Constructor for FrameMetrics.
+     */
+    public FrameMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new Window();
+        }
+    }
+
+    /**
+     * Record one tick of a world that has phase timing enabled.
+     *
+     * @param world The world that just ticked
+     * @param tickNanos How long the whole tick took, including input handling
+     * @param allocatedBytes Bytes the tick allocated, or -1 if unknown
+     */
+    public synchronized void recordTick(GameWorld world, long tickNanos, long allocatedBytes) {
+        tick.add(tickNanos);
+        for (GameWorld.Phase phase : PHASES) {
+            long nanos = world.getLastPhaseNanos(phase);
+            if (nanos >= 0) {  // Phases are skipped while the game is paused or stopped
+                phases[phase.ordinal()].add(nanos);
+            }
+        }
+        EntityStore store = world.getEntities();
+        int coins = store.getCoins().size();
+        int bombs = store.getBombs().size();
+        int powerUps = store.getPowerUps().size();
+        entities.add(coins + bombs + powerUps);
+        if (allocatedBytes >= 0) {
+            tickAllocation.add(allocatedBytes);
+            allocatedSinceSummary += allocatedBytes;
+        }
+
+        if (TICK_EVENT.isEnabled()) {
+            TickEvent event = new TickEvent();
+            event.tickTime = tickNanos;
+            event.powerups = Math.max(0, world.getLastPhaseNanos(GameWorld.Phase.POWERUPS));
+            event.spawn = Math.max(0, world.getLastPhaseNanos(GameWorld.Phase.SPAWN));
+            event.move = Math.max(0, world.getLastPhaseNanos(GameWorld.Phase.MOVE));
+            event.collide = Math.max(0, world.getLastPhaseNanos(GameWorld.Phase.COLLIDE));
+            event.cleanup = Math.max(0, world.getLastPhaseNanos(GameWorld.Phase.CLEANUP));
+            event.index = Math.max(0, world.getLastPhaseNanos(GameWorld.Phase.INDEX));
+            event.coins = coins;
+            event.bombs = bombs;
+            event.powerUps = powerUps;
+            event.allocated = allocatedBytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Record one painted frame.
+     *
+     * @param paintNanos Time spent drawing the background and entities
+     * @param hudNanos Time spent drawing the HUD and overlays
+     * @param allocatedBytes Bytes painting allocated, or -1 if unknown
+     */
+    public synchronized void recordFrame(long paintNanos, long hudNanos, long allocatedBytes) {
+        paint.add(paintNanos);
+        hud.add(hudNanos);
+        if (allocatedBytes >= 0) {
+            allocatedSinceSummary += allocatedBytes;
+        }
+
+        if (FRAME_EVENT.isEnabled()) {
+            FrameEvent event = new FrameEvent();
+            event.paintTime = paintNanos;
+            event.hudTime = hudNanos;
+            event.allocated = allocatedBytes;
+            event.commit();
+        }
+    }
+
+    /**
+     * Describe the recent measurements, one line each, for the debug overlay.
+     * Allocation and GC figures cover the time since the last call.
+     *
+     * @return SUMMARY_LINES lines of text, laid out for a monospaced font
+     */
+    public synchronized String[] summarize() {
+        long now = System.nanoTime();
+        double seconds = Math.max(1e-9, (now - lastSummaryNanos) / 1e9);
+        long gcCount = gcCount();
+        long gcMillis = gcMillis();
+
+        String[] lines = new String[SUMMARY_LINES];
+        int line = 0;
+        lines[line++] = String.format("%-9s %9s %9s", "", "p50", "p99");
+        lines[line++] = timeLine("tick", tick);
+        for (GameWorld.Phase phase : PHASES) {
+            lines[line++] = timeLine(" " + phase.name().toLowerCase(), phases[phase.ordinal()]);
+        }
+        lines[line++] = timeLine("paint", paint);
+        lines[line++] = timeLine("hud", hud);
+        entities.updatePercentiles();
+        lines[line++] = String.format("%-9s %9d %9d", "entities", entities.p50, entities.p99);
+        tickAllocation.updatePercentiles();
+        lines[line++] = String.format("%-9s %7.1fKB %7.1fKB", "tick heap",
+            tickAllocation.p50 / 1024.0, tickAllocation.p99 / 1024.0);
+        lines[line++] = ALLOCATION == null ? "alloc     unavailable"
+            : String.format("alloc     %.2f MB/s", allocatedSinceSummary / seconds / (1024 * 1024));
+        lines[line++] = String.format("gc        %d in %.1fs, %d ms",
+            gcCount - lastGcCount, seconds, gcMillis - lastGcMillis);
+
+        allocatedSinceSummary = 0;
+        lastSummaryNanos = now;
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+        return lines;
+    }
+
+    private static String timeLine(String label, Window window) {
+        window.updatePercentiles();
+        return String.format("%-9s %7.3fms %7.3fms", label, window.p50 / 1e6, window.p99 / 1e6);
+    }
+
+    /**
+     * Check whether the debug overlay should be drawn.
+     *
+     * @return true if the overlay is on
+     */
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    /**
+     * Show or hide the debug overlay.
+     *
+     * @param visible true to show the overlay
+     */
+    public void setOverlayVisible(boolean visible) {
+        this.overlayVisible = visible;
+    }
+
+    /**
+     * Get the number of bytes the current thread has allocated so far.
+     * Subtract two readings to get what the code between them allocated.
+     *
+     * @return Bytes allocated by this thread, or -1 if the JVM can't tell
+     */
+    public static long threadAllocatedBytes() {
+        return ALLOCATION == null ? -1 : ALLOCATION.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+            if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                return counter;
+            }
+        }
+        return null;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
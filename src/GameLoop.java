@@ -0,0 +1,188 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * GameLoop - Fixed-timestep game loop running on its own thread.
+ *
+ * The simulation always advances in steps of exactly 1/ticksPerSecond seconds.
+ * Real elapsed time is added to an accumulator and as many ticks are run as
+ * fit in it, so a slow paint, dialog, or GC pause no longer slows the game clock.
+ * Rendering is requested separately at its own rate, so the simulation rate
+ * and the frame rate don't depend on each other.
+ */
+public class GameLoop implements Runnable {
+
+    // Never try to catch up more than this much time after a long stall
+    private static final long MAX_CATCH_UP_NANOS = 250_000_000L;
+
+    // With precise timing, stop sleeping this long before a deadline and spin instead
+    private static final long SPIN_NANOS = 1_000_000L;
+
+    /**
+     * Callbacks driven by the game loop.
+     */
+    public interface Simulation {
+        /**
+         * Advance the game by one fixed step.
+         *
+         * @param tickTimeNanos The System.nanoTime() value this tick represents
+         */
+        void tick(long tickTimeNanos);
+
+        /**
+         * Request that a new frame be drawn.
+         */
+        void render();
+    }
+
+    private final Simulation simulation;
+    private final long tickNanos;
+    private final long frameNanos;
+    private final String threadName;
+
+    private volatile boolean running = false;
+    private volatile boolean preciseTiming = false;
+    private Thread thread;
+
+    /**
+     * Constructor for GameLoop.
+     *
+     * @param threadName Name of the loop thread
+     * @param ticksPerSecond Number of simulation steps per second
+     * @param framesPerSecond Number of render requests per second
+     * @param simulation The game to tick and render
+     */
+    public GameLoop(String threadName, int ticksPerSecond, int framesPerSecond, Simulation simulation) {
+        this.threadName = threadName;
+        this.tickNanos = 1_000_000_000L / ticksPerSecond;
+        this.frameNanos = 1_000_000_000L / framesPerSecond;
+        this.simulation = simulation;
+    }
+
+    /**
+     * Start the loop thread.
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Ask the loop to stop after the current tick without waiting for it.
+     * Safe to call from the loop thread itself.
+     */
+    public void requestStop() {
+        running = false;
+    }
+
+    /**
+     * Stop the loop and wait for the thread to finish.
+     * Once this returns, no more ticks will run.
+     */
+    public void stop() {
+        running = false;
+        Thread loopThread;
+        synchronized (this) {
+            loopThread = thread;
+        }
+        if (loopThread != null && loopThread != Thread.currentThread()) {
+            try {
+                loopThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Wake up exactly when ticks and frames are due instead of whenever the
+     * OS scheduler gets round to it. The loop sleeps until shortly before each
+     * deadline and spins for the rest, which uses a little more CPU but keeps
+     * frames evenly spaced.
+     *
+     * @param preciseTiming true to pace frames precisely
+     */
+    public void setPreciseTiming(boolean preciseTiming) {
+        this.preciseTiming = preciseTiming;
+    }
+
+    /**
+     * Check if the loop is running.
+     *
+     * @return true if the loop thread is ticking, false otherwise
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Check if the loop thread is still alive. After requestStop() it keeps
+     * going for a moment to finish the current tick and frame, so this stays
+     * true until the thread has really exited.
+     *
+     * @return true if the loop thread may still touch the game state
+     */
+    public synchronized boolean isAlive() {
+        return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Get the length of one simulation step.
+     *
+     * @return Nanoseconds per tick
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Main loop: run due ticks, request frames, then sleep until the next one is due.
+     */
+    @Override
+    public void run() {
+        long previous = System.nanoTime();
+        long accumulator = 0;
+        long nextFrame = previous;
+
+        while (running) {
+            long now = System.nanoTime();
+            accumulator += Math.min(now - previous, MAX_CATCH_UP_NANOS);
+            previous = now;
+
+            // Run every tick that is due
+            while (accumulator >= tickNanos && running) {
+                accumulator -= tickNanos;
+                simulation.tick(now - accumulator);
+            }
+
+            if (now >= nextFrame) {
+                simulation.render();
+                nextFrame += frameNanos;
+                if (nextFrame <= now) {
+                    nextFrame = now + frameNanos;
+                }
+            }
+
+            // Sleep until the next tick or frame is due
+            long wake = Math.min(now + (tickNanos - accumulator), nextFrame);
+            if (preciseTiming) {
+                long sleep = wake - SPIN_NANOS - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(sleep);
+                }
+                while (System.nanoTime() < wake && running) {
+                    Thread.onSpinWait();
+                }
+            } else {
+                long sleep = wake - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(sleep);
+                }
+            }
+        }
+    }
+}
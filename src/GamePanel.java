@@ -1,60 +1,82 @@
 import java.awt.*;
 import java.awt.event.*;
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
 import javax.swing.*;
 
 /**
- * GamePanel class manages the main gameplay loop and rendering.
- * Handles all game logic including collision detection, object movement,
- * score tracking, lives, and time management.
+ * GamePanel class manages the game screen: rendering, buttons, and mouse input.
+ * All of the game rules (collisions, movement, score, lives, and time) live in
+ * a headless GameWorld, which this panel drives and draws.
  * 
- * The game runs on a timer that updates the game state at regular intervals.
+ * The game runs on a fixed-timestep GameLoop thread that updates the game state
+ * at regular intervals and publishes a GameSnapshot after every tick. Swing only
+ * ever paints the newest snapshot, so the game clock keeps running even when
+ * painting or a dialog holds up the event dispatch thread.
+ * 
+ * In active rendering mode the board is an ActiveCanvas instead, which the game
+ * loop thread draws and flips onto the screen itself; the buttons stay Swing.
+ * 
+ * Every tick and frame is timed into FrameMetrics; F3 shows the numbers in a
+ * debug overlay.
  */
 public class GamePanel extends JPanel {
     
     // Game board dimensions
-    private static final int BOARD_WIDTH = 800;
-    private static final int BOARD_HEIGHT = 600;
+    private static final int BOARD_WIDTH = GameWorld.BOARD_WIDTH;
+    private static final int PLAYABLE_HEIGHT = GameWorld.BOARD_HEIGHT;  // Actual game area height
     private static final int BUTTON_PANEL_HEIGHT = 50;  // Height reserved for button panel
-    private static final int PLAYABLE_HEIGHT = BOARD_HEIGHT - BUTTON_PANEL_HEIGHT;  // Actual game area height
+    private static final int BOARD_HEIGHT = PLAYABLE_HEIGHT + BUTTON_PANEL_HEIGHT;
     
-    // Game timing and rules
-    private static final int GAME_DURATION_SECONDS = 60;
-    private static final int INITIAL_LIVES = 3;
-    private static final int SPAWN_RATE = 10;  // Spawn new objects every N frames
-
-    // Game state variables
-    private boolean gameRunning = false;
-    private boolean gamePaused = false;
-    private int remainingTime = GAME_DURATION_SECONDS;
-    private int lives = INITIAL_LIVES;
-    private int score = 0;
+    // Game loop timing
+    private static final int TICKS_PER_SECOND = GameWorld.TICKS_PER_SECOND;  // Simulation steps per second
+    private static final int FRAMES_PER_SECOND = Integer.getInteger("goldrush.targetFps", 60);  // Frames drawn per second
+    
+    // Draw frames from the game loop thread with page flipping (-Dgoldrush.activeRendering=true)
+    // instead of asking Swing to repaint
+    private static final boolean ACTIVE_RENDERING = Boolean.getBoolean("goldrush.activeRendering");
     
+    // Spawn schedule file to play instead of the standard game (-Dgoldrush.schedule=schedules/rush.properties)
+    private static final String SCHEDULE_FILE = System.getProperty("goldrush.schedule");
+    
+    // Each player's last game is saved here so it can be replayed with SimulationRunner
+    private static final String REPLAY_DIRECTORY = "replays";
+
     // Player information
     private String currentUsername = "Player";
     private LogoutListener logoutListener;
     private BackgroundPainter backgroundPainter;
+    private GameRenderer renderer;
+    private ActiveCanvas activeCanvas;  // Only in active rendering mode
+    private final FrameMetrics metrics = new FrameMetrics();
+    
+    // The game itself (only touched on the game loop thread while it runs)
+    private GameWorld world;
     
-    // Game objects
-    private CollectionPurse purse;
-    private ArrayList<Coin> coins;
-    private ArrayList<Bomb> bombs;
-    private ArrayList<PowerUp> powerUps;
-    private boolean powerupActive = false;
-    private int powerupEndFrame = 0;
+    // Game loop and the state it hands over to Swing
+    private GameLoop gameLoop;
+    private final ConcurrentLinkedQueue<Runnable> pendingActions = new ConcurrentLinkedQueue<>();
+    private final GameSnapshot.Pool snapshots = new GameSnapshot.Pool();
+    private volatile GameSnapshot snapshot;  // Holds one reference to the newest snapshot
+    private final Supplier<GameSnapshot> snapshotReference = this::acquireSnapshot;
     
-    // Timer for game loop
-    private Timer gameTimer;
-    private int frameCount = 0;
+    // Areas changed since Swing last painted, and the copy it paints them from
+    private final DirtyRegions pendingRegions = new DirtyRegions();
+    private final DirtyRegions paintingRegions = new DirtyRegions();
+    private boolean repaintScheduled = false;  // Guarded by pendingRegions
+    private final Runnable paintPendingRegions = this::paintPendingRegions;
     
     // UI Buttons
     private JButton startButton;
     private JButton replayButton;
     private JButton pauseButton;
     
-    // Mouse tracking
-    private int mouseX = BOARD_WIDTH / 2;
-    private int mouseY = BOARD_HEIGHT / 2;
+    // Mouse tracking (written by Swing, read by the game loop)
+    private volatile int mouseX = BOARD_WIDTH / 2;
+    private volatile int mouseY = BOARD_HEIGHT / 2;
     
     /**
      * Interface for logout callback
@@ -92,37 +114,76 @@ public class GamePanel extends JPanel {
         
         // Initialize background painter
         backgroundPainter = new BackgroundPainter("game_bg.png");
+        renderer = new GameRenderer(BOARD_WIDTH, BOARD_HEIGHT, backgroundPainter);
+        renderer.setMetrics(metrics);
+        
+        // The board takes the mouse input: the panel itself, or the canvas in active mode
+        Component board = this;
+        if (ACTIVE_RENDERING) {
+            activeCanvas = new ActiveCanvas(renderer, snapshotReference);
+            board = activeCanvas;
+        }
+        
+        // Initialize the game
+        world = new GameWorld(System.nanoTime());
+        world.setGameOverListener((finalScore, finalLives) -> endGame(finalScore, finalLives));
+        world.setRecordingEnabled(true);
+        world.setPhaseTimingEnabled(true);
+        if (SCHEDULE_FILE != null) {
+            try {
+                world.setSpawnSchedule(SpawnSchedule.load(new File(SCHEDULE_FILE)));
+            } catch (IOException e) {
+                System.out.println("Error loading spawn schedule: " + e.getMessage());
+            }
+        }
+        publishSnapshot(System.nanoTime());
         
-        // Initialize game objects
-        coins = new ArrayList<>();
-        bombs = new ArrayList<>();
-        powerUps = new ArrayList<>();
-        purse = new CollectionPurse(BOARD_WIDTH, PLAYABLE_HEIGHT);
+        // Redraw once the images have finished loading, even if the game isn't running yet
+        AssetManager.preloadImages().thenRun(this::requestFrame);
+        
+        // Repaint everything after a resize (the background is scaled again to fit)
+        addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                renderer.invalidate();
+                requestFrame();
+            }
+        });
         
-        // Setup mouse tracking
-        addMouseMotionListener(new MouseMotionAdapter() {
+        // Setup mouse tracking (the purse follows it on the next tick)
+        board.addMouseMotionListener(new MouseMotionAdapter() {
             @Override
             public void mouseMoved(MouseEvent e) {
                 mouseX = e.getX();
                 mouseY = e.getY();
-                if (gameRunning && purse != null) {
-                    purse.followMouse(mouseX, mouseY);
-                }
+            }
+        });
+        
+        // F3 shows or hides the frame timing overlay
+        getInputMap(WHEN_IN_FOCUSED_WINDOW).put(KeyStroke.getKeyStroke(KeyEvent.VK_F3, 0), "toggleMetrics");
+        getActionMap().put("toggleMetrics", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                metrics.setOverlayVisible(!metrics.isOverlayVisible());
+                requestFrame();
             }
         });
         
         // Setup mouse click detection for collecting coins/bombs
-        addMouseListener(new MouseAdapter() {
+        board.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                if (gameRunning && !gamePaused) {
-                    handleMouseClick(e.getX(), e.getY());
-                }
+                int clickX = e.getX();
+                int clickY = e.getY();
+                runOnGameThread(() -> world.handleClick(clickX, clickY));
             }
         });
         
         // Setup UI buttons with layout
         setLayout(new BorderLayout());
+        if (activeCanvas != null) {
+            add(activeCanvas, BorderLayout.CENTER);
+        }
         
         // Create button panel
         JPanel buttonPanel = new JPanel();
@@ -154,44 +215,41 @@ public class GamePanel extends JPanel {
      * Initializes game state and begins the gameplay loop.
      */
     private void startGame() {
-        gameRunning = true;
-        gamePaused = false;
-        remainingTime = GAME_DURATION_SECONDS;
-        lives = INITIAL_LIVES;
-        score = 0;
-        frameCount = 0;
-        coins.clear();
-        bombs.clear();
-        
         startButton.setEnabled(false);
         pauseButton.setEnabled(true);
+        pauseButton.setText("Pause");
         replayButton.setEnabled(true);
         
-        // Create and start the game timer (updates every 16ms = ~60 FPS)
-        if (gameTimer != null) {
-            gameTimer.stop();
+        runOnGameThread(() -> world.start());
+        
+        // Start the game loop (updates 60 times a second) if it isn't already running
+        if (gameLoop == null || !gameLoop.isRunning()) {
+            gameLoop = new GameLoop("GoldRush-GameLoop", TICKS_PER_SECOND, FRAMES_PER_SECOND,
+                new GameLoop.Simulation() {
+                    @Override
+                    public void tick(long tickTimeNanos) {
+                        tickGame(tickTimeNanos);
+                    }
+                    
+                    @Override
+                    public void render() {
+                        requestFrame();
+                    }
+                });
+            gameLoop.setPreciseTiming(ACTIVE_RENDERING);
+            gameLoop.start();
         }
-        gameTimer = new Timer(16, e -> updateGame());
-        gameTimer.start();
     }
     
     /**
      * Replay the game by resetting state and starting fresh.
      */
     private void replayGame() {
-        gameRunning = false;
-        gamePaused = false;
-        remainingTime = GAME_DURATION_SECONDS;
-        lives = INITIAL_LIVES;
-        score = 0;
-        frameCount = 0;
-        coins.clear();
-        bombs.clear();
-        powerUps.clear();
-        powerupActive = false;
+        runOnGameThread(() -> world.reset());
 
         startButton.setEnabled(true);
         pauseButton.setEnabled(true);
+        pauseButton.setText("Pause");
         replayButton.setEnabled(false);
         
         // Start the game
@@ -202,255 +260,183 @@ public class GamePanel extends JPanel {
      * Toggle pause state of the game.
      */
     private void togglePause() {
-        if (gameRunning) {
-            gamePaused = !gamePaused;
-            pauseButton.setText(gamePaused ? "Resume" : "Pause");
+        GameSnapshot current = acquireSnapshot();
+        boolean running = current.isGameRunning();
+        boolean paused = !current.isGamePaused();
+        current.release();
+        if (running) {
+            runOnGameThread(() -> world.setPaused(paused));
+            pauseButton.setText(paused ? "Resume" : "Pause");
         }
     }
     
     /**
-     * Update game state each frame.
-     * This is the main game loop that handles:
-     * - Spawning coins and bombs
-     * - Moving game objects
-     * - Checking collisions
-     * - Updating time
-     * - Checking game over conditions
+     * Run an action that changes game state on the game loop thread.
+     * Once the loop thread has exited, nothing else is touching the state, so
+     * the action runs immediately instead. Actions queued while a finished
+     * game's last tick winds down are run by showGameOver().
+     * 
+     * @param action The action to run
      */
-    private void updateGame() {
-                        // Move all powerups
-                        for (PowerUp pu : powerUps) {
-                            pu.move();
-                        }
-                // Powerup: 0.05% chance to spawn per frame
-                if (Math.random() < 0.0005) {
-                    double x = Math.random() * (BOARD_WIDTH - 50) + 25;
-                    double y = Math.random() * (PLAYABLE_HEIGHT - 100) + 25;
-                    PowerUp pu = new PowerUp(x, y, BOARD_WIDTH, PLAYABLE_HEIGHT);
-                    pu.setCreationFrame(frameCount);
-                    powerUps.add(pu);
-                }
-
-                // Powerup must be clicked to activate (handled in mouseClicked)
-                // Remove expired powerups
-                powerUps.removeIf(pu -> pu.isExpired(frameCount));
-
-                // Powerup: autocollect coins on mouseover, ignore bombs
-                if (powerupActive) {
-                    for (Coin coin : coins) {
-                        if (!coin.isCollected() && !coin.isExpired(frameCount) && purse.collidesWith(coin)) {
-                            coin.collect();
-                            score += coin.getPointValue();
-                        }
-                    }
-                    // End powerup after 5 seconds
-                    if (frameCount >= powerupEndFrame) {
-                        powerupActive = false;
-                    }
-                }
-        if (!gameRunning || gamePaused) {
-            repaint();
-            return;
-        }
-        
-        frameCount++;
-        
-        // Decrease remaining time every 60 frames (approximately every second at 60 FPS)
-        if (frameCount % 60 == 0) {
-            remainingTime--;
-            if (remainingTime <= 0) {
-                endGame();
-                return;
-            }
+    private void runOnGameThread(Runnable action) {
+        if (gameLoop != null && gameLoop.isAlive()) {
+            pendingActions.add(action);
+        } else {
+            action.run();
+            publishSnapshot(System.nanoTime());
+            requestFrame();
         }
-        
-        // Spawn new coins and bombs periodically
-        if (frameCount % SPAWN_RATE == 0) {
-            spawnGameObjects();
+    }
+    
+    /**
+     * Run any actions queued by Swing since the last tick.
+     */
+    private void runPendingActions() {
+        Runnable action;
+        while ((action = pendingActions.poll()) != null) {
+            action.run();
         }
-        
-        // Move all coins and bombs
-        for (Coin coin : coins) {
-            if (!coin.isCollected() && !coin.isExpired(frameCount)) {
-                coin.move();
+    }
+    
+    /**
+     * Advance the game by one fixed step. Called on the game loop thread.
+     * 
+     * @param tickTimeNanos The System.nanoTime() value this tick represents
+     */
+    private void tickGame(long tickTimeNanos) {
+        long start = System.nanoTime();
+        long allocationStart = FrameMetrics.threadAllocatedBytes();
+        world.movePurse(mouseX, mouseY);
+        runPendingActions();
+        world.tick();
+        publishSnapshot(tickTimeNanos);
+        long allocated = allocationStart < 0 ? -1 : FrameMetrics.threadAllocatedBytes() - allocationStart;
+        metrics.recordTick(world, System.nanoTime() - start, allocated);
+    }
+    
+    /**
+     * Save the input of a finished game to the player's replay file.
+     * 
+     * @param recording The game's input
+     * @param username The player who played it
+     */
+    private static void saveReplay(InputLog recording, String username) {
+        try {
+            File replayDir = new File(REPLAY_DIRECTORY);
+            if (!replayDir.exists()) {
+                replayDir.mkdir();
             }
+            recording.save(new File(replayDir, username + ".replay"));
+        } catch (IOException e) {
+            System.out.println("Error saving replay: " + e.getMessage());
         }
-
-        for (Bomb bomb : bombs) {
-            if (!bomb.isDetonated() && !bomb.isExpired(frameCount)) {
-                bomb.move();
+    }
+    
+    /**
+     * Ask Swing to repaint only the parts of the board that changed since the
+     * last frame, or in active mode draw the frame right away. Nothing is
+     * drawn if nothing changed. Safe to call from any thread.
+     */
+    private void requestFrame() {
+        GameSnapshot current = acquireSnapshot();  // The renderer takes this reference over
+        long tickNanos = 1_000_000_000L / TICKS_PER_SECOND;
+        double alpha = current.getInterpolation(System.nanoTime(), tickNanos);
+        if (activeCanvas != null) {
+            // The canvas redraws all of itself, so only whether anything changed matters
+            if (renderer.prepareFrame(current, alpha, null)) {
+                activeCanvas.render();
             }
+            return;
         }
-
-        // Handle coin-to-coin collisions (bouncing)
-        for (int i = 0; i < coins.size(); i++) {
-            Coin coin1 = coins.get(i);
-            if (coin1.isCollected() || coin1.isExpired(frameCount)) {
-                continue;
-            }
-            
-            for (int j = i + 1; j < coins.size(); j++) {
-                Coin coin2 = coins.get(j);
-                if (coin2.isCollected() || coin2.isExpired(frameCount)) {
-                    continue;
-                }
-                
-                // Check if coins collide
-                if (coin1.collidesWith(coin2)) {
-                    // Calculate collision response (elastic bounce)
-                    double dx = coin2.getX() - coin1.getX();
-                    double dy = coin2.getY() - coin1.getY();
-                    double distance = Math.sqrt(dx * dx + dy * dy);
-                    
-                    if (distance > 0) {
-                        // Normalize the collision vector
-                        double nx = dx / distance;
-                        double ny = dy / distance;
-                        
-                        // Relative velocity
-                        double dvx = coin2.getVelocityX() - coin1.getVelocityX();
-                        double dvy = coin2.getVelocityY() - coin1.getVelocityY();
-                        
-                        // Relative velocity in collision normal direction
-                        double dvn = dvx * nx + dvy * ny;
-                        
-                        // Do not resolve if coins are moving apart
-                        if (dvn < 0) {
-                            // For equal mass elastic collision, exchange velocity components
-                            coin1.setVelocityX(coin1.getVelocityX() + dvn * nx);
-                            coin1.setVelocityY(coin1.getVelocityY() + dvn * ny);
-                            coin2.setVelocityX(coin2.getVelocityX() - dvn * nx);
-                            coin2.setVelocityY(coin2.getVelocityY() - dvn * ny);
-                            
-                            // Separate coins to prevent overlap
-                            double overlap = (coin1.getWidth() / 2 + coin2.getWidth() / 2) - distance;
-                            double separationX = (overlap / 2) * nx;
-                            double separationY = (overlap / 2) * ny;
-                            coin1.setX(coin1.getX() - separationX);
-                            coin1.setY(coin1.getY() - separationY);
-                            coin2.setX(coin2.getX() + separationX);
-                            coin2.setY(coin2.getY() + separationY);
-                        }
-                    }
-                }
+        boolean schedule;
+        synchronized (pendingRegions) {
+            schedule = renderer.prepareFrame(current, alpha, pendingRegions) && !repaintScheduled;
+            if (schedule) {
+                repaintScheduled = true;
             }
         }
-
-        // Remove collected, expired, or detonated objects
-        coins.removeIf(c -> c.isCollected() || c.isExpired(frameCount));
-        bombs.removeIf(b -> b.isDetonationComplete() || b.isExpired(frameCount));
-
-        repaint();
+        if (schedule) {
+            SwingUtilities.invokeLater(paintPendingRegions);
+        }
     }
     
     /**
-     * Spawn new coins and bombs on the game board.
-     * Randomly distributes them across the board.
+     * Paint each region changed since the last paint on its own. repaint()
+     * would hand them to the RepaintManager, which merges everything dirty in
+     * a component into one rectangle. Called on the Swing thread.
      */
-    private void spawnGameObjects() {
-        // Spawn 1-2 coins per spawn interval
-        int coinCount = 1 + (Math.random() < 0.5 ? 1 : 0);
-        for (int i = 0; i < coinCount; i++) {
-            double x = Math.random() * (BOARD_WIDTH - 50) + 25;
-            double y = Math.random() * (PLAYABLE_HEIGHT - 100) + 25;
-
-            // Randomly choose coin type (more common coins are more likely)
-            double random = Math.random();
-            Coin.CoinType type;
-            if (random < 0.6) {
-                type = Coin.CoinType.BRONZE;  // 60% chance
-            } else if (random < 0.85) {
-                type = Coin.CoinType.SILVER;  // 25% chance
-            } else {
-                type = Coin.CoinType.GOLD;    // 15% chance
-            }
-
-            Coin coin = new Coin(x, y, type, BOARD_WIDTH, PLAYABLE_HEIGHT);
-            coin.setCreationFrame(frameCount);
-            coins.add(coin);
+    private void paintPendingRegions() {
+        synchronized (pendingRegions) {
+            paintingRegions.clear();
+            paintingRegions.addAll(pendingRegions);
+            pendingRegions.clear();
+            repaintScheduled = false;
         }
-
-        // Spawn a bomb occasionally (20% chance per spawn interval)
-        if (Math.random() < 0.2) {
-            double x = Math.random() * (BOARD_WIDTH - 50) + 25;
-            double y = Math.random() * (PLAYABLE_HEIGHT - 100) + 25;
-            Bomb bomb = new Bomb(x, y, BOARD_WIDTH, PLAYABLE_HEIGHT, "images/bomb.png");
-            bomb.setCreationFrame(frameCount);
-            bombs.add(bomb);
+        for (int i = 0; i < paintingRegions.size(); i++) {
+            paintImmediately(paintingRegions.get(i));
         }
     }
     
     /**
-     * Handle mouse click events for collecting coins and bombs.
-     * When the player clicks, all coins within collection range are collected.
-     * If a bomb is clicked, it detonates and the player loses points and a life.
+     * Publish a copy of the game state for painting, reusing a snapshot
+     * nobody holds any more, and drop the reference to the last one.
      * 
-     * @param clickX X-coordinate of the mouse click
-     * @param clickY Y-coordinate of the mouse click
+     * @param tickTimeNanos The System.nanoTime() value the state represents
      */
-    private void handleMouseClick(int clickX, int clickY) {
-                // Check for powerup click
-                java.util.Iterator<PowerUp> it = powerUps.iterator();
-                while (it.hasNext()) {
-                    PowerUp pu = it.next();
-                    if (!pu.isExpired(frameCount) && pu.containsPoint(clickX, clickY)) {
-                        powerupActive = true;
-                        powerupEndFrame = frameCount + 300; // 5 seconds
-                        it.remove();
-                        return; // Only one powerup can be activated per click
-                    }
-                }
-        // Check for coin collection
-        for (Coin coin : coins) {
-            if (!coin.isCollected() && purse.collidesWith(coin)) {
-                coin.collect();
-                score += coin.getPointValue();
-                
-                // Visual feedback: briefly change purse color
-                Color originalColor = purse.getColor();
-                purse.setColor(new Color(0, 255, 0));  // Green for collection
-                Timer feedbackTimer = new Timer(200, e -> purse.setColor(originalColor));
-                feedbackTimer.setRepeats(false);
-                feedbackTimer.start();
-            }
-        }
-        
-        // Check for bomb detonation (ignore bombs if powerup is active)
-        if (!powerupActive) {
-            for (Bomb bomb : bombs) {
-                if (!bomb.isDetonated() && purse.collidesWith(bomb)) {
-                    bomb.detonate();
-                    score -= bomb.getPointPenalty();
-                    lives--;
-                    // Ensure score doesn't go negative
-                    if (score < 0) score = 0;
-                    // Visual feedback: briefly change purse color to red
-                    Color originalColor = purse.getColor();
-                    purse.setColor(new Color(255, 100, 100));  // Red for bomb
-                    Timer feedbackTimer = new Timer(300, e -> purse.setColor(originalColor));
-                    feedbackTimer.setRepeats(false);
-                    feedbackTimer.start();
-                    // Check if game is over due to loss of lives
-                    if (lives <= 0) {
-                        endGame();
-                    }
-                }
-            }
+    private synchronized void publishSnapshot(long tickTimeNanos) {
+        GameSnapshot previous = snapshot;
+        snapshot = snapshots.capture(world, tickTimeNanos);
+        if (previous != null) {
+            previous.release();
         }
     }
     
     /**
-     * End the game and display final results.
+     * Take a reference to the newest snapshot. Safe to call from any thread.
+     * 
+     * @return The snapshot; the caller must release() it
+     */
+    private GameSnapshot acquireSnapshot() {
+        GameSnapshot current;
+        do {
+            current = snapshot;
+        } while (!current.retain());  // Lost a race with publishSnapshot(); take the newer one
+        return current;
+    }
+    
+    /**
+     * End the game. Called by the world on the game loop thread; the results
+     * are shown on the Swing thread once the loop has stopped.
+     * 
+     * @param finalScore The score the game ended with
+     * @param finalLives The lives left when the game ended
      */
-    private void endGame() {
-        gameRunning = false;
-        if (gameTimer != null) {
-            gameTimer.stop();
+    private void endGame(int finalScore, int finalLives) {
+        gameLoop.requestStop();
+        SwingUtilities.invokeLater(() -> showGameOver(finalScore, finalLives));
+    }
+    
+    /**
+     * Save the score and display final results.
+     * 
+     * @param finalScore The score the game ended with
+     * @param finalLives The lives left when the game ended
+     */
+    private void showGameOver(int finalScore, int finalLives) {
+        // Wait for the last tick, then apply anything clicked after it
+        gameLoop.stop();
+        runPendingActions();
+        publishSnapshot(System.nanoTime());
+        requestFrame();
+        
+        // Save the score and replay in the background so the dialog doesn't wait on the disk
+        ScoreManager.saveScoreAsync(currentUsername, finalScore);
+        InputLog recording = world.getLastRecording();
+        String username = currentUsername;
+        if (recording != null) {
+            CompletableFuture.runAsync(() -> saveReplay(recording, username));
         }
         
-        // Save the player's score
-        ScoreManager.saveScore(currentUsername, score);
-        
         startButton.setEnabled(true);
         pauseButton.setEnabled(false);
         replayButton.setEnabled(true);
@@ -458,7 +444,7 @@ public class GamePanel extends JPanel {
         // Create custom dialog with logout button
         String gameOverMessage = String.format(
             "Game Over!\n\nFinal Score: %d\nLives Remaining: %d",
-            score, Math.max(0, lives)
+            finalScore, Math.max(0, finalLives)
         );
         
         Object[] options = {"Play Again", "Logout"};
@@ -484,91 +470,15 @@ public class GamePanel extends JPanel {
     /**
      * Render the game board and all game objects.
      * Called by the Swing framework whenever the panel needs to be redrawn.
+     * Draws the frame chosen by the last requestFrame(), blending positions
+     * between the last two ticks; only the area Swing asks for is drawn.
      * 
      * @param g Graphics object to draw on
      */
     @Override
     protected void paintComponent(Graphics g) {
-        // Paint background
-        backgroundPainter.paint(this, g);
-        
-        Graphics2D g2 = (Graphics2D) g;
-        
-        // Enable anti-aliasing for smoother graphics
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, 
-                           RenderingHints.VALUE_ANTIALIAS_ON);
-        
-        // Draw game objects (skip expired)
-        for (Coin coin : coins) {
-            if (!coin.isExpired(frameCount)) {
-                coin.draw(g2);
-            }
-        }
-
-        for (Bomb bomb : bombs) {
-            if (!bomb.isExpired(frameCount)) {
-                bomb.draw(g2);
-            }
-        }
-
-        for (PowerUp pu : powerUps) {
-            pu.draw(g2);
-        }
-        purse.draw(g2);
-        
-        // Draw HUD (Heads-Up Display) with game information
-        drawHUD(g2);
-    }
-    
-    /**
-     * Draw the heads-up display showing score, lives, and remaining time.
-     * 
-     * @param g Graphics object to draw on
-     */
-    private void drawHUD(Graphics2D g) {
-                // Show timer for powerup effect
-                if (powerupActive) {
-                    int secondsLeft = Math.max(0, (powerupEndFrame - frameCount) / 60);
-                    g.setColor(new Color(0, 180, 255));
-                    g.setFont(new Font("Arial", Font.BOLD, 22));
-                    String timerText = "Powerup: " + secondsLeft + "s left";
-                    g.drawString(timerText, BOARD_WIDTH / 2 - 80, 30);
-                }
-        g.setColor(Color.WHITE);
-        g.setFont(new Font("Arial", Font.BOLD, 20));
-        
-        // Draw score
-        g.drawString("Score: " + score, 20, 30);
-        
-        // Draw lives with visual indicators
-        g.drawString("Lives: " + Math.max(0, lives), 20, 60);
-        
-        // Draw remaining time with color coding (red when time is low)
-        String timeText = "Time: " + remainingTime + "s";
-        if (remainingTime <= 10) {
-            g.setColor(new Color(255, 100, 100));  // Red for low time
-        }
-        g.drawString(timeText, BOARD_WIDTH - 200, 30);
-        
-        // Draw game status
-        if (gamePaused) {
-            g.setColor(new Color(255, 165, 0));  // Orange
-            g.setFont(new Font("Arial", Font.BOLD, 40));
-            FontMetrics fm = g.getFontMetrics();
-            String pauseText = "PAUSED";
-            int x = (BOARD_WIDTH - fm.stringWidth(pauseText)) / 2;
-            int y = (BOARD_HEIGHT - fm.getHeight()) / 2 + fm.getAscent();
-            g.drawString(pauseText, x, y);
-        }
-        
-        if (!gameRunning) {
-            g.setColor(new Color(255, 255, 255, 255));
-            g.setFont(new Font("Arial", Font.BOLD, 30));
-            FontMetrics fm = g.getFontMetrics();
-            String readyText = "Click Start Game to Begin";
-            int x = (BOARD_WIDTH - fm.stringWidth(readyText)) / 2;
-            int y = (BOARD_HEIGHT - fm.getHeight()) / 2 + fm.getAscent();
-            g.drawString(readyText, x, y);
+        if (activeCanvas == null) {
+            renderer.paint(this, (Graphics2D) g, snapshotReference);
         }
     }
     
@@ -576,9 +486,8 @@ public class GamePanel extends JPanel {
      * Logout the current player and return to the login page
      */
     private void logout() {
-        gameRunning = false;
-        if (gameTimer != null) {
-            gameTimer.stop();
+        if (gameLoop != null) {
+            gameLoop.stop();
         }
         
         if (logoutListener != null) {
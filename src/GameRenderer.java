@@ -0,0 +1,464 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * GameRenderer - Draws game snapshots in layers and works out what changed
+ * between frames.
+ *
+ * The scene is three layers:
+ * - the background, which BackgroundPainter keeps pre-scaled to the board size,
+ * - the HUD text, rendered into its own image only when the score, lives,
+ *   time, or powerup timer change, and copied from there on other frames,
+ * - the entities and the purse, drawn every frame.
+ *
+ * Before a frame is painted, prepareFrame() compares where every entity is
+ * drawn with where it was drawn in the previous frame. Only the areas covering
+ * entities that moved, appeared, or disappeared (plus the HUD if it changed)
+ * need repainting. They are kept as a few separate regions (see DirtyRegions)
+ * rather than one box around all of them, and entities outside the region
+ * being painted are skipped. When nothing moves, as when the game is paused
+ * or waiting to start, there is nothing to repaint at all.
+ *
+ * With FrameMetrics attached, each frame's paint and HUD times are recorded,
+ * and the metrics' debug overlay is drawn as a fourth layer, refreshed a few
+ * times a second.
+ */
+public class GameRenderer {
+
+    // Fonts and colours, created once instead of on every frame
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Font POWERUP_FONT = new Font("Arial", Font.BOLD, 22);
+    private static final Font PAUSE_FONT = new Font("Arial", Font.BOLD, 40);
+    private static final Font READY_FONT = new Font("Arial", Font.BOLD, 30);
+    private static final Color POWERUP_COLOR = new Color(0, 180, 255);
+    private static final Color LOW_TIME_COLOR = new Color(255, 100, 100);
+    private static final Color PAUSE_COLOR = new Color(255, 165, 0);
+    private static final Font DEBUG_FONT = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+    private static final Color DEBUG_BACKGROUND = new Color(0, 0, 0, 170);
+
+    private static final int HUD_HEIGHT = 70;  // The HUD text all sits in this band at the top
+    private static final int MARGIN = 2;       // Extra pixels around an entity for outlines and antialiasing
+
+    // Debug overlay box, below the HUD on the right
+    private static final int DEBUG_LINE_HEIGHT = 14;
+    private static final int DEBUG_WIDTH = 260;
+    private static final int DEBUG_HEIGHT = FrameMetrics.SUMMARY_LINES * DEBUG_LINE_HEIGHT + 8;
+    private static final long DEBUG_REFRESH_NANOS = 500_000_000L;  // Overlay numbers change twice a second
+
+    private final int width;
+    private final int height;
+    private final BackgroundPainter background;
+
+    // HUD layer and the values it was rendered with
+    private BufferedImage hudLayer;
+    private int hudScore;
+    private int hudLives;
+    private int hudTime;
+    private int hudPowerupSeconds;
+
+    // Metrics and the debug overlay layer, with the lines it was rendered from
+    private volatile FrameMetrics metrics;
+    private volatile String[] debugLines;
+    private long debugRefreshNanos;
+    private BufferedImage debugLayer;
+    private String[] debugLayerLines;
+    private final Rectangle debugBounds;
+
+    /**
+     * A snapshot together with the blend factor it should be painted at
+     */
+    private static final class Frame {
+        final GameSnapshot snapshot;
+        final double alpha;
+
+        Frame(GameSnapshot snapshot, double alpha) {
+            this.snapshot = snapshot;
+            this.alpha = alpha;
+        }
+    }
+
+    // The frame paint() draws; set by prepareFrame()
+    private volatile Frame frame;
+
+    // Where everything was drawn in the last prepared frame, as sorted packed rectangles
+    private long[] lastBounds = new long[0];
+    private int lastBoundsCount = 0;
+    private long[] bounds = new long[64];
+    private boolean lastRunning;
+    private boolean lastPaused;
+    private boolean lastHasBackground;
+    private GameSnapshot lastSnapshot;
+    private boolean firstFrame = true;
+
+    /**
+     * Constructor for GameRenderer.
+     *
+     * @param width Width of the area drawn on
+     * @param height Height of the area drawn on
+     * @param background Painter for the background layer
+     */
+    public GameRenderer(int width, int height, BackgroundPainter background) {
+        this.width = width;
+        this.height = height;
+        this.background = background;
+        this.debugBounds = new Rectangle(width - DEBUG_WIDTH - 10, HUD_HEIGHT, DEBUG_WIDTH, DEBUG_HEIGHT);
+    }
+
+    /**
+     * Record frame timings into metrics, and draw its debug overlay when it's turned on.
+     *
+     * @param metrics The metrics to record into, or null for none
+     */
+    public synchronized void setMetrics(FrameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Choose the next frame to paint and work out which parts of the screen it changes.
+     * Takes over the caller's reference to the snapshot, and releases the one
+     * held for the previous frame.
+     *
+     * @param snapshot The snapshot to paint
+     * @param alpha Blend factor between the snapshot's previous and current tick
+     * @param dirty Gets the areas to repaint added to it, or null if they aren't needed
+     * @return false if the frame looks the same as the last one
+     */
+    public synchronized boolean prepareFrame(GameSnapshot snapshot, double alpha, DirtyRegions dirty) {
+        frame = new Frame(snapshot, alpha);
+
+        // Pack the rectangle every entity will be drawn in, then sort so two frames can be compared
+        int count = snapshot.getEntityCount() + 1;
+        if (bounds.length < count) {
+            bounds = new long[Math.max(count, bounds.length * 2)];
+        }
+        for (int i = 0; i < snapshot.getEntityCount(); i++) {
+            bounds[i] = entityBounds(snapshot, i, alpha);
+        }
+        bounds[count - 1] = pack(snapshot.getPurseX(), snapshot.getPurseY(), CollectionPurse.PURSE_SIZE);
+        Arrays.sort(bounds, 0, count);
+
+        boolean changed = false;
+        boolean hasBackground = background.hasImage();
+        if (firstFrame || snapshot.isGameRunning() != lastRunning || snapshot.isGamePaused() != lastPaused
+                || hasBackground != lastHasBackground) {
+            // Overlay text or the whole background changed
+            changed = mark(dirty, 0, 0, width, height);
+        } else {
+            // Entities that moved, appeared, or disappeared
+            changed |= addChangedBounds(dirty, lastBounds, lastBoundsCount, bounds, count);
+            changed |= addChangedBounds(dirty, bounds, count, lastBounds, lastBoundsCount);
+            if (hudChanged(lastSnapshot, snapshot)) {
+                changed |= mark(dirty, 0, 0, width, HUD_HEIGHT);
+            }
+        }
+
+        // Debug overlay: shown, hidden, or due for new numbers
+        String[] lines = null;
+        if (metrics != null && metrics.isOverlayVisible()) {
+            lines = debugLines;
+            long now = System.nanoTime();
+            if (lines == null || now - debugRefreshNanos >= DEBUG_REFRESH_NANOS) {
+                lines = metrics.summarize();
+                debugRefreshNanos = now;
+            }
+        }
+        if (lines != debugLines) {
+            debugLines = lines;
+            changed |= mark(dirty, debugBounds.x, debugBounds.y, debugBounds.width, debugBounds.height);
+        }
+
+        // Remember this frame for the next comparison
+        long[] swap = lastBounds;
+        lastBounds = bounds;
+        lastBoundsCount = count;
+        bounds = swap;
+        lastRunning = snapshot.isGameRunning();
+        lastPaused = snapshot.isGamePaused();
+        lastHasBackground = hasBackground;
+        GameSnapshot previous = lastSnapshot;
+        lastSnapshot = snapshot;
+        if (previous != null) {
+            previous.release();
+        }
+        firstFrame = false;
+        return changed;
+    }
+
+    /**
+     * Mark the whole area as changed, e.g. after the component was resized or hidden.
+     */
+    public synchronized void invalidate() {
+        firstFrame = true;
+    }
+
+    /**
+     * Paint the frame chosen by prepareFrame(). Only the parts inside the
+     * graphics clip are drawn.
+     *
+     * @param component The component being painted
+     * @param g2 Graphics object to draw on
+     * @param fallback Gives a reference to the snapshot to paint if no frame
+     *                 has been prepared yet; it is released after painting
+     */
+    public void paint(Component component, Graphics2D g2, Supplier<GameSnapshot> fallback) {
+        // Hold the frame's snapshot so prepareFrame() can't hand it back to its pool mid-paint
+        Frame current;
+        do {
+            current = frame;
+        } while (current != null && !current.snapshot.retain());
+        if (current == null) {
+            current = new Frame(fallback.get(), 1);
+        }
+        try {
+            paintSnapshot(component, g2, current.snapshot, current.alpha);
+        } finally {
+            current.snapshot.release();
+        }
+    }
+
+    private void paintSnapshot(Component component, Graphics2D g2, GameSnapshot snapshot, double alpha) {
+        FrameMetrics frameMetrics = metrics;
+        long paintStart = frameMetrics != null ? System.nanoTime() : 0;
+        long allocationStart = frameMetrics != null ? FrameMetrics.threadAllocatedBytes() : 0;
+
+        Rectangle clip = g2.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, width, height);
+        }
+
+        // Background layer
+        background.paint(component, g2);
+
+        // Enable anti-aliasing for smoother graphics
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Entity layer (the snapshot only holds live ones); skip anything outside the clip.
+        // Coins and explosions are drawn as one batch of pre-rendered sprites.
+        SpriteBatch.Sprites sprites = SpriteBatch.getSprites(g2);
+        for (int i = 0; i < snapshot.getEntityCount(); i++) {
+            if (!intersects(clip, entityBounds(snapshot, i, alpha))) {
+                continue;
+            }
+            double x = snapshot.getX(i, alpha);
+            double y = snapshot.getY(i, alpha);
+            switch (snapshot.getKind(i)) {
+                case GameSnapshot.COIN:
+                    sprites.drawCoin(g2, snapshot.getCoinType(i), x, y);
+                    break;
+                case GameSnapshot.BOMB:
+                    int explosionFrame = snapshot.getExplosionFrame(i);
+                    if (explosionFrame < 0) {
+                        Bomb.drawBomb(g2, x, y, snapshot.getSize(i), snapshot.getSize(i));
+                    } else {
+                        sprites.drawExplosion(g2, x, y, explosionFrame);
+                    }
+                    break;
+                default:
+                    PowerUp.drawPowerUp(g2, x, y);
+                    break;
+            }
+        }
+        CollectionPurse.drawPurse(g2, snapshot.getPurseX(), snapshot.getPurseY());
+
+        long hudStart = frameMetrics != null ? System.nanoTime() : 0;
+
+        // HUD layer
+        if (clip.y < HUD_HEIGHT) {
+            g2.drawImage(getHudLayer(component, snapshot), 0, 0, null);
+        }
+        drawOverlay(g2, snapshot);
+
+        // Debug overlay layer
+        String[] lines = debugLines;
+        if (lines != null && clip.intersects(debugBounds)) {
+            g2.drawImage(getDebugLayer(component, lines), debugBounds.x, debugBounds.y, null);
+        }
+
+        if (frameMetrics != null) {
+            long end = System.nanoTime();
+            long allocationEnd = FrameMetrics.threadAllocatedBytes();
+            frameMetrics.recordFrame(hudStart - paintStart, end - hudStart,
+                allocationStart < 0 ? -1 : allocationEnd - allocationStart);
+        }
+    }
+
+    /**
+     * Get the HUD text image, rendering it again only if a value on it changed.
+     */
+    private BufferedImage getHudLayer(Component component, GameSnapshot snapshot) {
+        int powerupSeconds = snapshot.isPowerupActive() ? snapshot.getPowerupSecondsLeft() : -1;
+        if (hudLayer != null && snapshot.getScore() == hudScore && snapshot.getLives() == hudLives
+                && snapshot.getRemainingTime() == hudTime && powerupSeconds == hudPowerupSeconds) {
+            return hudLayer;
+        }
+        hudScore = snapshot.getScore();
+        hudLives = snapshot.getLives();
+        hudTime = snapshot.getRemainingTime();
+        hudPowerupSeconds = powerupSeconds;
+
+        if (hudLayer == null) {
+            GraphicsConfiguration config = component.getGraphicsConfiguration();
+            hudLayer = config != null
+                ? config.createCompatibleImage(width, HUD_HEIGHT, Transparency.TRANSLUCENT)
+                : new BufferedImage(width, HUD_HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        }
+        Graphics2D g = hudLayer.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, width, HUD_HEIGHT);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Show timer for powerup effect
+        if (powerupSeconds >= 0) {
+            g.setColor(POWERUP_COLOR);
+            g.setFont(POWERUP_FONT);
+            g.drawString("Powerup: " + powerupSeconds + "s left", width / 2 - 80, 30);
+        }
+        g.setColor(Color.WHITE);
+        g.setFont(HUD_FONT);
+
+        // Draw score
+        g.drawString("Score: " + hudScore, 20, 30);
+
+        // Draw lives with visual indicators
+        g.drawString("Lives: " + Math.max(0, hudLives), 20, 60);
+
+        // Draw remaining time with color coding (red when time is low)
+        if (hudTime <= 10) {
+            g.setColor(LOW_TIME_COLOR);
+        }
+        g.drawString("Time: " + hudTime + "s", width - 200, 30);
+        g.dispose();
+        return hudLayer;
+    }
+
+    /**
+     * Get the debug overlay image, rendering it again only if the numbers changed.
+     */
+    private BufferedImage getDebugLayer(Component component, String[] lines) {
+        if (debugLayer != null && lines == debugLayerLines) {
+            return debugLayer;
+        }
+        debugLayerLines = lines;
+
+        if (debugLayer == null) {
+            debugLayer = SpriteAtlas.createImage(component.getGraphicsConfiguration(),
+                DEBUG_WIDTH, DEBUG_HEIGHT, Transparency.TRANSLUCENT);
+        }
+        Graphics2D g = debugLayer.createGraphics();
+        g.setComposite(AlphaComposite.Src);
+        g.setColor(DEBUG_BACKGROUND);
+        g.fillRect(0, 0, DEBUG_WIDTH, DEBUG_HEIGHT);
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(Color.WHITE);
+        g.setFont(DEBUG_FONT);
+        for (int i = 0; i < lines.length; i++) {
+            g.drawString(lines[i], 6, 4 + (i + 1) * DEBUG_LINE_HEIGHT - 3);
+        }
+        g.dispose();
+        return debugLayer;
+    }
+
+    /**
+     * Draw the paused or waiting-to-start message in the middle of the board.
+     */
+    private void drawOverlay(Graphics2D g, GameSnapshot snapshot) {
+        if (snapshot.isGamePaused()) {
+            drawCentered(g, "PAUSED", PAUSE_FONT, PAUSE_COLOR);
+        }
+        if (!snapshot.isGameRunning()) {
+            drawCentered(g, "Click Start Game to Begin", READY_FONT, Color.WHITE);
+        }
+    }
+
+    private void drawCentered(Graphics2D g, String text, Font font, Color color) {
+        g.setColor(color);
+        g.setFont(font);
+        FontMetrics fm = g.getFontMetrics();
+        int x = (width - fm.stringWidth(text)) / 2;
+        int y = (height - fm.getHeight()) / 2 + fm.getAscent();
+        g.drawString(text, x, y);
+    }
+
+    /**
+     * Get the packed rectangle an entity is drawn in.
+     */
+    private static long entityBounds(GameSnapshot snapshot, int i, double alpha) {
+        double x = snapshot.getX(i, alpha);
+        double y = snapshot.getY(i, alpha);
+        int explosionFrame = snapshot.getKind(i) == GameSnapshot.BOMB ? snapshot.getExplosionFrame(i) : -1;
+        if (explosionFrame >= 0) {
+            // Explosions are circles that grow each frame
+            return pack(x, y, 2 * SpriteBatch.explosionRadius(explosionFrame));
+        }
+        return pack(x, y, snapshot.getSize(i));
+    }
+
+    /**
+     * Pack a square of a size centered at a position (with a margin) into a
+     * long: x, y, width, and height, 16 bits each.
+     */
+    private static long pack(double centerX, double centerY, int size) {
+        int x = (int) (centerX - size / 2) - MARGIN;
+        int y = (int) (centerY - size / 2) - MARGIN;
+        int side = size + 2 * MARGIN + 1;
+        return ((long) (x & 0xFFFF) << 48) | ((long) (y & 0xFFFF) << 32) | ((long) (side & 0xFFFF) << 16) | (side & 0xFFFF);
+    }
+
+    private static boolean intersects(Rectangle clip, long packed) {
+        int x = (short) (packed >>> 48);
+        int y = (short) (packed >>> 32);
+        int w = (int) (packed >>> 16) & 0xFFFF;
+        int h = (int) packed & 0xFFFF;
+        return x < clip.x + clip.width && x + w > clip.x && y < clip.y + clip.height && y + h > clip.y;
+    }
+
+    /**
+     * Add to dirty every rectangle in a that isn't in b (both sorted).
+     *
+     * @return true if there was any
+     */
+    private static boolean addChangedBounds(DirtyRegions dirty, long[] a, int aCount, long[] b, int bCount) {
+        boolean changed = false;
+        int j = 0;
+        for (int i = 0; i < aCount; i++) {
+            while (j < bCount && b[j] < a[i]) {
+                j++;
+            }
+            if (j < bCount && b[j] == a[i]) {
+                j++;
+            } else {
+                long packed = a[i];
+                changed = mark(dirty, (short) (packed >>> 48), (short) (packed >>> 32),
+                    (int) (packed >>> 16) & 0xFFFF, (int) packed & 0xFFFF);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Add a rectangle to dirty, if the caller wants the areas.
+     *
+     * @return true, since something changed
+     */
+    private static boolean mark(DirtyRegions dirty, int x, int y, int width, int height) {
+        if (dirty != null) {
+            dirty.add(x, y, width, height);
+        }
+        return true;
+    }
+
+    /**
+     * Check whether any value shown on the HUD differs between two snapshots.
+     */
+    private static boolean hudChanged(GameSnapshot before, GameSnapshot after) {
+        return before.getScore() != after.getScore()
+            || before.getLives() != after.getLives()
+            || before.getRemainingTime() != after.getRemainingTime()
+            || before.isPowerupActive() != after.isPowerupActive()
+            || before.getPowerupSecondsLeft() != after.getPowerupSecondsLeft();
+    }
+}
@@ -0,0 +1,261 @@
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GameSnapshot - Copy of everything needed to draw one game frame.
+ *
+ * The game loop thread publishes a new snapshot after every tick and the
+ * Swing thread paints whichever snapshot is newest, so painting never reads
+ * objects that the simulation is changing. Each entity keeps both its
+ * position at the start and at the end of the tick so the renderer can
+ * blend between them.
+ *
+ * Snapshots come from a Pool and are reference counted, so a new one isn't
+ * allocated every tick. Whoever keeps a snapshot (the published field, the
+ * renderer's current frame, a paint in progress) holds a reference from
+ * retain() until release(); the last release hands the snapshot back to its
+ * pool, whose next capture() refills the same arrays. A snapshot never
+ * changes while anyone holds a reference to it.
+ */
+public final class GameSnapshot {
+
+    // Entity kinds (the same values as EntityStore's entity types)
+    public static final byte COIN = EntityStore.COIN;
+    public static final byte BOMB = EntityStore.BOMB;
+    public static final byte POWERUP = EntityStore.POWERUP;
+
+    private static final Coin.CoinType[] COIN_TYPES = Coin.CoinType.values();
+
+    private final Pool pool;
+    private final AtomicInteger references = new AtomicInteger();
+
+    // Entities, in drawing order (coins, then bombs, then powerups)
+    private int entityCount;
+    private byte[] kinds = new byte[0];
+    private byte[] coinTypes = new byte[0];
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] previousX = new double[0];
+    private double[] previousY = new double[0];
+    private int[] sizes = new int[0];
+    private int[] explosionFrames = new int[0];
+
+    // Player and HUD state
+    private double purseX;
+    private double purseY;
+    private int frame;
+    private int score;
+    private int lives;
+    private int remainingTime;
+    private boolean powerupActive;
+    private int powerupSecondsLeft;
+    private boolean gameRunning;
+    private boolean gamePaused;
+    private long tickTimeNanos;
+
+    private GameSnapshot(Pool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Hands out snapshots, reusing ones nobody holds any more. Safe to use from any thread.
+     */
+    public static final class Pool {
+        private static final int MAX_IDLE = 4;  // Publisher, renderer, and painter hold at most one each
+
+        private final GameSnapshot[] idle = new GameSnapshot[MAX_IDLE];
+        private int idleCount = 0;
+
+        /**
+         * Copy the state of a game world into a snapshot.
+         *
+         * @param world The world to copy
+         * @param tickTimeNanos The System.nanoTime() value the tick represents
+         * @return The snapshot, holding one reference for the caller
+         */
+        public GameSnapshot capture(GameWorld world, long tickTimeNanos) {
+            GameSnapshot snapshot;
+            synchronized (this) {
+                snapshot = idleCount > 0 ? idle[--idleCount] : null;
+                if (snapshot != null) {
+                    idle[idleCount] = null;
+                }
+            }
+            if (snapshot == null) {
+                snapshot = new GameSnapshot(this);
+            }
+            snapshot.copy(world, tickTimeNanos);
+            snapshot.references.set(1);  // Only once the copy is complete
+            return snapshot;
+        }
+
+        private synchronized void recycle(GameSnapshot snapshot) {
+            if (idleCount < MAX_IDLE) {
+                idle[idleCount++] = snapshot;
+            }
+        }
+    }
+
+    /**
+     * Take another reference to this snapshot, unless it has already been
+     * handed back to its pool.
+     *
+     * @return true if the caller now holds a reference and must release() it
+     */
+    public boolean retain() {
+        int count;
+        do {
+            count = references.get();
+            if (count == 0) {
+                return false;
+            }
+        } while (!references.compareAndSet(count, count + 1));
+        return true;
+    }
+
+    /**
+     * Drop a reference taken by capture() or retain(). The snapshot must not
+     * be read afterwards.
+     */
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            pool.recycle(this);
+        }
+    }
+
+    /**
+     * Copy the state of a game world, growing the arrays if needed.
+     */
+    private void copy(GameWorld world, long tickTimeNanos) {
+        EntityStore entities = world.getEntities();
+        CollectionPurse purse = world.getPurse();
+        int frame = world.getFrameCount();
+        EntityStore.SlotList coins = entities.getCoins();
+        EntityStore.SlotList bombs = entities.getBombs();
+        EntityStore.SlotList powerUps = entities.getPowerUps();
+
+        int count = powerUps.size();
+        for (int i = 0; i < coins.size(); i++) {
+            int slot = coins.get(i);
+            if (!entities.isCollected(slot) && !entities.isExpired(slot, frame)) {
+                count++;
+            }
+        }
+        for (int i = 0; i < bombs.size(); i++) {
+            int slot = bombs.get(i);
+            if (!entities.isExpired(slot, frame) && !entities.isDetonationComplete(slot)) {
+                count++;
+            }
+        }
+
+        this.entityCount = count;
+        if (kinds.length < count) {
+            int capacity = Math.max(count, kinds.length * 2);
+            this.kinds = new byte[capacity];
+            this.coinTypes = new byte[capacity];
+            this.x = new double[capacity];
+            this.y = new double[capacity];
+            this.previousX = new double[capacity];
+            this.previousY = new double[capacity];
+            this.sizes = new int[capacity];
+            this.explosionFrames = new int[capacity];
+        }
+
+        int n = 0;
+        for (int i = 0; i < coins.size(); i++) {
+            int slot = coins.get(i);
+            if (!entities.isCollected(slot) && !entities.isExpired(slot, frame)) {
+                coinTypes[n] = entities.getVariant(slot);
+                copyEntity(n++, COIN, entities, slot, -1);
+            }
+        }
+        for (int i = 0; i < bombs.size(); i++) {
+            int slot = bombs.get(i);
+            if (!entities.isExpired(slot, frame) && !entities.isDetonationComplete(slot)) {
+                int explosionFrame = entities.isDetonated(slot) ? entities.getExplosionFrame(slot) : -1;
+                copyEntity(n++, BOMB, entities, slot, explosionFrame);
+            }
+        }
+        for (int i = 0; i < powerUps.size(); i++) {
+            copyEntity(n++, POWERUP, entities, powerUps.get(i), -1);
+        }
+
+        this.purseX = purse.getX();
+        this.purseY = purse.getY();
+        this.frame = frame;
+        this.score = world.getScore();
+        this.lives = world.getLives();
+        this.remainingTime = world.getRemainingTime();
+        this.powerupActive = world.isPowerupActive();
+        this.powerupSecondsLeft = world.getPowerupSecondsLeft();
+        this.gameRunning = world.isGameRunning();
+        this.gamePaused = world.isGamePaused();
+        this.tickTimeNanos = tickTimeNanos;
+    }
+
+    /**
+     * Copy one entity into the snapshot arrays.
+     */
+    private void copyEntity(int i, byte kind, EntityStore entities, int slot, int explosionFrame) {
+        kinds[i] = kind;
+        x[i] = entities.getX(slot);
+        y[i] = entities.getY(slot);
+        previousX[i] = entities.getPreviousX(slot);
+        previousY[i] = entities.getPreviousY(slot);
+        sizes[i] = entities.getSize(slot);
+        explosionFrames[i] = explosionFrame;
+    }
+
+    /**
+     * Get how far the renderer is between the previous tick and this one.
+     *
+     * @param nowNanos The current System.nanoTime() value
+     * @param tickNanos Length of one tick in nanoseconds
+     * @return A blend factor from 0 (previous position) to 1 (current position)
+     */
+    public double getInterpolation(long nowNanos, long tickNanos) {
+        double alpha = (double) (nowNanos - tickTimeNanos) / tickNanos;
+        return Math.max(0, Math.min(1, alpha));
+    }
+
+    /**
+     * Get an entity's x-coordinate blended between the previous and current tick.
+     *
+     * @param i Index of the entity
+     * @param alpha Blend factor from getInterpolation()
+     * @return The x-coordinate to draw the entity at
+     */
+    public double getX(int i, double alpha) {
+        return previousX[i] + (x[i] - previousX[i]) * alpha;
+    }
+
+    /**
+     * Get an entity's y-coordinate blended between the previous and current tick.
+     *
+     * @param i Index of the entity
+     * @param alpha Blend factor from getInterpolation()
+     * @return The y-coordinate to draw the entity at
+     */
+    public double getY(int i, double alpha) {
+        return previousY[i] + (y[i] - previousY[i]) * alpha;
+    }
+
+    // Getters for entity properties
+    public int getEntityCount() { return entityCount; }
+    public byte getKind(int i) { return kinds[i]; }
+    public Coin.CoinType getCoinType(int i) { return COIN_TYPES[coinTypes[i]]; }
+    public int getSize(int i) { return sizes[i]; }
+    public int getExplosionFrame(int i) { return explosionFrames[i]; }
+
+    // Getters for player and HUD state
+    public double getPurseX() { return purseX; }
+    public double getPurseY() { return purseY; }
+    public int getFrame() { return frame; }
+    public int getScore() { return score; }
+    public int getLives() { return lives; }
+    public int getRemainingTime() { return remainingTime; }
+    public boolean isPowerupActive() { return powerupActive; }
+    public int getPowerupSecondsLeft() { return powerupSecondsLeft; }
+    public boolean isGameRunning() { return gameRunning; }
+    public boolean isGamePaused() { return gamePaused; }
+    public long getTickTimeNanos() { return tickTimeNanos; }
+}
@@ -0,0 +1,925 @@
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * GameWorld - Headless game engine holding all of the game rules and state.
+ *
+ * Handles spawning, movement, collisions, expiry, score, lives, and time.
+ * GameWorld has no Swing dependencies, so it can be driven by GamePanel's game
+ * loop, by the SimulationRunner benchmark, or by tests on a machine without a
+ * display. Each game draws its randomness from its own SplittableRandom,
+ * seeded from the world's seed, so two worlds created with the same seed and
+ * given the same input play out identically. With recording turned on, every
+ * game's input is kept in an InputLog that can be saved and replayed later.
+ *
+ * How long a game lasts and how fast things spawn during it come from a
+ * SpawnSchedule, the standard game unless another is set.
+ */
+public class GameWorld {
+
+    // Game board dimensions (the playable area, not including the button panel)
+    public static final int BOARD_WIDTH = 800;
+    public static final int BOARD_HEIGHT = 550;
+
+    // Game timing and rules
+    public static final int TICKS_PER_SECOND = 60;
+    public static final int INITIAL_LIVES = 3;
+    private static final int POWERUP_EFFECT_FRAMES = 300;  // 5 seconds
+    private static final Coin.CoinType[] COIN_TYPES = Coin.CoinType.values();
+    private static final SpawnSchedule STANDARD_SCHEDULE = SpawnSchedule.standard();
+
+    // Neighbour lists for the parallel collision pass, one per thread
+    private static final ThreadLocal<SpatialGrid.Neighbors> NEIGHBORS = ThreadLocal.withInitial(SpatialGrid.Neighbors::new);
+
+    /**
+     * Stages of a tick, used for timing where each tick's time goes.
+     */
+    public enum Phase {
+        POWERUPS, SPAWN, MOVE, COLLIDE, CLEANUP, INDEX
+    }
+
+    /**
+     * Interface for callback when a game ends
+     */
+    public interface GameOverListener {
+        void onGameOver(int finalScore, int finalLives);
+    }
+
+    // Game state variables
+    private boolean gameRunning = false;
+    private boolean gamePaused = false;
+    private int remainingTime = STANDARD_SCHEDULE.getDurationSeconds();
+    private int lives = INITIAL_LIVES;
+    private int score = 0;
+    private int frameCount = 0;
+    private GameOverListener gameOverListener;
+
+    // Game objects
+    private final CollectionPurse purse;
+    private final EntityStore entities;  // Coins, bombs, and powerups
+    private final double coinReach;  // Furthest a coin can be from the purse and be collected
+    private final double clickReach;  // Furthest a coin or bomb can be from the purse and be clicked
+    private boolean powerupActive = false;
+    private int powerupEndFrame = 0;
+    private final SplittableRandom seeds;  // Hands out a seed for each new game
+    private SplittableRandom random;  // The current game's randomness
+    private long gameSeed;
+
+    // Spawning
+    private SpawnSchedule schedule = STANDARD_SCHEDULE;  // For the next game
+    private SpawnSchedule gameSchedule = STANDARD_SCHEDULE;  // For the game in progress
+    private final SpawnSchedule.Rates spawnRates = new SpawnSchedule.Rates();  // The schedule at the current frame
+    private int nextSpawnFrame;
+
+    // Input recording
+    private boolean recordingEnabled = false;
+    private InputLog recording;  // Input of the game in progress, or null
+    private InputLog lastRecording;  // Input of the last game that finished
+
+    // Purse color feedback (restored when the frame is reached)
+    private final Color purseBaseColor;
+    private int purseFlashEndFrame = -1;
+
+    // Collision broad phase (reused every frame)
+    private final SpatialGrid coinGrid = new SpatialGrid(BOARD_WIDTH, BOARD_HEIGHT, Coin.COIN_SIZE);
+    private int[] liveCoins = new int[64];
+    private double[] liveX = new double[64];
+    private double[] liveY = new double[64];
+
+    // Swept collision stage (reused every frame)
+    private SpatialGrid sweepGrid;  // Coin paths binned by midpoint, replaced if coins get faster
+    private double[] sweepX = new double[64];
+    private double[] sweepY = new double[64];
+    private boolean[] sweptBounce = new boolean[64];  // Live coins already bounced by the swept stage
+    private long[] impactOrder = new long[16];  // Time of impact in the high bits, impact index in the low
+    private double[] impactTime = new double[16];
+    private int[] impactFirst = new int[16];
+    private int[] impactSecond = new int[16];
+    private int impactCount = 0;
+
+    // Time spent in each phase in total and in the last tick, when timing is enabled
+    private boolean phaseTimingEnabled = false;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final long[] lastPhaseNanos = new long[Phase.values().length];
+
+    /**
+     * Constructor for GameWorld.
+     *
+     * @param seed Seed for all of the world's games
+     */
+    public GameWorld(long seed) {
+        this.seeds = new SplittableRandom(seed);
+        this.gameSeed = seeds.nextLong();
+        this.random = new SplittableRandom(gameSeed);
+        this.entities = new EntityStore(256, BOARD_WIDTH, BOARD_HEIGHT);
+        this.purse = new CollectionPurse(entities);
+        this.purseBaseColor = purse.getColor();
+        this.coinReach = purse.collisionRange(Coin.COIN_SIZE);
+        this.clickReach = Math.max(coinReach, purse.collisionRange(Bomb.BOMB_SIZE));
+        gameSchedule.ratesAt(0, spawnRates);
+        nextSpawnFrame = spawnRates.getSpawnInterval();
+    }
+
+    /**
+     * Set a listener to be notified when a game ends
+     *
+     * @param listener The game over listener
+     */
+    public void setGameOverListener(GameOverListener listener) {
+        this.gameOverListener = listener;
+    }
+
+    /**
+     * Set the spawn schedule for the games that follow. A game already
+     * running keeps the schedule it started with.
+     *
+     * @param schedule The schedule to use
+     */
+    public void setSpawnSchedule(SpawnSchedule schedule) {
+        this.schedule = schedule;
+    }
+
+    /**
+     * Start a new game with the next seed from the world's seed.
+     */
+    public void start() {
+        start(seeds.nextLong());
+    }
+
+    /**
+     * Start a new game with a given seed.
+     *
+     * @param seed Seed for the game's randomness
+     */
+    public void start(long seed) {
+        clearGame();
+        gameRunning = true;
+        gameSeed = seed;
+        random = new SplittableRandom(seed);
+        recording = recordingEnabled
+            ? new InputLog(seed, gameSchedule.getName(), (int) purse.getX(), (int) purse.getY()) : null;
+    }
+
+    /**
+     * Reset to a fresh, stopped game.
+     */
+    public void reset() {
+        clearGame();
+        gameRunning = false;
+        recording = null;
+    }
+
+    /**
+     * Clear everything left over from the last game.
+     */
+    private void clearGame() {
+        gamePaused = false;
+        lives = INITIAL_LIVES;
+        score = 0;
+        frameCount = 0;
+        entities.clear();
+        gameSchedule = schedule;
+        remainingTime = gameSchedule.getDurationSeconds();
+        gameSchedule.ratesAt(0, spawnRates);
+        nextSpawnFrame = spawnRates.getSpawnInterval();
+        powerupActive = false;
+        powerupEndFrame = 0;
+        purseFlashEndFrame = -1;
+        purse.setColor(purseBaseColor);
+        purse.storePreviousPosition();
+    }
+
+    /**
+     * Pause or resume the game. Has no effect if no game is running.
+     *
+     * @param paused true to pause, false to resume
+     */
+    public void setPaused(boolean paused) {
+        if (gameRunning) {
+            if (recording != null) {
+                recording.recordPause(paused);
+            }
+            gamePaused = paused;
+        }
+    }
+
+    /**
+     * Move the purse to follow the mouse. Has no effect if no game is running.
+     *
+     * @param mouseX The current mouse X position
+     * @param mouseY The current mouse Y position
+     */
+    public void movePurse(int mouseX, int mouseY) {
+        if (gameRunning) {
+            if (recording != null) {
+                recording.recordMove(mouseX, mouseY);
+            }
+            purse.followMouse(mouseX, mouseY);
+        }
+    }
+
+    /**
+     * Advance the game by one frame.
+     * Handles:
+     * - Moving and expiring powerups, and powerup autocollect
+     * - Spawning coins and bombs
+     * - Moving game objects
+     * - Checking collisions
+     * - Updating time
+     * - Checking game over conditions
+     * - Indexing where everything ended up, for clicks and autocollect
+     */
+    public void tick() {
+        advance();
+
+        // Clicks before the next tick and autocollect at its start look things up here
+        long phaseStart = phaseTimingEnabled ? System.nanoTime() : 0;
+        entities.indexPositions();
+        recordPhase(Phase.INDEX, phaseStart);
+    }
+
+    /**
+     * Run every phase of a tick up to indexing.
+     */
+    private void advance() {
+        if (recording != null) {
+            recording.recordTick();
+        }
+
+        long phaseStart = 0;
+        if (phaseTimingEnabled) {
+            Arrays.fill(lastPhaseNanos, -1);
+            phaseStart = System.nanoTime();
+        }
+
+        // Powerup: autocollect coins on mouseover, ignore bombs
+        // Runs before previous positions are stored, while each coin's path over
+        // the last tick is still known, so coins the purse swept past are caught too
+        if (powerupActive) {
+            autocollectCoins();
+            // End powerup after 5 seconds
+            if (frameCount >= powerupEndFrame) {
+                powerupActive = false;
+            }
+        }
+
+        // Remember where everything started so rendering can blend between ticks,
+        // and where the purse's next sweep starts
+        entities.storePreviousPositions();
+        purse.storePreviousPosition();
+
+        // Move all powerups
+        entities.movePowerUps();
+
+        // Powerup: small chance to spawn every frame (0.05% in the standard game)
+        if (random.nextDouble() < spawnRates.getPowerUpChance()) {
+            double x = random.nextDouble() * (BOARD_WIDTH - 50) + 25;
+            double y = random.nextDouble() * (BOARD_HEIGHT - 100) + 25;
+            double speed = spawnRates.getPowerUpSpeed();
+            entities.spawn(EntityStore.POWERUP, x, y,
+                (random.nextDouble() - 0.5) * 2 * speed,  // vx: -speed to speed
+                (random.nextDouble() - 0.5) * 2 * speed,  // vy: -speed to speed
+                PowerUp.POWERUP_SIZE, frameCount);
+        }
+
+        // Powerup must be clicked to activate (handled in handleClick)
+        // Remove expired powerups
+        entities.removeExpiredPowerUps(frameCount);
+        phaseStart = recordPhase(Phase.POWERUPS, phaseStart);
+
+        if (!gameRunning || gamePaused) {
+            return;
+        }
+
+        frameCount++;
+        entities.advanceExpiry(frameCount);  // Mark whatever ran out of time on this frame
+        gameSchedule.ratesAt(frameCount, spawnRates);
+
+        // Restore the purse color once its feedback flash is over
+        if (frameCount == purseFlashEndFrame) {
+            purse.setColor(purseBaseColor);
+        }
+
+        // Decrease remaining time every 60 frames (every second at 60 ticks per second)
+        if (frameCount % TICKS_PER_SECOND == 0) {
+            remainingTime--;
+            if (remainingTime <= 0) {
+                endGame();
+                return;
+            }
+        }
+
+        // Spawn new coins and bombs periodically, as often as the schedule says
+        if (frameCount >= nextSpawnFrame) {
+            spawnGameObjects();
+            nextSpawnFrame = frameCount + spawnRates.getSpawnInterval();
+        }
+        phaseStart = recordPhase(Phase.SPAWN, phaseStart);
+
+        // Move all coins and bombs
+        entities.moveCoins(frameCount);
+        entities.moveBombs(frameCount);
+        phaseStart = recordPhase(Phase.MOVE, phaseStart);
+
+        // Handle coin-to-coin collisions (bouncing)
+        resolveCoinCollisions();
+        phaseStart = recordPhase(Phase.COLLIDE, phaseStart);
+
+        // Remove collected, expired, or detonated objects
+        entities.removeFinishedCoins(frameCount);
+        entities.removeFinishedBombs(frameCount);
+        recordPhase(Phase.CLEANUP, phaseStart);
+    }
+
+    /**
+     * Collect every coin the purse touched during the last tick.
+     * The purse is swept in a straight line from where it was at the start of
+     * the last tick to where the mouse is now, and each coin along its own path
+     * over that tick, so a quick flick of the mouse collects the coins it
+     * passed over instead of jumping past them. Only coins indexed near the
+     * purse's path are tested; they haven't moved since they were indexed.
+     */
+    private void autocollectCoins() {
+        double sweepX = purse.getX() - purse.getPreviousX();
+        double sweepY = purse.getY() - purse.getPreviousY();
+        double radius = Math.sqrt(sweepX * sweepX + sweepY * sweepY) / 2 + coinReach + entities.getIndexedMaxStep();
+        EntityStore.SlotList nearby = entities.entitiesWithin(
+            purse.getX() - sweepX / 2, purse.getY() - sweepY / 2, radius);
+        for (int i = 0; i < nearby.size(); i++) {
+            int slot = nearby.get(i);
+            if (entities.type[slot] == EntityStore.COIN
+                    && !entities.isCollected(slot) && !entities.isExpired(slot, frameCount)
+                    && purse.sweptCollidesWith(entities.previousX[slot], entities.previousY[slot],
+                                               entities.x[slot], entities.y[slot], entities.size[slot])) {
+                entities.collect(slot);
+                score += COIN_TYPES[entities.variant[slot]].pointValue;
+            }
+        }
+    }
+
+    /**
+     * Add the time since a phase started to its total and to the last tick's timings.
+     *
+     * @param phase The phase that just finished
+     * @param phaseStart When the phase started
+     * @return When the next phase starts
+     */
+    private long recordPhase(Phase phase, long phaseStart) {
+        if (!phaseTimingEnabled) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - phaseStart;
+        lastPhaseNanos[phase.ordinal()] = now - phaseStart;
+        return now;
+    }
+
+    /**
+     * Bounce coins off each other.
+     * Coins that came into contact during the tick are bounced first, where
+     * and in the order they touched (see resolveCoinImpacts()).
+     * Then live coins are binned into a uniform grid so each coin is only tested
+     * against coins in neighbouring cells instead of every other coin.
+     * Pairs are still visited in list order, and coins pushed apart into
+     * another cell are moved there in the grid straight away (looking again
+     * around the first coin if it was the one that moved), so pairs pushed
+     * into contact across a cell boundary are still caught and the result is
+     * the same as testing every pair.
+     *
+     * With at least the store's parallel threshold of live coins, the pairs
+     * are resolved across cores instead (see resolveCoinCollisionsInBatches()).
+     */
+    void resolveCoinCollisions() {
+        // Gather live coins once so expiry isn't re-checked for every pair
+        EntityStore.SlotList coins = entities.getCoins();
+        int liveCount = 0;
+        if (liveCoins.length < coins.size()) {
+            int newSize = Math.max(coins.size(), liveCoins.length * 2);
+            liveCoins = new int[newSize];
+            liveX = new double[newSize];
+            liveY = new double[newSize];
+            sweepX = new double[newSize];
+            sweepY = new double[newSize];
+            sweptBounce = new boolean[newSize];
+        }
+        double maxStep = 0;
+        for (int i = 0; i < coins.size(); i++) {
+            int slot = coins.get(i);
+            if (!entities.isCollected(slot) && !entities.isExpired(slot, frameCount)) {
+                liveCoins[liveCount] = slot;
+                liveX[liveCount] = entities.x[slot];
+                liveY[liveCount] = entities.y[slot];
+                double stepX = entities.x[slot] - entities.previousX[slot];
+                double stepY = entities.y[slot] - entities.previousY[slot];
+                maxStep = Math.max(maxStep, stepX * stepX + stepY * stepY);
+                liveCount++;
+            }
+        }
+
+        if (maxStep > 0) {
+            resolveCoinImpacts(liveCount, Math.sqrt(maxStep));
+        }
+
+        coinGrid.rebuild(liveCount, liveX, liveY);
+        if (liveCount >= entities.getParallelThreshold()) {
+            resolveCoinCollisionsInBatches();
+            return;
+        }
+        double[] x = entities.x;
+        double[] y = entities.y;
+        int[] size = entities.size;
+        for (int i = 0; i < liveCount; i++) {
+            int coin1 = liveCoins[i];
+            int neighborCount = coinGrid.findNeighbors(i);
+            for (int k = 0; k < neighborCount; k++) {
+                int j = coinGrid.getNeighbor(k);
+                int coin2 = liveCoins[j];
+                double dx = x[coin1] - x[coin2];
+                double dy = y[coin1] - y[coin2];
+                if (ShapeObject.overlaps(dx, dy, size[coin1] / 2 + size[coin2] / 2)) {
+                    bounceCoins(coin1, coin2);
+                    coinGrid.move(j, x[coin2], y[coin2]);
+                    if (coinGrid.move(i, x[coin1], y[coin1])) {
+                        // Carry on past coin j among the neighbours of its new cell
+                        neighborCount = coinGrid.findNeighbors(i);
+                        k = -1;
+                        while (k + 1 < neighborCount && coinGrid.getNeighbor(k + 1) <= j) {
+                            k++;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Bounce coins that came into contact during the tick where they touched,
+     * so fast coins (or slow ticks) can't carry coins into or straight through
+     * each other before the overlap is noticed.
+     *
+     * Each coin's path from its previous position is binned by its midpoint
+     * into a grid whose cells are at least a coin plus the longest step wide,
+     * so two paths that meet are always in the same or adjacent cells. Every
+     * pair whose paths met during the tick (ShapeObject.firstContact()) is
+     * gathered, and the impacts are handled earliest first: both coins go
+     * back to where they touched, bounce as in bounceCoins(), and move on
+     * with their new velocities for the rest of the tick. A coin gets at most
+     * one bounce from this stage per tick; its later impacts are skipped.
+     * Pairs already touching at the start of the tick, and anything still
+     * overlapping afterwards, are left to the usual pass.
+     *
+     * @param liveCount Number of gathered live coins
+     * @param maxStep The farthest any live coin moved this tick
+     */
+    private void resolveCoinImpacts(int liveCount, double maxStep) {
+        double[] x = entities.x;
+        double[] y = entities.y;
+        double[] previousX = entities.previousX;
+        double[] previousY = entities.previousY;
+
+        // At least two coins wide, so a sparse board doesn't pay for lots of empty cells
+        int cellSize = Math.max(2 * Coin.COIN_SIZE, Coin.COIN_SIZE + (int) Math.ceil(maxStep));
+        if (sweepGrid == null || sweepGrid.getCellSize() < cellSize) {
+            sweepGrid = new SpatialGrid(BOARD_WIDTH, BOARD_HEIGHT, cellSize);
+        }
+        for (int i = 0; i < liveCount; i++) {
+            int slot = liveCoins[i];
+            sweepX[i] = (previousX[slot] + x[slot]) / 2;
+            sweepY[i] = (previousY[slot] + y[slot]) / 2;
+            sweptBounce[i] = false;
+        }
+        sweepGrid.rebuild(liveCount, sweepX, sweepY);
+
+        // Find every pair whose paths met, in list order
+        impactCount = 0;
+        for (int i = 0; i < liveCount; i++) {
+            int neighborCount = sweepGrid.findNeighbors(i);
+            for (int k = 0; k < neighborCount; k++) {
+                findImpact(i, sweepGrid.getNeighbor(k));
+            }
+        }
+
+        // Earliest first; impacts at the same moment stay in list order
+        for (int n = 0; n < impactCount; n++) {
+            impactOrder[n] = ((long) (impactTime[n] * (1 << 30)) << 32) | n;
+        }
+        if (impactCount > 1) {
+            Arrays.sort(impactOrder, 0, impactCount);
+        }
+        for (int n = 0; n < impactCount; n++) {
+            int impact = (int) impactOrder[n];
+            int i = impactFirst[impact];
+            int j = impactSecond[impact];
+            if (!sweptBounce[i] && !sweptBounce[j]) {
+                bounceAtImpact(liveCoins[i], liveCoins[j], impactTime[impact]);
+                sweptBounce[i] = true;
+                sweptBounce[j] = true;
+                liveX[i] = x[liveCoins[i]];
+                liveY[i] = y[liveCoins[i]];
+                liveX[j] = x[liveCoins[j]];
+                liveY[j] = y[liveCoins[j]];
+            }
+        }
+    }
+
+    /**
+     * Record an impact if two live coins came into contact during the tick.
+     *
+     * @param i Position of the first coin among the live coins
+     * @param j Position of the second coin among the live coins
+     */
+    private void findImpact(int i, int j) {
+        double[] x = entities.x;
+        double[] y = entities.y;
+        double[] previousX = entities.previousX;
+        double[] previousY = entities.previousY;
+        int coin1 = liveCoins[i];
+        int coin2 = liveCoins[j];
+        int range = entities.size[coin1] / 2 + entities.size[coin2] / 2;
+
+        double startDx = previousX[coin1] - previousX[coin2];
+        double endDx = x[coin1] - x[coin2];
+        if ((startDx >= range && endDx >= range) || (startDx <= -range && endDx <= -range)) {
+            return;  // Apart along x for the whole tick
+        }
+        double startDy = previousY[coin1] - previousY[coin2];
+        double endDy = y[coin1] - y[coin2];
+        if ((startDy >= range && endDy >= range) || (startDy <= -range && endDy <= -range)) {
+            return;  // Apart along y for the whole tick
+        }
+        double t = ShapeObject.firstContact(startDx, startDy, endDx, endDy, range);
+        if (t > 0) {  // Pairs already touching at the start are left to the usual pass
+            addImpact(t, i, j);
+        }
+    }
+
+    private void addImpact(double t, int i, int j) {
+        if (impactCount == impactTime.length) {
+            int newSize = impactCount * 2;
+            impactOrder = Arrays.copyOf(impactOrder, newSize);
+            impactTime = Arrays.copyOf(impactTime, newSize);
+            impactFirst = Arrays.copyOf(impactFirst, newSize);
+            impactSecond = Arrays.copyOf(impactSecond, newSize);
+        }
+        impactTime[impactCount] = t;
+        impactFirst[impactCount] = i;
+        impactSecond[impactCount] = j;
+        impactCount++;
+    }
+
+    /**
+     * Bounce two coins where they touched partway through the tick, then move
+     * them on with their new velocities for the rest of it.
+     *
+     * @param coin1 Slot of the first coin
+     * @param coin2 Slot of the second coin
+     * @param t Fraction of the tick at which they touched
+     */
+    private void bounceAtImpact(int coin1, int coin2, double t) {
+        double[] x = entities.x;
+        double[] y = entities.y;
+        double[] vx = entities.velocityX;
+        double[] vy = entities.velocityY;
+
+        // Where each coin was when they touched
+        double x1 = entities.previousX[coin1] + (x[coin1] - entities.previousX[coin1]) * t;
+        double y1 = entities.previousY[coin1] + (y[coin1] - entities.previousY[coin1]) * t;
+        double x2 = entities.previousX[coin2] + (x[coin2] - entities.previousX[coin2]) * t;
+        double y2 = entities.previousY[coin2] + (y[coin2] - entities.previousY[coin2]) * t;
+
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        if (distance > 0) {
+            double nx = dx / distance;
+            double ny = dy / distance;
+            double dvn = (vx[coin2] - vx[coin1]) * nx + (vy[coin2] - vy[coin1]) * ny;
+
+            // Do not resolve if coins are moving apart (e.g. one bounced off a wall since)
+            if (dvn < 0) {
+                // For equal mass elastic collision, exchange velocity components
+                vx[coin1] += dvn * nx;
+                vy[coin1] += dvn * ny;
+                vx[coin2] -= dvn * nx;
+                vy[coin2] -= dvn * ny;
+
+                // The rest of the tick, from the point of contact, kept on the board
+                double remaining = 1 - t;
+                int half1 = entities.size[coin1] / 2;
+                int half2 = entities.size[coin2] / 2;
+                x[coin1] = Math.max(half1, Math.min(x1 + vx[coin1] * remaining, BOARD_WIDTH - half1));
+                y[coin1] = Math.max(half1, Math.min(y1 + vy[coin1] * remaining, BOARD_HEIGHT - half1));
+                x[coin2] = Math.max(half2, Math.min(x2 + vx[coin2] * remaining, BOARD_WIDTH - half2));
+                y[coin2] = Math.max(half2, Math.min(y2 + vy[coin2] * remaining, BOARD_HEIGHT - half2));
+            }
+        }
+    }
+
+    /**
+     * Bounce coins off each other on several threads.
+     *
+     * A coin only ever touches coins in its own grid cell or the eight around
+     * it, so resolving the coins of one cell reads and writes nothing outside
+     * that 3x3 block. Cells are coloured in a repeating 3x3 pattern; cells of
+     * the same colour are at least three cells apart, so their blocks never
+     * overlap and they can be resolved at the same time without locks. The
+     * nine colours are resolved one after another, each split by grid row
+     * across the common ForkJoinPool.
+     *
+     * Each pair is still bounced once, by its lower-numbered coin, but in
+     * colour order instead of list order. Coins touching several others at
+     * once can therefore end up slightly differently than with the serial
+     * pass (both conserve momentum), and coins pushed into contact across a
+     * cell boundary are left for the next tick. The order doesn't depend on
+     * the number of threads, so the result is the same on every machine.
+     */
+    private void resolveCoinCollisionsInBatches() {
+        int columns = coinGrid.getColumns();
+        int rows = coinGrid.getRows();
+        for (int color = 0; color < 9; color++) {
+            int firstRow = color / 3;
+            int firstColumn = color % 3;
+            IntStream.range(0, (rows - firstRow + 2) / 3).parallel().forEach(band -> {
+                SpatialGrid.Neighbors neighbors = NEIGHBORS.get();
+                int row = firstRow + band * 3;
+                for (int column = firstColumn; column < columns; column += 3) {
+                    resolveCell(row * columns + column, neighbors);
+                }
+            });
+        }
+    }
+
+    /**
+     * Bounce every coin in one grid cell off its neighbours with higher list positions.
+     *
+     * @param cell The grid cell
+     * @param neighbors This thread's neighbour list
+     */
+    private void resolveCell(int cell, SpatialGrid.Neighbors neighbors) {
+        double[] x = entities.x;
+        double[] y = entities.y;
+        int[] size = entities.size;
+        for (int k = coinGrid.getCellStart(cell); k < coinGrid.getCellEnd(cell); k++) {
+            int i = coinGrid.getCellItem(k);
+            int coin1 = liveCoins[i];
+            int neighborCount = coinGrid.findNeighbors(i, neighbors);
+            for (int n = 0; n < neighborCount; n++) {
+                int coin2 = liveCoins[neighbors.get(n)];
+                double dx = x[coin1] - x[coin2];
+                double dy = y[coin1] - y[coin2];
+                if (ShapeObject.overlaps(dx, dy, size[coin1] / 2 + size[coin2] / 2)) {
+                    bounceCoins(coin1, coin2);
+                }
+            }
+        }
+    }
+
+    /**
+     * Apply an elastic bounce to two overlapping coins of equal mass.
+     *
+     * @param coin1 Slot of the first coin
+     * @param coin2 Slot of the second coin
+     */
+    private void bounceCoins(int coin1, int coin2) {
+        double[] x = entities.x;
+        double[] y = entities.y;
+        double[] vx = entities.velocityX;
+        double[] vy = entities.velocityY;
+
+        // Calculate collision response (elastic bounce)
+        double dx = x[coin2] - x[coin1];
+        double dy = y[coin2] - y[coin1];
+        double distance = Math.sqrt(dx * dx + dy * dy);
+
+        if (distance > 0) {
+            // Normalize the collision vector
+            double nx = dx / distance;
+            double ny = dy / distance;
+
+            // Relative velocity
+            double dvx = vx[coin2] - vx[coin1];
+            double dvy = vy[coin2] - vy[coin1];
+
+            // Relative velocity in collision normal direction
+            double dvn = dvx * nx + dvy * ny;
+
+            // Do not resolve if coins are moving apart
+            if (dvn < 0) {
+                // For equal mass elastic collision, exchange velocity components
+                vx[coin1] += dvn * nx;
+                vy[coin1] += dvn * ny;
+                vx[coin2] -= dvn * nx;
+                vy[coin2] -= dvn * ny;
+
+                // Separate coins to prevent overlap
+                double overlap = (entities.size[coin1] / 2 + entities.size[coin2] / 2) - distance;
+                double separationX = (overlap / 2) * nx;
+                double separationY = (overlap / 2) * ny;
+                x[coin1] -= separationX;
+                y[coin1] -= separationY;
+                x[coin2] += separationX;
+                y[coin2] += separationY;
+            }
+        }
+    }
+
+    /**
+     * Spawn new coins and bombs on the game board.
+     * Randomly distributes them across the board, in the numbers and with the
+     * chances the schedule gives for this frame (1-2 coins and a 20% chance of
+     * a bomb in the standard game).
+     */
+    private void spawnGameObjects() {
+        int coinCount = spawnRates.coinCount(random.nextDouble());
+        double coinSpeed = spawnRates.getCoinSpeed();
+        for (int i = 0; i < coinCount; i++) {
+            double x = random.nextDouble() * (BOARD_WIDTH - 50) + 25;
+            double y = random.nextDouble() * (BOARD_HEIGHT - 100) + 25;
+
+            // Randomly choose coin type from the schedule's table (more common coins are more likely)
+            Coin.CoinType type = spawnRates.coinType(random.nextDouble());
+
+            int slot = entities.spawn(EntityStore.COIN, x, y,
+                (random.nextDouble() - 0.5) * 2 * coinSpeed,  // Random horizontal velocity between -speed and speed
+                (random.nextDouble() - 0.5) * 2 * coinSpeed,  // Random vertical velocity between -speed and speed
+                Coin.COIN_SIZE, frameCount);
+            entities.setVariant(slot, (byte) type.ordinal());
+        }
+
+        // Spawn a bomb occasionally
+        if (random.nextDouble() < spawnRates.getBombChance()) {
+            double bombSpeed = spawnRates.getBombSpeed();
+            double x = random.nextDouble() * (BOARD_WIDTH - 50) + 25;
+            double y = random.nextDouble() * (BOARD_HEIGHT - 100) + 25;
+            entities.spawn(EntityStore.BOMB, x, y,
+                (random.nextDouble() - 0.5) * 2 * bombSpeed,  // Random x velocity between -speed and speed
+                (random.nextDouble() - 0.5) * 2 * bombSpeed,  // Random y velocity between -speed and speed
+                Bomb.BOMB_SIZE, frameCount);
+        }
+    }
+
+    /**
+     * Handle a mouse click for collecting coins and bombs.
+     * When the player clicks, all coins within collection range are collected.
+     * Only entities near the click are looked at (see EntityStore.entitiesWithin()),
+     * so a click costs about the same however full the board is.
+     * If a bomb is clicked, it detonates and the player loses points and a life.
+     * Has no effect unless a game is running and not paused.
+     *
+     * @param clickX X-coordinate of the mouse click
+     * @param clickY Y-coordinate of the mouse click
+     */
+    public void handleClick(int clickX, int clickY) {
+        if (!gameRunning || gamePaused) {
+            return;
+        }
+        if (recording != null) {
+            recording.recordClick(clickX, clickY);
+        }
+
+        // Check for powerup click
+        EntityStore.SlotList nearby = entities.entitiesWithin(clickX, clickY, PowerUp.POWERUP_SIZE / 2.0);
+        for (int i = 0; i < nearby.size(); i++) {
+            int slot = nearby.get(i);
+            if (entities.type[slot] != EntityStore.POWERUP) {
+                continue;
+            }
+            PowerUp pu = (PowerUp) entities.getView(slot);
+            if (!pu.isExpired(frameCount) && pu.containsPoint(clickX, clickY)) {
+                powerupActive = true;
+                powerupEndFrame = frameCount + POWERUP_EFFECT_FRAMES;
+                entities.removePowerUpSlot(slot);
+                return; // Only one powerup can be activated per click
+            }
+        }
+
+        // Coins come back before bombs, so they're handled in the same order as before
+        nearby = entities.entitiesWithin(purse.getX(), purse.getY(), clickReach);
+        for (int i = 0; i < nearby.size(); i++) {
+            int slot = nearby.get(i);
+            switch (entities.type[slot]) {
+                case EntityStore.COIN:
+                    // Check for coin collection
+                    if (!entities.isCollected(slot)
+                            && purse.collidesWith(entities.x[slot], entities.y[slot], entities.size[slot])) {
+                        entities.collect(slot);
+                        score += COIN_TYPES[entities.variant[slot]].pointValue;
+
+                        // Visual feedback: briefly change purse color
+                        flashPurse(new Color(0, 255, 0), 12);  // Green for collection
+                    }
+                    break;
+                case EntityStore.BOMB:
+                    // Check for bomb detonation (ignore bombs if powerup is active)
+                    if (!powerupActive && !entities.isDetonated(slot)
+                            && purse.collidesWith(entities.x[slot], entities.y[slot], entities.size[slot])) {
+                        entities.detonate(slot);
+                        score -= Bomb.POINT_PENALTY;
+                        lives = Math.max(0, lives - 1);
+                        // Ensure score doesn't go negative
+                        if (score < 0) score = 0;
+                        // Visual feedback: briefly change purse color to red
+                        flashPurse(new Color(255, 100, 100), 18);  // Red for bomb
+                        // Check if game is over due to loss of lives. The outcome is recorded
+                        // and reported right away, so nothing else this click hits may count.
+                        if (lives == 0) {
+                            endGame();
+                            return;
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Briefly change the purse color as feedback for a click.
+     *
+     * @param flashColor The color to show
+     * @param frames How many frames to show it for
+     */
+    private void flashPurse(Color flashColor, int frames) {
+        purse.setColor(flashColor);
+        purseFlashEndFrame = frameCount + frames;
+    }
+
+    /**
+     * End the game and notify the listener.
+     */
+    private void endGame() {
+        gameRunning = false;
+        if (recording != null) {
+            recording.finish(score, lives, frameCount);
+            lastRecording = recording;
+            recording = null;
+        }
+        if (gameOverListener != null) {
+            gameOverListener.onGameOver(score, lives);
+        }
+    }
+
+    /**
+     * Turn input recording on or off. Takes effect from the next game started.
+     *
+     * @param enabled true to record each game's input
+     */
+    public void setRecordingEnabled(boolean enabled) {
+        this.recordingEnabled = enabled;
+    }
+
+    /**
+     * Turn timing of each tick phase on or off.
+     *
+     * @param enabled true to record phase timings, false to skip the clock reads
+     */
+    public void setPhaseTimingEnabled(boolean enabled) {
+        this.phaseTimingEnabled = enabled;
+    }
+
+    /**
+     * Get the total time spent in a phase since timing was enabled.
+     *
+     * @param phase The phase to look up
+     * @return Total nanoseconds spent in the phase
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Get the time a phase took in the last tick.
+     *
+     * @param phase The phase to look up
+     * @return Nanoseconds the phase took, or -1 if the last tick skipped it (or timing is off)
+     */
+    public long getLastPhaseNanos(Phase phase) {
+        return phaseTimingEnabled ? lastPhaseNanos[phase.ordinal()] : -1;
+    }
+
+    /**
+     * Get the number of seconds of autocollect left.
+     *
+     * @return Seconds left, or 0 if the powerup has run out
+     */
+    public int getPowerupSecondsLeft() {
+        return Math.max(0, (powerupEndFrame - frameCount) / TICKS_PER_SECOND);
+    }
+
+    // Getters for game state
+    public long getGameSeed() { return gameSeed; }
+    public InputLog getLastRecording() { return lastRecording; }
+    public boolean isGameRunning() { return gameRunning; }
+    public boolean isGamePaused() { return gamePaused; }
+    public int getRemainingTime() { return remainingTime; }
+    public int getLives() { return lives; }
+    public int getScore() { return score; }
+    public int getFrameCount() { return frameCount; }
+    public boolean isPowerupActive() { return powerupActive; }
+    public CollectionPurse getPurse() { return purse; }
+    public EntityStore getEntities() { return entities; }
+    public SpawnSchedule getSpawnSchedule() { return schedule; }
+}
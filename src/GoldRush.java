@@ -40,6 +40,10 @@ public class GoldRush{
      * @param args Command line arguments (not used)
      */
     public static void main(String[] args) {
+        // Decode the game's images and load the scores in the background while the login page is up
+        AssetManager.preloadImages();
+        ScoreManager.preload();
+        
         // Run the game on the Event Dispatch Thread for thread safety
         SwingUtilities.invokeLater(() -> {
             // Create the main game window
@@ -0,0 +1,271 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * InputLog - Compact binary recording of one game's input.
+ *
+ * A game is fully decided by its seed, its spawn schedule, and the input it
+ * receives, so the log stores only those: the seed, the schedule's name,
+ * where the purse started, and a stream of
+ * one-byte opcodes for every mouse move, click, pause, resume, and tick, in
+ * the order the world saw them. Mouse moves are only written when the mouse
+ * actually moved, so a quiet frame costs a single byte. The final score,
+ * lives, and frame count are kept too, so a replay can check that it ended
+ * the same way.
+ *
+ * File format (big-endian): magic, version, seed, schedule name (UTF),
+ * purse x/y, tick count, final score, final lives, final frame, opcode
+ * length, opcodes. Version 1 recordings have no schedule name.
+ */
+public class InputLog {
+
+    private static final int MAGIC = 0x47524C47;  // "GRLG"
+    private static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_SCHEDULE = 1;  // Still loaded, with no schedule name
+
+    // Opcodes
+    private static final byte MOVE = 1;    // followed by short x, short y
+    private static final byte CLICK = 2;   // followed by short x, short y
+    private static final byte PAUSE = 3;
+    private static final byte RESUME = 4;
+    private static final byte TICK = 5;
+
+    private final long seed;
+    private final String scheduleName;  // null if the recording doesn't say
+    private final int startPurseX;
+    private final int startPurseY;
+
+    // Opcode stream
+    private byte[] ops;
+    private int length = 0;
+    private int tickCount = 0;
+
+    // Last recorded mouse position
+    private int lastMouseX;
+    private int lastMouseY;
+
+    // How the game ended
+    private boolean finished = false;
+    private int finalScore;
+    private int finalLives;
+    private int finalFrame;
+
+    /**
+     * Constructor for InputLog. Starts an empty recording.
+     *
+     * @param seed The seed the game was started with
+     * @param scheduleName Name of the spawn schedule the game follows
+     * @param startPurseX Purse x-coordinate when the game started
+     * @param startPurseY Purse y-coordinate when the game started
+     */
+    public InputLog(long seed, String scheduleName, int startPurseX, int startPurseY) {
+        this.seed = seed;
+        this.scheduleName = scheduleName;
+        this.startPurseX = startPurseX;
+        this.startPurseY = startPurseY;
+        this.lastMouseX = startPurseX;
+        this.lastMouseY = startPurseY;
+        this.ops = new byte[4096];
+    }
+
+    /**
+     * Record the mouse position for the purse. Skipped if the mouse hasn't moved.
+     *
+     * @param mouseX The mouse X position
+     * @param mouseY The mouse Y position
+     */
+    public void recordMove(int mouseX, int mouseY) {
+        if (mouseX != lastMouseX || mouseY != lastMouseY) {
+            writePosition(MOVE, mouseX, mouseY);
+            lastMouseX = mouseX;
+            lastMouseY = mouseY;
+        }
+    }
+
+    /**
+     * Record a mouse click.
+     *
+     * @param clickX X-coordinate of the click
+     * @param clickY Y-coordinate of the click
+     */
+    public void recordClick(int clickX, int clickY) {
+        writePosition(CLICK, clickX, clickY);
+    }
+
+    /**
+     * Record the game being paused or resumed.
+     *
+     * @param paused true if the game was paused, false if it was resumed
+     */
+    public void recordPause(boolean paused) {
+        writeOp(paused ? PAUSE : RESUME);
+    }
+
+    /**
+     * Record the start of a tick.
+     */
+    public void recordTick() {
+        writeOp(TICK);
+        tickCount++;
+    }
+
+    /**
+     * Mark the recording as complete and remember how the game ended.
+     *
+     * @param score The final score
+     * @param lives The lives left
+     * @param frame The frame the game ended on
+     */
+    public void finish(int score, int lives, int frame) {
+        this.finished = true;
+        this.finalScore = score;
+        this.finalLives = lives;
+        this.finalFrame = frame;
+    }
+
+    /**
+     * Play the recorded game on a world, as fast as possible.
+     * The world is restarted with the recorded seed and given the same input.
+     * It has to be set to the recorded spawn schedule (see getScheduleName())
+     * beforehand for the game to play out the same way.
+     *
+     * @param world The world to replay on
+     */
+    public void replay(GameWorld world) {
+        world.start(seed);
+        world.movePurse(startPurseX, startPurseY);
+
+        ByteBuffer in = ByteBuffer.wrap(ops, 0, length);
+        while (in.hasRemaining()) {
+            byte op = in.get();
+            switch (op) {
+                case MOVE:
+                    world.movePurse(in.getShort(), in.getShort());
+                    break;
+                case CLICK:
+                    world.handleClick(in.getShort(), in.getShort());
+                    break;
+                case PAUSE:
+                    world.setPaused(true);
+                    break;
+                case RESUME:
+                    world.setPaused(false);
+                    break;
+                case TICK:
+                    world.tick();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + op + " at " + (in.position() - 1));
+            }
+        }
+    }
+
+    /**
+     * Check whether a replayed world ended the same way as the recorded game.
+     *
+     * @param world The world after replay()
+     * @return true if the score, lives, and frame count all match
+     */
+    public boolean matchesOutcome(GameWorld world) {
+        return finished
+            && world.getScore() == finalScore
+            && world.getLives() == finalLives
+            && world.getFrameCount() == finalFrame;
+    }
+
+    /**
+     * Save a finished recording to a file.
+     *
+     * @param file The file to write
+     * @throws IOException If the file can't be written
+     */
+    public void save(File file) throws IOException {
+        if (!finished) {
+            throw new IllegalStateException("Only finished games can be saved");
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(seed);
+            out.writeUTF(scheduleName);
+            out.writeShort(startPurseX);
+            out.writeShort(startPurseY);
+            out.writeInt(tickCount);
+            out.writeInt(finalScore);
+            out.writeInt(finalLives);
+            out.writeInt(finalFrame);
+            out.writeInt(length);
+            out.write(ops, 0, length);
+        }
+    }
+
+    /**
+     * Load a recording saved with save().
+     *
+     * @param file The file to read
+     * @return The recording
+     * @throws IOException If the file can't be read or isn't a recording
+     */
+    public static InputLog load(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a Gold Rush recording");
+            }
+            byte version = in.readByte();
+            if (version != VERSION && version != VERSION_WITHOUT_SCHEDULE) {
+                throw new IOException("Unsupported recording version " + version);
+            }
+            long seed = in.readLong();
+            String scheduleName = version == VERSION ? in.readUTF() : null;
+            InputLog log = new InputLog(seed, scheduleName, in.readShort(), in.readShort());
+            log.tickCount = in.readInt();
+            log.finish(in.readInt(), in.readInt(), in.readInt());
+            log.length = in.readInt();
+            log.ops = new byte[log.length];
+            in.readFully(log.ops);
+            return log;
+        }
+    }
+
+    // Getters
+    public long getSeed() { return seed; }
+    public String getScheduleName() { return scheduleName; }
+    public int getTickCount() { return tickCount; }
+    public int getSizeInBytes() { return length; }
+    public boolean isFinished() { return finished; }
+    public int getFinalScore() { return finalScore; }
+    public int getFinalLives() { return finalLives; }
+    public int getFinalFrame() { return finalFrame; }
+
+    /**
+     * Append an opcode followed by an x/y position.
+     */
+    private void writePosition(byte op, int x, int y) {
+        ensureCapacity(5);
+        ops[length++] = op;
+        ops[length++] = (byte) (x >> 8);
+        ops[length++] = (byte) x;
+        ops[length++] = (byte) (y >> 8);
+        ops[length++] = (byte) y;
+    }
+
+    /**
+     * Append a single opcode.
+     */
+    private void writeOp(byte op) {
+        ensureCapacity(1);
+        ops[length++] = op;
+    }
+
+    /**
+     * Grow the opcode buffer if it can't fit more bytes.
+     */
+    private void ensureCapacity(int extra) {
+        if (length + extra > ops.length) {
+            ops = Arrays.copyOf(ops, Math.max(ops.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,273 @@
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+/**
+ * Leaderboard - Ranks scores across all players.
+ *
+ * Keeps the best TOP_K scores of all time and of today in bounded min-heaps,
+ * plus every player's best score, all updated one score at a time as games
+ * are saved. The worst kept score sits at the top of each heap, so a new
+ * score only has to be compared with it. A player's rank comes from a count
+ * of players per best score, so none of the queries scan the score files.
+ *
+ * ScoreManager adds every score it writes and saves the leaderboard to its
+ * own file after each write. If that file is missing, ScoreManager rebuilds
+ * it once from the players' score files.
+ */
+public class Leaderboard {
+
+    public static final int TOP_K = 100;  // Scores kept for the all-time and daily boards
+
+    private static final int MAGIC = 0x47524C42;  // "GRLB"
+    private static final int VERSION = 1;
+
+    // Highest score first; on a tie, the earlier score ranks first
+    private static final Comparator<Entry> BEST_FIRST = (a, b) ->
+        a.score != b.score ? Integer.compare(b.score, a.score) : Long.compare(a.time, b.time);
+
+    private final File file;
+
+    // Best scores, with the worst kept score at the head
+    private final PriorityQueue<Entry> allTime = new PriorityQueue<>(TOP_K + 1, BEST_FIRST.reversed());
+    private final PriorityQueue<Entry> today = new PriorityQueue<>(TOP_K + 1, BEST_FIRST.reversed());
+    private long todayEpochDay = -1;  // The day the daily board holds
+
+    // Each player's best score, and how many players have each best score
+    private final HashMap<String, Entry> bestByPlayer = new HashMap<>();
+    private final TreeMap<Integer, Integer> playersByBest = new TreeMap<>();
+
+    /**
+     * Constructor for Leaderboard. Starts empty.
+     *
+     * @param file The file the leaderboard is saved to
+     */
+    public Leaderboard(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Add a score without saving. Use save() once a batch has been added.
+     *
+     * @param username The player's username
+     * @param score The score achieved
+     * @param time When the score was set, in epoch milliseconds
+     */
+    public synchronized void add(String username, int score, long time) {
+        Entry entry = new Entry(username, score, time);
+        offer(allTime, entry);
+
+        long day = epochDay(time);
+        if (day > todayEpochDay) {
+            today.clear();
+            todayEpochDay = day;
+        }
+        if (day == todayEpochDay) {
+            offer(today, entry);
+        }
+
+        Entry best = bestByPlayer.get(username);
+        if (best == null || score > best.score) {
+            if (best != null) {
+                playersByBest.computeIfPresent(best.score, (s, count) -> count == 1 ? null : count - 1);
+            }
+            playersByBest.merge(score, 1, Integer::sum);
+            bestByPlayer.put(username, entry);
+        }
+    }
+
+    /**
+     * Get the best scores of all time.
+     *
+     * @param n How many scores to return (at most TOP_K)
+     * @return The best scores, highest first
+     */
+    public synchronized ArrayList<Entry> getTopAllTime(int n) {
+        return top(allTime, n);
+    }
+
+    /**
+     * Get the best scores set today.
+     *
+     * @param n How many scores to return (at most TOP_K)
+     * @return Today's best scores, highest first
+     */
+    public synchronized ArrayList<Entry> getTopToday(int n) {
+        if (todayEpochDay != epochDay(System.currentTimeMillis())) {
+            return new ArrayList<>();
+        }
+        return top(today, n);
+    }
+
+    /**
+     * Get a player's rank among all players, by their best score.
+     * Players with the same best score share a rank.
+     *
+     * @param username The player's username
+     * @return The rank from 1 (best), or -1 if the player has no scores
+     */
+    public synchronized int getRank(String username) {
+        Entry best = bestByPlayer.get(username);
+        if (best == null) {
+            return -1;
+        }
+        int playersAhead = 0;
+        for (int count : playersByBest.tailMap(best.score, false).values()) {
+            playersAhead += count;
+        }
+        return playersAhead + 1;
+    }
+
+    /**
+     * Get a player's best score.
+     *
+     * @param username The player's username
+     * @return The best score, or null if the player has no scores
+     */
+    public synchronized Entry getBest(String username) {
+        return bestByPlayer.get(username);
+    }
+
+    /**
+     * Get the number of players with at least one score.
+     *
+     * @return The number of ranked players
+     */
+    public synchronized int getPlayerCount() {
+        return bestByPlayer.size();
+    }
+
+    /**
+     * Save the leaderboard. Writes a temporary file, forces it to disk, and
+     * atomically renames it over the old one, so a crash never leaves a
+     * half-written leaderboard. On file systems without atomic renames it
+     * falls back to a plain replace.
+     *
+     * @throws IOException If the file can't be written
+     */
+    public synchronized void save() throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOut = new FileOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(todayEpochDay);
+            writeEntries(out, allTime.toArray(new Entry[0]));
+            writeEntries(out, today.toArray(new Entry[0]));
+            writeEntries(out, bestByPlayer.values().toArray(new Entry[0]));
+            out.flush();
+            fileOut.getChannel().force(true);
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Load a saved leaderboard.
+     *
+     * @param file The file to read
+     * @return The leaderboard
+     * @throws IOException If the file can't be read or isn't a leaderboard
+     */
+    public static Leaderboard load(File file) throws IOException {
+        Leaderboard leaderboard = new Leaderboard(file);
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a leaderboard");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported leaderboard version " + version);
+            }
+            leaderboard.todayEpochDay = in.readLong();
+            leaderboard.allTime.addAll(readEntries(in));
+            leaderboard.today.addAll(readEntries(in));
+            for (Entry best : readEntries(in)) {
+                leaderboard.bestByPlayer.put(best.username, best);
+                leaderboard.playersByBest.merge(best.score, 1, Integer::sum);
+            }
+        }
+        return leaderboard;
+    }
+
+    /**
+     * Add an entry to a bounded heap, dropping the worst entry if it's full.
+     */
+    private static void offer(PriorityQueue<Entry> heap, Entry entry) {
+        if (heap.size() < TOP_K) {
+            heap.add(entry);
+        } else if (BEST_FIRST.compare(entry, heap.peek()) < 0) {
+            heap.poll();
+            heap.add(entry);
+        }
+    }
+
+    /**
+     * Get the best n entries of a heap, highest first.
+     */
+    private static ArrayList<Entry> top(PriorityQueue<Entry> heap, int n) {
+        Entry[] entries = heap.toArray(new Entry[0]);
+        Arrays.sort(entries, BEST_FIRST);
+        int count = Math.min(n, entries.length);
+        ArrayList<Entry> top = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            top.add(entries[i]);
+        }
+        return top;
+    }
+
+    /**
+     * Get the local calendar day of a time.
+     */
+    private static long epochDay(long time) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    private static void writeEntries(DataOutputStream out, Entry[] entries) throws IOException {
+        out.writeInt(entries.length);
+        for (Entry entry : entries) {
+            out.writeUTF(entry.username);
+            out.writeInt(entry.score);
+            out.writeLong(entry.time);
+        }
+    }
+
+    private static ArrayList<Entry> readEntries(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ArrayList<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(new Entry(in.readUTF(), in.readInt(), in.readLong()));
+        }
+        return entries;
+    }
+
+    /**
+     * A score on the leaderboard
+     */
+    public static class Entry {
+        public final String username;
+        public final int score;
+        public final long time;  // Epoch milliseconds
+
+        Entry(String username, int score, long time) {
+            this.username = username;
+            this.score = score;
+            this.time = time;
+        }
+    }
+}
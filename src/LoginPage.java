@@ -1,6 +1,5 @@
 import java.awt.*;
 import java.io.*;
-import java.util.ArrayList;
 import javax.swing.*;
 
 /*
@@ -9,11 +8,13 @@ import javax.swing.*;
 
 public class LoginPage extends JPanel {
     
+    private static final String USER_FILE = "users.dat";
+    
     private JTextField userField = new JTextField(15);
     private JPasswordField passField = new JPasswordField(15);
     private JLabel status = new JLabel("Login or Register");
-    private ArrayList<String> userID = new ArrayList<>();
-    private ArrayList<String> userPass = new ArrayList<>();
+    private final CredentialStore credentials = new CredentialStore(new File(USER_FILE));
+    private boolean checking = false;  // A login or registration is being hashed in the background
     private boolean loginSuccessful = false;
     private String loggedInUser = "";
     
@@ -137,9 +138,6 @@ public class LoginPage extends JPanel {
         gbc.gridwidth = 2;
         gbc.anchor = GridBagConstraints.CENTER;
         add(status, gbc);
-        
-        // Load existing user data
-        loadUserData();
     }
     
 
@@ -151,36 +149,6 @@ public class LoginPage extends JPanel {
         this.loginListener = listener;
     }
     
-    /**
-     * Load user credentials from text files
-     */
-    private void loadUserData() {
-        try {
-            File usernameFile = new File("usernames.txt");
-            File passwordFile = new File("passwords.txt");
-            
-            if (usernameFile.exists()) {
-                BufferedReader userReader = new BufferedReader(new FileReader(usernameFile));
-                String line;
-                while ((line = userReader.readLine()) != null) {
-                    userID.add(line);
-                }
-                userReader.close();
-            }
-            
-            if (passwordFile.exists()) {
-                BufferedReader passReader = new BufferedReader(new FileReader(passwordFile));
-                String line;
-                while ((line = passReader.readLine()) != null) {
-                    userPass.add(line);
-                }
-                passReader.close();
-            }
-        } catch (IOException e) {
-            System.out.println("Error loading user data: " + e.getMessage());
-        }
-    }
-    
     /**
      * Authenticate user login
      */
@@ -188,30 +156,53 @@ public class LoginPage extends JPanel {
         String username = userField.getText();
         String password = new String(passField.getPassword());
         
+        if (checking) {
+            return;
+        }
+        
         if ((username != null && !username.trim().isEmpty()) && (password != null && !password.trim().isEmpty())) {
-            // Check if username exists
-            int userIndex = userID.indexOf(username);
-            if (userIndex != -1 && userPass.get(userIndex).equals(password)) {
-                status.setText("Login successful");
-                status.setForeground(new Color(0, 150, 0));
-                loginSuccessful = true;
-                loggedInUser = username;
-                
-                // Notify listener and transition to game
-                if (loginListener != null) {
-                    SwingUtilities.invokeLater(() -> loginListener.onLoginSuccess());
+            startChecking("Logging in...");
+            // Hashing the password is slow on purpose, so the answer arrives back on the EDT later
+            credentials.verify(username, password).whenComplete((valid, error) -> SwingUtilities.invokeLater(() -> {
+                checking = false;
+                if (error != null) {
+                    status.setText("Error checking credentials");
+                    status.setForeground(new Color(200, 0, 0));
+                    System.out.println("Error: " + error.getMessage());
+                } else if (valid) {
+                    status.setText("Login successful");
+                    status.setForeground(new Color(0, 150, 0));
+                    loginSuccessful = true;
+                    loggedInUser = username;
+                    
+                    // Notify listener and transition to game
+                    if (loginListener != null) {
+                        loginListener.onLoginSuccess();
+                    }
+                } else {
+                    status.setText("Invalid credentials");
+                    status.setForeground(new Color(200, 0, 0));
+                    loginSuccessful = false;
                 }
-            } else {
-                status.setText("Invalid credentials");
-                status.setForeground(new Color(200, 0, 0));
-                loginSuccessful = false;
-            }
+            }));
         } else {
             status.setText("Please fill in all fields");
             status.setForeground(new Color(200, 0, 0));
         }
     }
     
+    /**
+     * Show a status while a login or registration is checked in the background,
+     * and ignore further clicks until it's done
+     * 
+     * @param message The status to show
+     */
+    private void startChecking(String message) {
+        checking = true;
+        status.setText(message);
+        status.setForeground(Color.BLUE);
+    }
+    
     /**
      * Register a new user
      */
@@ -219,39 +210,31 @@ public class LoginPage extends JPanel {
         String username = userField.getText();
         String password = new String(passField.getPassword());
         
+        if (checking) {
+            return;
+        }
+        
         if ((username != null && !username.trim().isEmpty()) && (password != null && !password.trim().isEmpty())) {
-            // Check if username already exists
-            if (userID.contains(username)) {
-                status.setText("Username already exists");
-                status.setForeground(new Color(200, 0, 0));
-                return;
-            }
-            
-            try {
-                // Append to files instead of overwriting
-                FileWriter usernameOut = new FileWriter("usernames.txt", true);
-                FileWriter passwordOut = new FileWriter("passwords.txt", true);
-                
-                usernameOut.append(username).append("\n");
-                passwordOut.append(password).append("\n");
-                usernameOut.close();
-                passwordOut.close();
-                
-                // Add to ArrayLists
-                userID.add(username);
-                userPass.add(password);
-                
-                status.setText("Registration successful");
-                status.setForeground(new Color(0, 150, 0));
-                userField.setText("");
-                passField.setText("");
-                
-                System.out.println("User registered: " + username);
-            } catch (IOException e) {
-                status.setText("Error saving user data");
-                status.setForeground(new Color(200, 0, 0));
-                System.out.println("Error: " + e.getMessage());
-            }
+            startChecking("Registering...");
+            credentials.register(username, password).whenComplete((added, error) -> SwingUtilities.invokeLater(() -> {
+                checking = false;
+                if (error != null) {
+                    status.setText("Error saving user data");
+                    status.setForeground(new Color(200, 0, 0));
+                    System.out.println("Error: " + error.getMessage());
+                } else if (!added) {
+                    // Username already exists
+                    status.setText("Username already exists");
+                    status.setForeground(new Color(200, 0, 0));
+                } else {
+                    status.setText("Registration successful");
+                    status.setForeground(new Color(0, 150, 0));
+                    userField.setText("");
+                    passField.setText("");
+                    
+                    System.out.println("User registered: " + username);
+                }
+            }));
         } else {
             status.setText("Please fill in all fields");
             status.setForeground(new Color(200, 0, 0));
@@ -273,7 +256,7 @@ public class LoginPage extends JPanel {
     }
     
     /**
-     * Show scores for a specific user
+     * Show scores for a specific user, or the leaderboard of all users
      */
     private void showScoresDialog() {
         JFrame scoresFrame = new JFrame("View Player Scores");
@@ -309,17 +292,33 @@ public class LoginPage extends JPanel {
             if (username.isEmpty()) {
                 scoresArea.setText("Please enter a username.");
             } else {
-                String scores = ScoreManager.getFormattedScores(username);
-                scoresArea.setText(scores);
-                scoresArea.setCaretPosition(0);
+                // Load in the background; the disk may still be busy saving the last game
+                scoresArea.setText("Loading scores...");
+                ScoreManager.getFormattedScoresAsync(username).thenAccept(scores ->
+                    SwingUtilities.invokeLater(() -> {
+                        scoresArea.setText(scores);
+                        scoresArea.setCaretPosition(0);
+                    }));
             }
         });
         
         // Allow Enter key to search
         usernameField.addActionListener(e -> searchButton.doClick());
         
+        // Leaderboard button shows the best scores across all users
+        JButton leaderboardButton = new JButton("Leaderboard");
+        leaderboardButton.addActionListener(e -> {
+            scoresArea.setText("Loading leaderboard...");
+            ScoreManager.getFormattedLeaderboardAsync().thenAccept(leaderboard ->
+                SwingUtilities.invokeLater(() -> {
+                    scoresArea.setText(leaderboard);
+                    scoresArea.setCaretPosition(0);
+                }));
+        });
+        
         panel.add(searchPanel, BorderLayout.NORTH);
         panel.add(scrollPane, BorderLayout.CENTER);
+        panel.add(leaderboardButton, BorderLayout.SOUTH);
         
         scoresFrame.setContentPane(panel);
         scoresFrame.setVisible(true);
@@ -1,27 +1,99 @@
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * ScoreManager - Manages saving and loading player scores.
  * 
- * Each player's scores are stored in a separate file named after their username.
- * Each score entry includes the score value, date, and time.
+ * Each player's scores are stored in a separate binary file named after their
+ * username. Each score entry includes the score value and the time it was set.
+ * 
+ * File layout (big-endian):
+ * - Header: magic, version, count, max, min, sum, then the player's best
+ *   TOP_SCORES scores (count, then score/time pairs, highest first)
+ * - Records: one fixed-width (int score, long epoch millis) entry per game,
+ *   in the order the games were played
+ * 
+ * Because the header keeps the statistics and best scores up to date, they
+ * can be read without touching the records. Long histories are read
+ * through a ScoreReader, which maps the file into memory and reads scores in
+ * place instead of copying them into objects. Old "score | timestamp" text
+ * files are migrated to the binary format the first time they're seen.
+ * 
+ * Every saved score is also added to a global Leaderboard, which ranks
+ * scores across all players.
+ * 
+ * Converting old files and loading (or rebuilding) the leaderboard touches
+ * every score file, so it is done once, off the Swing thread: preload() starts
+ * it in the background at startup, and otherwise the first background save
+ * or score view does it. The score views shown in the UI are asynchronous too.
  */
 public class ScoreManager {
     
     private static final String SCORES_DIRECTORY = "scores";
-    private static final String FILE_EXTENSION = ".txt";
+    private static final String FILE_EXTENSION = ".scores";
+    private static final String TEXT_FILE_EXTENSION = ".txt";
+    private static final String MIGRATED_EXTENSION = ".migrated";
+    private static final String LEADERBOARD_FILE = "leaderboard.dat";
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
+    // Binary format
+    private static final int MAGIC = 0x47525343;  // "GRSC"
+    private static final int VERSION = 1;
+    public static final int TOP_SCORES = 10;  // Best scores kept in the header
+    private static final int RECORD_SIZE = 4 + 8;  // int score, long time
+    private static final int HEADER_SIZE = 4 + 4 + 4 + 4 + 4 + 8 + 4 + TOP_SCORES * RECORD_SIZE;
+    private static final int MAP_THRESHOLD = 64 * 1024;  // Smaller files are just read into memory
+    
+    // Ranking of scores across all players (null until initialize() has run)
+    private static Leaderboard leaderboard;
+    private static volatile boolean initialized = false;
+    
+    // Saves scores in the background for saveScoreAsync()
+    private static final ScoreWriter scoreWriter = new ScoreWriter();
+    
+    /**
+     * Start creating the scores directory, converting old text score files,
+     * and loading the leaderboard on a background thread
+     * 
+     * @return A future that completes once the scores are ready to use
+     */
+    public static CompletableFuture<Void> preload() {
+        return CompletableFuture.runAsync(ScoreManager::initialize);
+    }
+    
     /**
-     * Static initializer to create the scores directory if it doesn't exist
+     * Create the scores directory if it doesn't exist, convert any old text
+     * score files, and load the leaderboard, unless that has been done already.
+     * Touches every score file the first time, so never call it on the Swing thread.
      */
-    static {
-        File scoreDir = new File(SCORES_DIRECTORY);
-        if (!scoreDir.exists()) {
-            scoreDir.mkdir();
+    private static void initialize() {
+        if (initialized) {
+            return;
+        }
+        synchronized (ScoreManager.class) {
+            if (!initialized) {
+                File scoreDir = new File(SCORES_DIRECTORY);
+                if (!scoreDir.exists()) {
+                    scoreDir.mkdir();
+                }
+                convertTextScores();
+                leaderboard = loadLeaderboard();
+                initialized = true;
+            }
         }
     }
     
@@ -32,125 +104,698 @@ public class ScoreManager {
      * @param score The score achieved
      */
     public static void saveScore(String username, int score) {
+        ArrayList<ScoreEntry> entries = new ArrayList<>(1);
+        entries.add(new ScoreEntry(score, System.currentTimeMillis()));
         try {
-            File scoreFile = new File(SCORES_DIRECTORY + File.separator + username + FILE_EXTENSION);
-            FileWriter fw = new FileWriter(scoreFile, true);
-            
-            // Format: score | date | time
-            String timestamp = LocalDateTime.now().format(DATE_FORMAT);
-            String scoreEntry = score + " | " + timestamp + "\n";
-            
-            fw.write(scoreEntry);
-            fw.close();
-            
-            System.out.println("Score saved for " + username + ": " + score);
+            appendScores(username, entries);
+            saveLeaderboard();
         } catch (IOException e) {
             System.out.println("Error saving score: " + e.getMessage());
         }
     }
     
+    /**
+     * Save a player's score on the background score writer, without waiting for the disk
+     * 
+     * @param username The player's username
+     * @param score The score achieved
+     * @return A future that completes once the score has been written and synced
+     */
+    public static CompletableFuture<Void> saveScoreAsync(String username, int score) {
+        return scoreWriter.submit(username, score);
+    }
+    
+    /**
+     * Get the background score writer
+     * 
+     * @return The score writer used by saveScoreAsync()
+     */
+    public static ScoreWriter getScoreWriter() {
+        return scoreWriter;
+    }
+    
+    /**
+     * Run a score view on a background thread once the writer has saved every
+     * score queued so far, so a view shown right after a game includes that game
+     * 
+     * @param view Builds the view
+     * @return A future that completes with the view
+     */
+    private static CompletableFuture<String> afterPendingScores(Supplier<String> view) {
+        return scoreWriter.flush().handleAsync((flushed, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                System.out.println("Error waiting for scores to save: " + cause.getMessage());
+            }
+            return view.get();
+        });
+    }
+    
+    /**
+     * Append scores to a player's score file with a single open, update the
+     * header, and sync the file to disk. The scores are also added to the
+     * leaderboard, which the caller saves with saveLeaderboard().
+     * 
+     * @param username The player's username
+     * @param entries The scores to append, oldest first
+     * @throws IOException If the file can't be written
+     */
+    static synchronized void appendScores(String username, ArrayList<ScoreEntry> entries) throws IOException {
+        initialize();
+        try (RandomAccessFile file = new RandomAccessFile(getScoreFile(username), "rw")) {
+            ScoreHeader header = new ScoreHeader();
+            if (file.length() > 0) {
+                byte[] headerBytes = new byte[HEADER_SIZE];
+                file.readFully(headerBytes);
+                header = readHeader(ByteBuffer.wrap(headerBytes));
+            }
+            
+            // Append the records, then update the header to include them
+            ByteArrayOutputStream records = new ByteArrayOutputStream(entries.size() * RECORD_SIZE);
+            DataOutputStream recordOut = new DataOutputStream(records);
+            for (ScoreEntry entry : entries) {
+                writeEntry(recordOut, entry);
+                header.add(entry);
+            }
+            file.seek(HEADER_SIZE + (long) (header.count - entries.size()) * RECORD_SIZE);
+            file.write(records.toByteArray());
+            file.seek(0);
+            writeHeader(file, header);
+            file.getFD().sync();
+        }
+        
+        for (ScoreEntry entry : entries) {
+            System.out.println("Score saved for " + username + ": " + entry.score);
+            leaderboard.add(username, entry.score, entry.time);
+        }
+    }
+    
+    /**
+     * Save the leaderboard after scores have been added to it
+     */
+    static void saveLeaderboard() {
+        initialize();
+        try {
+            leaderboard.save();
+        } catch (IOException e) {
+            System.out.println("Error saving leaderboard: " + e.getMessage());
+        }
+    }
+    
     /**
      * Load all scores for a specific player
      * 
      * @param username The player's username
-     * @return ArrayList of score strings, or empty list if file doesn't exist
+     * @return ArrayList of score entries in the order they were played, or empty list if file doesn't exist
+     */
+    public static ArrayList<ScoreEntry> loadScores(String username) {
+        ScoreReader reader = openScores(username);
+        ArrayList<ScoreEntry> scores = new ArrayList<>(reader.getCount());
+        reader.forEach((score, time) -> scores.add(new ScoreEntry(score, time)));
+        return scores;
+    }
+    
+    /**
+     * Open a player's scores for reading in place. Large files are memory-mapped,
+     * so reading them doesn't copy the history onto the heap.
+     * 
+     * @param username The player's username
+     * @return A reader over the player's scores, with a count of 0 if they have none
+     */
+    public static ScoreReader openScores(String username) {
+        initialize();
+        return readScores(username);
+    }
+    
+    /**
+     * Open a player's scores for reading in place, without waiting for initialize()
      */
-    public static ArrayList<String> loadScores(String username) {
-        ArrayList<String> scores = new ArrayList<>();
+    private static ScoreReader readScores(String username) {
+        File scoreFile = getScoreFile(username);
+        
+        if (!scoreFile.exists()) {
+            System.out.println("No score file found for user: " + username);
+            return new ScoreReader(new ScoreHeader(), ByteBuffer.allocate(0));
+        }
         
         try {
-            File scoreFile = new File(SCORES_DIRECTORY + File.separator + username + FILE_EXTENSION);
-            
-            if (!scoreFile.exists()) {
-                System.out.println("No score file found for user: " + username);
-                return scores;
+            ByteBuffer buffer;
+            if (scoreFile.length() >= MAP_THRESHOLD) {
+                try (FileChannel channel = FileChannel.open(scoreFile.toPath(), StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            } else {
+                buffer = ByteBuffer.wrap(Files.readAllBytes(scoreFile.toPath()));
             }
             
-            BufferedReader br = new BufferedReader(new FileReader(scoreFile));
-            String line;
+            ScoreHeader header = readHeader(buffer);
+            buffer.position(HEADER_SIZE);
+            ByteBuffer records = buffer.slice();
             
-            while ((line = br.readLine()) != null) {
-                if (!line.trim().isEmpty()) {
-                    scores.add(line.trim());
-                }
+            // Ignore a partly written last record
+            int available = records.remaining() / RECORD_SIZE;
+            if (available < header.count) {
+                System.out.println("Score file for " + username + " is missing "
+                    + (header.count - available) + " records");
+                header.count = available;
             }
-            br.close();
-            
+            return new ScoreReader(header, records);
         } catch (IOException e) {
             System.out.println("Error loading scores: " + e.getMessage());
+            return new ScoreReader(new ScoreHeader(), ByteBuffer.allocate(0));
         }
-        
-        return scores;
+    }
+    
+    /**
+     * Get a player's score statistics, read from the file header only
+     * 
+     * @param username The player's username
+     * @return The statistics, with a count of 0 if the player has no scores
+     */
+    public static ScoreStats getStats(String username) {
+        ScoreHeader header = loadHeader(username);
+        return new ScoreStats(header.count, header.max, header.min, header.sum);
+    }
+    
+    /**
+     * Get a player's best scores, highest first, read from the file header only
+     * 
+     * @param username The player's username
+     * @param n How many scores to return (at most TOP_SCORES)
+     * @return The best scores, or fewer if the player hasn't played n games
+     */
+    public static ArrayList<ScoreEntry> getTopScores(String username, int n) {
+        ScoreHeader header = loadHeader(username);
+        int count = Math.min(n, header.topCount);
+        ArrayList<ScoreEntry> top = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            top.add(header.top[i]);
+        }
+        return top;
+    }
+    
+    /**
+     * Get formatted score display for a player in the background, once any
+     * scores still being saved are on disk
+     * 
+     * @param username The player's username
+     * @return A future that completes with the getFormattedScores() text
+     */
+    public static CompletableFuture<String> getFormattedScoresAsync(String username) {
+        return afterPendingScores(() -> getFormattedScores(username));
     }
     
     /**
      * Get formatted score display for a player
-     * Shows all scores with ranking
+     * Shows all scores with ranking. Reads the player's file, so call
+     * getFormattedScoresAsync() from the Swing thread instead.
      * 
      * @param username The player's username
      * @return Formatted string of all scores, or message if no scores exist
      */
     public static String getFormattedScores(String username) {
-        ArrayList<String> scores = loadScores(username);
+        ScoreReader reader = openScores(username);
+        int count = reader.getCount();
         
-        if (scores.isEmpty()) {
+        if (count == 0) {
             return "No scores found for user: " + username;
         }
         
         StringBuilder sb = new StringBuilder();
         sb.append("=== Score History for ").append(username).append(" ===\n\n");
         
-        // Parse scores and sort them in descending order
-        ArrayList<ScoreEntry> entries = new ArrayList<>();
-        for (String scoreStr : scores) {
-            String[] parts = scoreStr.split(" \\| ");
-            if (parts.length == 2) {
-                try {
-                    int scoreValue = Integer.parseInt(parts[0].trim());
-                    String timestamp = parts[1].trim();
-                    entries.add(new ScoreEntry(scoreValue, timestamp));
-                } catch (NumberFormatException e) {
-                    System.out.println("Error parsing score: " + scoreStr);
-                }
-            }
+        // Sort by score descending (ties stay in the order they were played).
+        // Each key packs the inverted score above the record index, so sorting
+        // plain longs ranks the games without creating an object per score.
+        long[] ranking = new long[count];
+        for (int i = 0; i < count; i++) {
+            ranking[i] = ((long) ~reader.getScore(i) << 32) | i;
         }
-        
-        // Sort by score descending
-        entries.sort((a, b) -> Integer.compare(b.score, a.score));
+        Arrays.sort(ranking);
         
         // Display scores with ranking
-        for (int i = 0; i < entries.size(); i++) {
-            ScoreEntry entry = entries.get(i);
-            sb.append(String.format("#%d: %d points - %s\n", 
-                i + 1, entry.score, entry.timestamp));
+        for (int rank = 0; rank < count; rank++) {
+            int i = (int) ranking[rank];
+            sb.append('#').append(rank + 1).append(": ").append(reader.getScore(i)).append(" points - ")
+              .append(formatTime(reader.getTime(i))).append('\n');
         }
         
         // Show statistics
-        if (!entries.isEmpty()) {
-            int maxScore = entries.get(0).score;
-            int minScore = entries.get(entries.size() - 1).score;
-            double avgScore = entries.stream().mapToInt(e -> e.score).average().orElse(0);
-            
-            sb.append("\n--- Statistics ---\n");
-            sb.append(String.format("Total Games: %d\n", entries.size()));
-            sb.append(String.format("Highest Score: %d\n", maxScore));
-            sb.append(String.format("Lowest Score: %d\n", minScore));
-            sb.append(String.format("Average Score: %.1f\n", avgScore));
+        ScoreStats stats = reader.getStats();
+        sb.append("\n--- Statistics ---\n");
+        sb.append(String.format("Total Games: %d\n", stats.count));
+        sb.append(String.format("Highest Score: %d\n", stats.max));
+        sb.append(String.format("Lowest Score: %d\n", stats.min));
+        sb.append(String.format("Average Score: %.1f\n", stats.getAverage()));
+        int rank = leaderboard.getRank(username);
+        if (rank > 0) {
+            sb.append(String.format("Leaderboard Rank: #%d of %d players\n", rank, leaderboard.getPlayerCount()));
         }
         
         return sb.toString();
     }
     
     /**
-     * Inner class to represent a score entry
+     * Get the global leaderboard
+     * 
+     * @return The leaderboard of all players' scores
+     */
+    public static Leaderboard getLeaderboard() {
+        initialize();
+        return leaderboard;
+    }
+    
+    /**
+     * Get formatted leaderboard display in the background, once any scores
+     * still being saved are on disk
+     * 
+     * @return A future that completes with the getFormattedLeaderboard() text
+     */
+    public static CompletableFuture<String> getFormattedLeaderboardAsync() {
+        return afterPendingScores(ScoreManager::getFormattedLeaderboard);
+    }
+    
+    /**
+     * Get formatted leaderboard display: the best scores of all time and of today
+     * 
+     * @return Formatted string of the leaderboard
+     */
+    public static String getFormattedLeaderboard() {
+        initialize();
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== Leaderboard ===\n\n");
+        appendLeaderboard(sb, "Top " + Leaderboard.TOP_K + " of All Time",
+            leaderboard.getTopAllTime(Leaderboard.TOP_K));
+        sb.append('\n');
+        appendLeaderboard(sb, "Top " + Leaderboard.TOP_K + " Today",
+            leaderboard.getTopToday(Leaderboard.TOP_K));
+        return sb.toString();
+    }
+    
+    /**
+     * Append one ranked list of leaderboard entries
+     */
+    private static void appendLeaderboard(StringBuilder sb, String title, ArrayList<Leaderboard.Entry> entries) {
+        sb.append("--- ").append(title).append(" ---\n");
+        if (entries.isEmpty()) {
+            sb.append("No scores yet\n");
+        }
+        for (int i = 0; i < entries.size(); i++) {
+            Leaderboard.Entry entry = entries.get(i);
+            sb.append(String.format("#%d: %s - %d points - %s\n",
+                i + 1, entry.username, entry.score, formatTime(entry.time)));
+        }
+    }
+    
+    /**
+     * Convert every old "score | timestamp" text file in the scores directory to
+     * the binary format. Each converted file is renamed with a ".migrated"
+     * extension so it's only converted once.
      */
-    private static class ScoreEntry {
-        int score;
-        String timestamp;
+    public static void migrateTextScores() {
+        initialize();
+        convertTextScores();
+    }
+    
+    /**
+     * Convert the old text score files (see migrateTextScores()), adding them to
+     * the leaderboard if it has been loaded already
+     */
+    private static void convertTextScores() {
+        File[] textFiles = new File(SCORES_DIRECTORY).listFiles(
+            (dir, name) -> name.endsWith(TEXT_FILE_EXTENSION));
+        if (textFiles == null) {
+            return;
+        }
+        
+        boolean migrated = false;
+        for (File textFile : textFiles) {
+            String name = textFile.getName();
+            String username = name.substring(0, name.length() - TEXT_FILE_EXTENSION.length());
+            File scoreFile = getScoreFile(username);
+            if (scoreFile.exists()) {
+                System.out.println("Not migrating " + name + ": " + scoreFile.getName() + " already exists");
+                continue;
+            }
+            
+            try {
+                ScoreHeader header = new ScoreHeader();
+                ByteArrayOutputStream records = new ByteArrayOutputStream();
+                DataOutputStream recordOut = new DataOutputStream(records);
+                
+                try (BufferedReader br = new BufferedReader(new FileReader(textFile))) {
+                    String line;
+                    while ((line = br.readLine()) != null) {
+                        ScoreEntry entry = parseTextEntry(line.trim());
+                        if (entry != null) {
+                            writeEntry(recordOut, entry);
+                            header.add(entry);
+                        }
+                    }
+                }
+                
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(scoreFile)))) {
+                    writeHeader(out, header);
+                    records.writeTo(out);
+                }
+                
+                if (!textFile.renameTo(new File(textFile.getPath() + MIGRATED_EXTENSION))) {
+                    System.out.println("Could not rename migrated score file: " + name);
+                }
+                System.out.println("Migrated " + header.count + " scores for " + username);
+                
+                // Before the leaderboard is loaded, it is rebuilt from the score files instead
+                if (leaderboard != null) {
+                    addPlayerToLeaderboard(leaderboard, username);
+                    migrated = true;
+                }
+            } catch (IOException e) {
+                System.out.println("Error migrating scores: " + e.getMessage());
+            }
+        }
+        
+        if (migrated) {
+            saveLeaderboard();
+        }
+    }
+    
+    /**
+     * Load the leaderboard, or rebuild it from every player's score file if it
+     * is missing or unreadable
+     * 
+     * @return The leaderboard
+     */
+    private static Leaderboard loadLeaderboard() {
+        File file = new File(SCORES_DIRECTORY + File.separator + LEADERBOARD_FILE);
+        if (file.exists()) {
+            try {
+                return Leaderboard.load(file);
+            } catch (IOException e) {
+                System.out.println("Error loading leaderboard, rebuilding it: " + e.getMessage());
+            }
+        }
+        
+        Leaderboard rebuilt = new Leaderboard(file);
+        File[] scoreFiles = new File(SCORES_DIRECTORY).listFiles(
+            (dir, name) -> name.endsWith(FILE_EXTENSION));
+        if (scoreFiles != null) {
+            for (File scoreFile : scoreFiles) {
+                String name = scoreFile.getName();
+                addPlayerToLeaderboard(rebuilt, name.substring(0, name.length() - FILE_EXTENSION.length()));
+            }
+        }
+        try {
+            rebuilt.save();
+        } catch (IOException e) {
+            System.out.println("Error saving leaderboard: " + e.getMessage());
+        }
+        return rebuilt;
+    }
+    
+    /**
+     * Add every score in a player's file to a leaderboard (without saving it)
+     */
+    private static void addPlayerToLeaderboard(Leaderboard board, String username) {
+        readScores(username).forEach((score, time) -> board.add(username, score, time));
+    }
+    
+    /**
+     * Parse one line of an old text score file
+     * 
+     * @param line A "score | yyyy-MM-dd HH:mm:ss" line
+     * @return The entry, or null if the line is blank or can't be parsed
+     */
+    private static ScoreEntry parseTextEntry(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        String[] parts = line.split(" \\| ");
+        if (parts.length == 2) {
+            try {
+                int scoreValue = Integer.parseInt(parts[0].trim());
+                long time = LocalDateTime.parse(parts[1].trim(), DATE_FORMAT)
+                    .atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                return new ScoreEntry(scoreValue, time);
+            } catch (NumberFormatException | DateTimeParseException e) {
+                System.out.println("Error parsing score: " + line);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Format a score's time for display
+     * 
+     * @param time Epoch milliseconds
+     * @return The time as "yyyy-MM-dd HH:mm:ss" in the local time zone
+     */
+    private static String formatTime(long time) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault())
+            .format(DATE_FORMAT);
+    }
+    
+    /**
+     * Get the score file for a player
+     */
+    private static File getScoreFile(String username) {
+        return new File(SCORES_DIRECTORY + File.separator + username + FILE_EXTENSION);
+    }
+    
+    /**
+     * Read just the header of a player's score file
+     * 
+     * @param username The player's username
+     * @return The header, or an empty header if the player has no scores
+     */
+    private static ScoreHeader loadHeader(String username) {
+        initialize();
+        File scoreFile = getScoreFile(username);
+        if (!scoreFile.exists()) {
+            return new ScoreHeader();
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(scoreFile))) {
+            byte[] headerBytes = new byte[HEADER_SIZE];
+            in.readFully(headerBytes);
+            return readHeader(ByteBuffer.wrap(headerBytes));
+        } catch (IOException e) {
+            System.out.println("Error loading scores: " + e.getMessage());
+            return new ScoreHeader();
+        }
+    }
+    
+    /**
+     * Read a header from the start of a score file
+     */
+    private static ScoreHeader readHeader(ByteBuffer in) throws IOException {
+        if (in.remaining() < HEADER_SIZE || in.getInt() != MAGIC) {
+            throw new IOException("Not a score file");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported score file version " + version);
+        }
+        ScoreHeader header = new ScoreHeader();
+        header.count = in.getInt();
+        header.max = in.getInt();
+        header.min = in.getInt();
+        header.sum = in.getLong();
+        header.topCount = in.getInt();
+        for (int i = 0; i < TOP_SCORES; i++) {
+            ScoreEntry entry = new ScoreEntry(in.getInt(), in.getLong());
+            if (i < header.topCount) {
+                header.top[i] = entry;
+            }
+        }
+        return header;
+    }
+    
+    /**
+     * Write a header (always HEADER_SIZE bytes)
+     */
+    private static void writeHeader(DataOutput out, ScoreHeader header) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(header.count);
+        out.writeInt(header.max);
+        out.writeInt(header.min);
+        out.writeLong(header.sum);
+        out.writeInt(header.topCount);
+        for (int i = 0; i < TOP_SCORES; i++) {
+            ScoreEntry entry = header.top[i];
+            out.writeInt(entry == null ? 0 : entry.score);
+            out.writeLong(entry == null ? 0 : entry.time);
+        }
+    }
+    
+    /**
+     * Write one fixed-width score record
+     */
+    private static void writeEntry(DataOutput out, ScoreEntry entry) throws IOException {
+        out.writeInt(entry.score);
+        out.writeLong(entry.time);
+    }
+    
+    /**
+     * A single saved score
+     */
+    public static class ScoreEntry {
+        public final int score;
+        public final long time;  // Epoch milliseconds
         
-        ScoreEntry(int score, String timestamp) {
+        ScoreEntry(int score, long time) {
             this.score = score;
-            this.timestamp = timestamp;
+            this.time = time;
+        }
+        
+        /**
+         * Get the time the score was set, formatted for display
+         * 
+         * @return The time as "yyyy-MM-dd HH:mm:ss" in the local time zone
+         */
+        public String getFormattedTimestamp() {
+            return formatTime(time);
+        }
+    }
+    
+    /**
+     * Reads a player's scores in place from a (usually memory-mapped) score file.
+     * Nothing is allocated per score, so memory use doesn't grow with the
+     * length of the history.
+     */
+    public static class ScoreReader {
+        
+        /**
+         * Callback for forEach(), given each score as primitives
+         */
+        public interface EntryConsumer {
+            void accept(int score, long time);
+        }
+        
+        private final ScoreHeader header;
+        private final ByteBuffer records;  // Starts at the first record
+        
+        ScoreReader(ScoreHeader header, ByteBuffer records) {
+            this.header = header;
+            this.records = records;
+        }
+        
+        /**
+         * Get the number of scores
+         * 
+         * @return The number of games played
+         */
+        public int getCount() {
+            return header.count;
+        }
+        
+        /**
+         * Get a score by the order it was played in
+         * 
+         * @param i Index of the game, from 0 (oldest)
+         * @return The score
+         */
+        public int getScore(int i) {
+            return records.getInt(i * RECORD_SIZE);
+        }
+        
+        /**
+         * Get the time a score was set
+         * 
+         * @param i Index of the game, from 0 (oldest)
+         * @return The time in epoch milliseconds
+         */
+        public long getTime(int i) {
+            return records.getLong(i * RECORD_SIZE + 4);
+        }
+        
+        /**
+         * Pass every score to an action, oldest first
+         * 
+         * @param action Receives each score and its time
+         */
+        public void forEach(EntryConsumer action) {
+            for (int i = 0; i < header.count; i++) {
+                action.accept(getScore(i), getTime(i));
+            }
+        }
+        
+        /**
+         * Get every score as a stream, oldest first
+         * 
+         * @return A stream of the score values
+         */
+        public IntStream scores() {
+            return IntStream.range(0, header.count).map(this::getScore);
+        }
+        
+        /**
+         * Get the statistics stored in the file header
+         * 
+         * @return The statistics
+         */
+        public ScoreStats getStats() {
+            return new ScoreStats(header.count, header.max, header.min, header.sum);
+        }
+    }
+    
+    /**
+     * Summary statistics for a player's scores
+     */
+    public static class ScoreStats {
+        public final int count;
+        public final int max;
+        public final int min;
+        public final long sum;
+        
+        ScoreStats(int count, int max, int min, long sum) {
+            this.count = count;
+            this.max = max;
+            this.min = min;
+            this.sum = sum;
+        }
+        
+        /**
+         * Get the average score
+         * 
+         * @return The average, or 0 if there are no scores
+         */
+        public double getAverage() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+    
+    /**
+     * Inner class holding a score file's header
+     */
+    private static class ScoreHeader {
+        int count = 0;
+        int max = 0;
+        int min = 0;
+        long sum = 0;
+        int topCount = 0;
+        ScoreEntry[] top = new ScoreEntry[TOP_SCORES];  // Highest first
+        
+        /**
+         * Include a new score in the statistics and best scores
+         */
+        void add(ScoreEntry entry) {
+            max = count == 0 ? entry.score : Math.max(max, entry.score);
+            min = count == 0 ? entry.score : Math.min(min, entry.score);
+            count++;
+            sum += entry.score;
+            
+            // Insert after any equal scores so earlier games rank first on ties
+            int position = topCount;
+            while (position > 0 && top[position - 1].score < entry.score) {
+                position--;
+            }
+            if (position < TOP_SCORES) {
+                int last = Math.min(topCount, TOP_SCORES - 1);
+                System.arraycopy(top, position, top, position + 1, last - position);
+                top[position] = entry;
+                topCount = Math.min(topCount + 1, TOP_SCORES);
+            }
         }
     }
 }
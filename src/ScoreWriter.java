@@ -0,0 +1,207 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ScoreWriter - Saves scores on a background thread so the UI never waits on the disk.
+ *
+ * Scores go into a bounded queue. A single writer thread takes everything
+ * queued since its last write as one batch, appends each player's scores
+ * with one file open, and syncs each file to disk once per batch (group
+ * commit). Every submitted score gets a future that completes once the score
+ * is safely on disk.
+ *
+ * The writer thread starts with the first score. When the program exits, a
+ * shutdown hook writes anything still queued. A score that can't be written
+ * fails its own future; the thread keeps going for the scores after it.
+ */
+public class ScoreWriter {
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    /**
+     * A score waiting to be written, or (with a null username) a flush marker
+     */
+    private static class Request {
+        final String username;
+        final ScoreManager.ScoreEntry entry;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Request(String username, ScoreManager.ScoreEntry entry) {
+            this.username = username;
+            this.entry = entry;
+        }
+    }
+
+    // Marks the end of the queue when shutting down
+    private static final Request STOP = new Request(null, null);
+
+    private final BlockingQueue<Request> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private Thread writerThread;
+    private volatile boolean shutDown = false;
+
+    // Counters (only written by the writer thread)
+    private volatile long scoresWritten = 0;
+    private volatile long batchesWritten = 0;
+
+    /**
+     * Queue a score to be saved.
+     * Blocks only if QUEUE_CAPACITY scores are already waiting.
+     *
+     * @param username The player's username
+     * @param score The score achieved
+     * @return A future that completes when the score has been written and synced
+     */
+    public CompletableFuture<Void> submit(String username, int score) {
+        return enqueue(new Request(username, new ScoreManager.ScoreEntry(score, System.currentTimeMillis())));
+    }
+
+    /**
+     * Get a future that completes once every score queued so far has been written.
+     *
+     * @return A future for the flush
+     */
+    public CompletableFuture<Void> flush() {
+        synchronized (this) {
+            if (writerThread == null) {
+                return CompletableFuture.completedFuture(null);  // Nothing has been queued yet
+            }
+        }
+        return enqueue(new Request(null, null));
+    }
+
+    /**
+     * Stop accepting scores, write everything still queued, and stop the writer thread.
+     */
+    public void shutdown() {
+        Thread thread;
+        synchronized (this) {
+            if (shutDown) {
+                return;
+            }
+            shutDown = true;
+            thread = writerThread;
+        }
+        if (thread == null) {
+            return;
+        }
+        try {
+            queue.put(STOP);
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Getters for the counters
+    public int getPendingCount() { return queue.size(); }
+    public long getScoresWritten() { return scoresWritten; }
+    public long getBatchesWritten() { return batchesWritten; }
+
+    /**
+     * Add a request to the queue, starting the writer thread if needed.
+     */
+    private CompletableFuture<Void> enqueue(Request request) {
+        // The put happens under the same lock as the shutDown check, so every
+        // accepted request is queued before shutdown() can queue STOP. Waiting
+        // for room here can't deadlock: the writer thread never takes this lock.
+        synchronized (this) {
+            if (shutDown) {
+                request.done.completeExceptionally(new IllegalStateException("Score writer is shut down"));
+                return request.done;
+            }
+            if (writerThread == null) {
+                writerThread = new Thread(this::run, "GoldRush-ScoreWriter");
+                writerThread.setDaemon(true);
+                writerThread.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "GoldRush-ScoreWriter-Shutdown"));
+            }
+            try {
+                queue.put(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                request.done.completeExceptionally(e);
+            }
+        }
+        return request.done;
+    }
+
+    /**
+     * Writer thread loop: wait for a request, then write it and everything queued behind it.
+     */
+    private void run() {
+        ArrayList<Request> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                // Keep going; only STOP ends the writer
+                continue;
+            }
+            queue.drainTo(batch);
+            stopping = batch.remove(STOP);
+            try {
+                writeBatch(batch);
+            } catch (Throwable e) {
+                // Never leave a caller waiting on a future the thread can't complete
+                System.out.println("Error saving scores: " + e);
+                for (Request request : batch) {
+                    request.done.completeExceptionally(e);
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Write one batch: each player's scores in one append, one sync per file,
+     * and one leaderboard save.
+     */
+    private void writeBatch(ArrayList<Request> batch) {
+        LinkedHashMap<String, ArrayList<Request>> byPlayer = new LinkedHashMap<>();
+        for (Request request : batch) {
+            if (request.username != null) {
+                byPlayer.computeIfAbsent(request.username, name -> new ArrayList<>()).add(request);
+            }
+        }
+
+        for (String username : byPlayer.keySet()) {
+            ArrayList<Request> requests = byPlayer.get(username);
+            ArrayList<ScoreManager.ScoreEntry> entries = new ArrayList<>(requests.size());
+            for (Request request : requests) {
+                entries.add(request.entry);
+            }
+            try {
+                ScoreManager.appendScores(username, entries);
+                scoresWritten += entries.size();
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Error saving score: " + e);
+                for (Request request : requests) {
+                    request.done.completeExceptionally(e);
+                }
+            }
+        }
+        if (!byPlayer.isEmpty()) {
+            try {
+                ScoreManager.saveLeaderboard();
+            } catch (RuntimeException e) {
+                System.out.println("Error saving leaderboard: " + e);
+                for (ArrayList<Request> requests : byPlayer.values()) {
+                    for (Request request : requests) {
+                        request.done.completeExceptionally(e);
+                    }
+                }
+            }
+            batchesWritten++;
+        }
+
+        // Scores (and flush markers) complete in the order they were queued
+        for (Request request : batch) {
+            request.done.complete(null);
+        }
+    }
+}
@@ -6,21 +6,39 @@ import java.awt.*;
  * 
  * Defines common properties such as position, size, velocity, and color.
  * Subclasses must implement the abstract methods to define specific behaviors.
+ * 
+ * Position, velocity, and other per-frame state live in a slot of an EntityStore,
+ * so a ShapeObject is a thin view onto that slot. Objects made with the public
+ * constructor take a new slot in the store they belong to, such as the game's
+ * own store, rather than each getting a store of their own.
+ * 
+ * Collision tests compare squared distances instead of taking a square root.
+ * The squared threshold for each collision range is worked out once and
+ * cached (see squaredReach()), and is chosen so every test gives exactly the
+ * same answer as comparing Math.sqrt(dx * dx + dy * dy) with the range did.
+ * 
+ * Fast objects can pass right through each other between two ticks, so there
+ * is also a swept test (timeOfImpact()) that treats each object as a circle
+ * moving in a straight line from its previous position to its current one,
+ * and finds when during the tick the two first touched.
  */
 public abstract class ShapeObject {
     
-    // Position coordinates (center of the object)
-    protected double x;
-    protected double y;
+    // Squared thresholds for whole-number collision ranges 0..REACH_TABLE_SIZE-1
+    protected static final int REACH_TABLE_SIZE = 512;
+    private static final double[] SQUARED_REACH = squaredReachTable(1);
+    
+    // Returned by timeOfImpact() when two objects never touched during the tick
+    public static final double NO_IMPACT = -1;
+    
+    // Where this object's position and velocity are stored
+    protected final EntityStore store;
+    protected int slot;
     
     // Size of the object
     protected int width;
     protected int height;
     
-    // Velocity - how fast the object moves per frame
-    protected double velocityX;
-    protected double velocityY;
-    
     // Display color
     protected Color color;
     
@@ -31,6 +49,25 @@ public abstract class ShapeObject {
     /**
      * Constructor for ShapeObject.
      * 
+     * @param store The store to keep the object in; its board is the object's board
+     * @param x Initial x-coordinate (center)
+     * @param y Initial y-coordinate (center)
+     * @param width Width of the object
+     * @param height Height of the object
+     * @param velocityX Initial x-velocity
+     * @param velocityY Initial y-velocity
+     * @param color Display color of the object
+     */
+    public ShapeObject(EntityStore store, double x, double y, int width, int height, 
+                       double velocityX, double velocityY, Color color) {
+        this(store, EntityStore.OTHER, x, y, width, height, velocityX, velocityY, color);
+    }
+    
+    /**
+     * Constructor for a new object of a known entity type.
+     * 
+     * @param store The store to keep the object in; its board is the object's board
+     * @param entityType The EntityStore type of the object
      * @param x Initial x-coordinate (center)
      * @param y Initial y-coordinate (center)
      * @param width Width of the object
@@ -38,21 +75,40 @@ public abstract class ShapeObject {
      * @param velocityX Initial x-velocity
      * @param velocityY Initial y-velocity
      * @param color Display color of the object
-     * @param boardWidth Width of the game board
-     * @param boardHeight Height of the game board
-     */
-    public ShapeObject(double x, double y, int width, int height, 
-                       double velocityX, double velocityY, Color color, 
-                       int boardWidth, int boardHeight) {
-        this.x = x;
-        this.y = y;
+     */
+    protected ShapeObject(EntityStore store, byte entityType, double x, double y, int width, int height, 
+                          double velocityX, double velocityY, Color color) {
+        this(store, store.spawn(entityType, x, y, velocityX, velocityY, width, 0), width, height, color);
+    }
+    
+    /**
+     * Constructor for a view onto an entity that already exists in a store.
+     * 
+     * @param store The store holding the entity
+     * @param slot The entity's slot in the store
+     * @param width Width of the object
+     * @param height Height of the object
+     * @param color Display color of the object
+     */
+    protected ShapeObject(EntityStore store, int slot, int width, int height, Color color) {
+        this.store = store;
+        this.slot = slot;
         this.width = width;
         this.height = height;
-        this.velocityX = velocityX;
-        this.velocityY = velocityY;
         this.color = color;
-        this.boardWidth = boardWidth;
-        this.boardHeight = boardHeight;
+        this.boardWidth = store.getBoardWidth();
+        this.boardHeight = store.getBoardHeight();
+    }
+    
+    /**
+     * Point this view at another slot of the same store.
+     * Called by EntityPool when a recycled view is handed out again;
+     * subclasses reset any state they keep outside the store.
+     * 
+     * @param slot The slot to view
+     */
+    protected void reset(int slot) {
+        this.slot = slot;
     }
     
     /**
@@ -60,18 +116,16 @@ public abstract class ShapeObject {
      * Subclasses can override this to implement custom movement patterns.
      */
     public void move() {
-        x += velocityX;
-        y += velocityY;
-        
-        // Bounce off walls
-        if (x - width/2 < 0 || x + width/2 > boardWidth) {
-            velocityX = -velocityX;
-            x = Math.max(width/2, Math.min(x, boardWidth - width/2));
-        }
-        if (y - height/2 < 0 || y + height/2 > boardHeight) {
-            velocityY = -velocityY;
-            y = Math.max(height/2, Math.min(y, boardHeight - height/2));
-        }
+        store.move(slot);
+    }
+    
+    /**
+     * Remember the current position as the start of this tick.
+     * Renderers blend from this position to the current one between ticks.
+     */
+    public void storePreviousPosition() {
+        store.previousX[slot] = store.x[slot];
+        store.previousY[slot] = store.y[slot];
     }
     
     /**
@@ -90,6 +144,8 @@ public abstract class ShapeObject {
      * @return true if the point is within the object's bounds, false otherwise
      */
     public boolean collidesWith(int px, int py) {
+        double x = getX();
+        double y = getY();
         return px >= x - width/2 && px <= x + width/2 &&
                py >= y - height/2 && py <= y + height/2;
     }
@@ -101,25 +157,269 @@ public abstract class ShapeObject {
      * @return true if objects overlap, false otherwise
      */
     public boolean collidesWith(ShapeObject other) {
-        double dx = this.x - other.x;
-        double dy = this.y - other.y;
-        double distance = Math.sqrt(dx * dx + dy * dy);
-        return distance < (this.width/2 + other.width/2);
+        return collidesWith(other.getX(), other.getY(), other.width);
+    }
+    
+    /**
+     * Check if an object at a position collides with this one.
+     * Lets the game test entities in an EntityStore without creating views.
+     * 
+     * @param otherX X-coordinate of the object's center
+     * @param otherY Y-coordinate of the object's center
+     * @param otherWidth Width of the object
+     * @return true if the centers are closer than collisionRange(otherWidth), false otherwise
+     */
+    public boolean collidesWith(double otherX, double otherY, int otherWidth) {
+        return withinReach(getX() - otherX, getY() - otherY,
+                           collisionRange(otherWidth), squaredCollisionRange(otherWidth));
+    }
+    
+    /**
+     * Find when, during the last tick, another object first came within
+     * collision range of this one. Both are taken to have moved in a straight
+     * line from their previous positions to their current ones, so objects
+     * that passed through each other between ticks are still caught.
+     * 
+     * @param otherPreviousX X-coordinate of the other object's center at the start of the tick
+     * @param otherPreviousY Y-coordinate of the other object's center at the start of the tick
+     * @param otherX X-coordinate of the other object's center now
+     * @param otherY Y-coordinate of the other object's center now
+     * @param otherWidth Width of the other object
+     * @return Fraction of the tick (0 to 1) at first contact, or NO_IMPACT
+     */
+    public double timeOfImpact(double otherPreviousX, double otherPreviousY,
+                               double otherX, double otherY, int otherWidth) {
+        return timeOfImpact(getPreviousX() - otherPreviousX, getPreviousY() - otherPreviousY,
+                            getX() - otherX, getY() - otherY,
+                            collisionRange(otherWidth), squaredCollisionRange(otherWidth));
+    }
+    
+    /**
+     * Check whether another object came within collision range of this one at
+     * any point during the last tick (see timeOfImpact()). Anything that
+     * collidesWith() this object now is included.
+     * 
+     * @param otherPreviousX X-coordinate of the other object's center at the start of the tick
+     * @param otherPreviousY Y-coordinate of the other object's center at the start of the tick
+     * @param otherX X-coordinate of the other object's center now
+     * @param otherY Y-coordinate of the other object's center now
+     * @param otherWidth Width of the other object
+     * @return true if the two touched during the tick, false otherwise
+     */
+    public boolean sweptCollidesWith(double otherPreviousX, double otherPreviousY,
+                                     double otherX, double otherY, int otherWidth) {
+        return timeOfImpact(otherPreviousX, otherPreviousY, otherX, otherY, otherWidth) != NO_IMPACT;
+    }
+    
+    /**
+     * Test this object against a batch of candidates whose positions and
+     * widths are stored side by side in arrays, such as an EntityStore's.
+     * The threshold is only looked up again when the width changes.
+     * 
+     * @param xs X-coordinates of candidate centers, indexed by slot
+     * @param ys Y-coordinates of candidate centers, indexed by slot
+     * @param widths Candidate widths, indexed by slot
+     * @param slots The slots to test
+     * @param count Number of slots to test
+     * @param hits Filled with the slots that collide, in the order tested
+     * @return Number of slots written to hits
+     */
+    public int findCollisions(double[] xs, double[] ys, int[] widths, int[] slots, int count, int[] hits) {
+        double x = getX();
+        double y = getY();
+        int lastWidth = -1;
+        double range = 0;
+        double squaredRange = 0;
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int slot = slots[i];
+            if (widths[slot] != lastWidth) {
+                lastWidth = widths[slot];
+                range = collisionRange(lastWidth);
+                squaredRange = squaredCollisionRange(lastWidth);
+            }
+            if (withinReach(x - xs[slot], y - ys[slot], range, squaredRange)) {
+                hits[found++] = slot;
+            }
+        }
+        return found;
+    }
+    
+    /**
+     * Get how close another object's center must be to this one's to collide.
+     * 
+     * @param otherWidth Width of the other object
+     * @return The collision range
+     */
+    public double collisionRange(int otherWidth) {
+        return width/2 + otherWidth/2;
+    }
+    
+    /**
+     * Get the cached squared threshold for collisionRange(otherWidth).
+     * 
+     * @param otherWidth Width of the other object
+     * @return squaredReach() of the collision range
+     */
+    protected double squaredCollisionRange(int otherWidth) {
+        return squaredReach(SQUARED_REACH, width/2 + otherWidth/2, 1);
+    }
+    
+    /**
+     * Check whether two circles whose sizes add up to a whole-number range overlap,
+     * e.g. two coins in the collision pass.
+     * 
+     * @param dx Difference between the centers' x-coordinates
+     * @param dy Difference between the centers' y-coordinates
+     * @param range Half of one size plus half of the other
+     * @return The same as Math.sqrt(dx * dx + dy * dy) < range
+     */
+    public static boolean overlaps(double dx, double dy, int range) {
+        return withinReach(dx, dy, range, squaredReach(SQUARED_REACH, range, 1));
+    }
+    
+    /**
+     * Find when two circles whose sizes add up to a whole-number range first
+     * touched during a tick, e.g. two coins in the collision pass.
+     * 
+     * @param startDx Difference between the centers' x-coordinates at the start of the tick
+     * @param startDy Difference between the centers' y-coordinates at the start of the tick
+     * @param endDx Difference between the centers' x-coordinates at the end of the tick
+     * @param endDy Difference between the centers' y-coordinates at the end of the tick
+     * @param range Half of one size plus half of the other
+     * @return Fraction of the tick (0 to 1) at first contact, or NO_IMPACT
+     */
+    public static double firstContact(double startDx, double startDy, double endDx, double endDy, int range) {
+        return timeOfImpact(startDx, startDy, endDx, endDy, range, squaredReach(SQUARED_REACH, range, 1));
+    }
+    
+    /**
+     * Check whether an offset is shorter than a range without a square root.
+     * Offsets outside the range's bounding box are rejected first; since
+     * Math.sqrt(x * x) is exactly |x|, that never changes the answer.
+     * 
+     * @param dx X part of the offset
+     * @param dy Y part of the offset
+     * @param range The range
+     * @param squaredRange squaredReach(range)
+     * @return The same as Math.sqrt(dx * dx + dy * dy) < range
+     */
+    public static boolean withinReach(double dx, double dy, double range, double squaredRange) {
+        if (Math.abs(dx) >= range || Math.abs(dy) >= range) {
+            return false;
+        }
+        return dx * dx + dy * dy < squaredRange;
+    }
+    
+    /**
+     * Find when an offset between two centers, changing in a straight line
+     * from its value at the start of a tick to its value at the end, first
+     * becomes shorter than a range. The start and end are decided exactly as
+     * withinReach() decides them, so an offset that is within reach at the end
+     * always has an impact. Moments in between are found by solving
+     * |start + t * (end - start)| = range for the earliest t.
+     * 
+     * @param startDx X part of the offset at the start of the tick
+     * @param startDy Y part of the offset at the start of the tick
+     * @param endDx X part of the offset at the end of the tick
+     * @param endDy Y part of the offset at the end of the tick
+     * @param range The range
+     * @param squaredRange squaredReach(range)
+     * @return Fraction of the tick (0 to 1) at first contact, or NO_IMPACT
+     */
+    public static double timeOfImpact(double startDx, double startDy, double endDx, double endDy,
+                                      double range, double squaredRange) {
+        if (withinReach(startDx, startDy, range, squaredRange)) {
+            return 0;
+        }
+        double moveX = endDx - startDx;
+        double moveY = endDy - startDy;
+        double a = moveX * moveX + moveY * moveY;
+        double halfB = startDx * moveX + startDy * moveY;
+        if (a > 0 && halfB < 0) {  // Only offsets that are getting shorter can reach the range
+            double c = startDx * startDx + startDy * startDy - range * range;
+            double discriminant = halfB * halfB - a * c;
+            if (discriminant >= 0) {
+                double t = (-halfB - Math.sqrt(discriminant)) / a;
+                if (t <= 1) {
+                    return Math.max(0, t);
+                }
+            }
+        }
+        return withinReach(endDx, endDy, range, squaredRange) ? 1 : NO_IMPACT;
+    }
+    
+    /**
+     * Get the squared-distance threshold for a range: the smallest value whose
+     * square root is at least the range. Because Math.sqrt never decreases,
+     * d < squaredReach(range) is true for exactly the same d as
+     * Math.sqrt(d) < range. This is range * range, or within a few ulps of it
+     * when the square root of a value just below range * range rounds up to range.
+     * 
+     * @param range The range
+     * @return The threshold to compare squared distances with
+     */
+    public static double squaredReach(double range) {
+        if (!(range > 0)) {
+            return 0;  // No distance is shorter than this
+        }
+        double limit = range * range;
+        while (Math.sqrt(limit) < range) {
+            limit = Math.nextUp(limit);
+        }
+        while (Math.sqrt(Math.nextDown(limit)) >= range) {
+            limit = Math.nextDown(limit);
+        }
+        return limit;
+    }
+    
+    /**
+     * Work out squaredReach(r * scale) for every whole number r in the table.
+     * 
+     * @param scale What each whole-number range is multiplied by
+     * @return The table, indexed by r
+     */
+    protected static double[] squaredReachTable(double scale) {
+        double[] table = new double[REACH_TABLE_SIZE];
+        for (int r = 0; r < table.length; r++) {
+            table[r] = squaredReach(r * scale);
+        }
+        return table;
+    }
+    
+    /**
+     * Look up squaredReach(range * scale) in a table from squaredReachTable(scale),
+     * working it out for ranges the table doesn't cover.
+     * 
+     * @param table The table
+     * @param range The whole-number range
+     * @param scale The table's scale
+     * @return The squared threshold
+     */
+    protected static double squaredReach(double[] table, int range, double scale) {
+        if (range >= 0 && range < table.length) {
+            return table[range];
+        }
+        return squaredReach(range * scale);
     }
     
     // Getters for object properties
-    public double getX() { return x; }
-    public double getY() { return y; }
+    public double getX() { return store.x[slot]; }
+    public double getY() { return store.y[slot]; }
     public int getWidth() { return width; }
     public int getHeight() { return height; }
     public Color getColor() { return color; }
-    public double getVelocityX() { return velocityX; }
-    public double getVelocityY() { return velocityY; }
+    public double getVelocityX() { return store.velocityX[slot]; }
+    public double getVelocityY() { return store.velocityY[slot]; }
+    public double getPreviousX() { return store.previousX[slot]; }
+    public double getPreviousY() { return store.previousY[slot]; }
+    public EntityStore getStore() { return store; }
+    public int getSlot() { return slot; }
     
     // Setters for object properties
-    public void setX(double x) { this.x = x; }
-    public void setY(double y) { this.y = y; }
+    public void setX(double x) { store.x[slot] = x; }
+    public void setY(double y) { store.y[slot] = y; }
     public void setColor(Color color) { this.color = color; }
-    public void setVelocityX(double velocityX) { this.velocityX = velocityX; }
-    public void setVelocityY(double velocityY) { this.velocityY = velocityY; }
+    public void setVelocityX(double velocityX) { store.velocityX[slot] = velocityX; }
+    public void setVelocityY(double velocityY) { store.velocityY[slot] = velocityY; }
 }
@@ -0,0 +1,339 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * SimulationRunner - Command-line benchmark that plays the game headlessly.
+ *
+ * Runs a GameWorld as fast as possible (no display, no frame pacing) for a
+ * number of seconds of game time, starting a new game whenever one ends.
+ * A simple bot moves the purse and clicks at random spots so the click and
+ * collection code is exercised too. Everything is seeded, so runs with the
+ * same arguments simulate exactly the same games.
+ *
+ * With --record, the first finished game's input is saved to a file. With
+ * --replay, a recorded game (from --record, or from a player's file in the
+ * replays directory) is played back instead of the bot, as many times as
+ * --repeat asks, and checked against the recorded final score and lives.
+ *
+ * With --schedule, games follow a spawn schedule loaded from a file instead
+ * of the standard one (schedules/rush.properties fills the board with a few
+ * thousand coins). A replay uses the schedule named in the recording (the
+ * standard game, or that name in the schedules directory); a --schedule
+ * given with --replay has to be that same schedule, and is only needed for
+ * schedule files kept elsewhere or recordings that don't name one.
+ *
+ * Each phase's time is also reported as a share of the 60 Hz tick budget,
+ * with how many ticks ran over it, so a schedule can be checked against
+ * real time even though the simulation itself isn't paced.
+ *
+ * Usage: java SimulationRunner [--seconds N] [--seed S] [--clicks-per-second C] [--record FILE] [--schedule FILE]
+ *        java SimulationRunner --replay FILE [--repeat N] [--schedule FILE]
+ */
+public class SimulationRunner {
+
+    private static final long TICK_BUDGET_NANOS = 1_000_000_000L / GameWorld.TICKS_PER_SECOND;
+
+    /**
+     * Main method - parses arguments, runs the simulation, and prints a report.
+     *
+     * @param args Command line arguments
+     */
+    public static void main(String[] args) {
+        int seconds = 600;
+        long seed = 42;
+        double clicksPerSecond = 2;
+        String recordFile = null;
+        String replayFile = null;
+        int repeat = 1;
+        SpawnSchedule schedule = null;  // Standard, or for a replay the recorded one, unless given
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : null;
+            switch (args[i]) {
+                case "--seconds":
+                    seconds = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    i++;
+                    break;
+                case "--clicks-per-second":
+                    clicksPerSecond = Double.parseDouble(value);
+                    i++;
+                    break;
+                case "--record":
+                    recordFile = value;
+                    i++;
+                    break;
+                case "--replay":
+                    replayFile = value;
+                    i++;
+                    break;
+                case "--repeat":
+                    repeat = Integer.parseInt(value);
+                    i++;
+                    break;
+                case "--schedule":
+                    try {
+                        schedule = SpawnSchedule.load(new File(value));
+                    } catch (IOException e) {
+                        System.out.println("Error loading spawn schedule: " + e.getMessage());
+                        System.exit(1);
+                    }
+                    i++;
+                    break;
+                default:
+                    System.out.println("Usage: java SimulationRunner [--seconds N] [--seed S] "
+                        + "[--clicks-per-second C] [--record FILE] [--schedule FILE]");
+                    System.out.println("       java SimulationRunner --replay FILE [--repeat N] [--schedule FILE]");
+                    System.exit(1);
+            }
+        }
+
+        if (replayFile != null) {
+            runReplay(replayFile, repeat, schedule);
+        } else {
+            runSimulation(seconds, seed, clicksPerSecond, recordFile,
+                schedule != null ? schedule : SpawnSchedule.standard());
+        }
+    }
+
+    /**
+     * Simulate the game and print ticks per second and per-phase timings.
+     *
+     * @param seconds Seconds of game time to simulate
+     * @param seed Seed for the game and the bot
+     * @param clicksPerSecond How often the bot clicks
+     * @param recordFile File to save the first finished game's input to, or null
+     * @param schedule The spawn schedule every game follows
+     */
+    public static void runSimulation(int seconds, long seed, double clicksPerSecond, String recordFile,
+            SpawnSchedule schedule) {
+        GameWorld world = new GameWorld(seed);
+        world.setSpawnSchedule(schedule);
+        SplittableRandom bot = new SplittableRandom(seed ^ 0x5DEECE66DL);
+        double clickChance = clicksPerSecond / GameWorld.TICKS_PER_SECOND;
+        long totalTicks = (long) seconds * GameWorld.TICKS_PER_SECOND;
+
+        int games = 0;
+        int peakEntities = 0;
+        int peakCoins = 0;
+        TickBudget budget = new TickBudget(totalTicks);
+        long[] finishedGames = new long[1];
+        long[] totalScore = new long[1];
+        world.setGameOverListener((score, lives) -> {
+            finishedGames[0]++;
+            totalScore[0] += score;
+        });
+        world.setPhaseTimingEnabled(true);
+        world.setRecordingEnabled(recordFile != null);
+
+        long start = System.nanoTime();
+        for (long tick = 0; tick < totalTicks; tick++) {
+            if (!world.isGameRunning()) {
+                world.start();
+                games++;
+            }
+
+            // Move the purse around and click now and then
+            int mouseX = bot.nextInt(GameWorld.BOARD_WIDTH);
+            int mouseY = bot.nextInt(GameWorld.BOARD_HEIGHT);
+            world.movePurse(mouseX, mouseY);
+            if (bot.nextDouble() < clickChance) {
+                world.handleClick(mouseX, mouseY);
+            }
+
+            long tickStart = System.nanoTime();
+            world.tick();
+            budget.record(world, System.nanoTime() - tickStart);
+
+            if (recordFile != null && world.getLastRecording() != null) {
+                saveRecording(world.getLastRecording(), recordFile);
+                recordFile = null;
+                world.setRecordingEnabled(false);
+            }
+
+            EntityStore entities = world.getEntities();
+            int live = entities.getCoins().size() + entities.getBombs().size() + entities.getPowerUps().size();
+            peakEntities = Math.max(peakEntities, live);
+            peakCoins = Math.max(peakCoins, entities.getCoins().size());
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // Report
+        double elapsedMs = elapsed / 1_000_000.0;
+        System.out.println("=== Gold Rush Headless Simulation ===");
+        System.out.printf("Seed: %d, schedule: %s, game time: %d s, games started: %d%n",
+            seed, schedule.getName(), seconds, games);
+        System.out.printf("Peak entities: %d (%d coins)%n", peakEntities, peakCoins);
+        System.out.printf("Simulated %d ticks in %.1f ms%n", totalTicks, elapsedMs);
+        System.out.printf("Ticks/sec: %.0f (%.2fx real time)%n",
+            totalTicks / (elapsed / 1_000_000_000.0),
+            (double) totalTicks / GameWorld.TICKS_PER_SECOND / (elapsed / 1_000_000_000.0));
+        System.out.printf("Games finished: %d, total score: %d%n", finishedGames[0], totalScore[0]);
+        printPhases(world, totalTicks, elapsed);
+        budget.print();
+    }
+
+    /**
+     * Replay a recorded game as fast as possible and check it ends the same way.
+     *
+     * @param replayFile The recording to play
+     * @param repeat How many times to play it
+     * @param schedule The spawn schedule the game was recorded with, or null to
+     *                 use the one the recording names
+     */
+    public static void runReplay(String replayFile, int repeat, SpawnSchedule schedule) {
+        InputLog recording;
+        try {
+            recording = InputLog.load(new File(replayFile));
+        } catch (IOException e) {
+            System.out.println("Error loading replay: " + e.getMessage());
+            return;
+        }
+
+        String recordedSchedule = recording.getScheduleName();
+        if (schedule != null && recordedSchedule != null && !schedule.getName().equals(recordedSchedule)) {
+            System.out.println("Replay was recorded with schedule '" + recordedSchedule
+                + "', not '" + schedule.getName() + "'");
+            System.exit(1);
+        }
+        if (schedule == null) {
+            try {
+                schedule = recordedSchedule != null ? SpawnSchedule.named(recordedSchedule) : SpawnSchedule.standard();
+            } catch (IOException e) {
+                System.out.println("Error loading spawn schedule '" + recordedSchedule
+                    + "' (pass its file with --schedule): " + e.getMessage());
+                System.exit(1);
+            }
+        }
+
+        GameWorld world = new GameWorld(recording.getSeed());
+        world.setSpawnSchedule(schedule);
+        world.setPhaseTimingEnabled(true);
+        int mismatches = 0;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < repeat; i++) {
+            recording.replay(world);
+            if (!recording.matchesOutcome(world)) {
+                mismatches++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long totalTicks = (long) recording.getTickCount() * repeat;
+
+        System.out.println("=== Gold Rush Replay ===");
+        System.out.printf("Replay: %s (%d ticks, %d bytes of input), schedule: %s, played %d time(s)%n",
+            replayFile, recording.getTickCount(), recording.getSizeInBytes(), schedule.getName(), repeat);
+        System.out.printf("Recorded outcome: score %d, lives %d, frame %d%n",
+            recording.getFinalScore(), recording.getFinalLives(), recording.getFinalFrame());
+        System.out.printf("Replayed outcome: score %d, lives %d, frame %d%n",
+            world.getScore(), world.getLives(), world.getFrameCount());
+        System.out.println(mismatches == 0 ? "Outcome matches the recording"
+            : "OUTCOME MISMATCH in " + mismatches + " of " + repeat + " replays");
+        System.out.printf("Simulated %d ticks in %.1f ms (%.0f ticks/sec)%n",
+            totalTicks, elapsed / 1_000_000.0, totalTicks / (elapsed / 1_000_000_000.0));
+        printPhases(world, totalTicks, elapsed);
+
+        if (mismatches > 0) {
+            System.exit(2);
+        }
+    }
+
+    /**
+     * Save a recording, reporting any error.
+     */
+    private static void saveRecording(InputLog recording, String recordFile) {
+        try {
+            recording.save(new File(recordFile));
+            System.out.println("Recorded game with seed " + recording.getSeed() + " to " + recordFile);
+        } catch (IOException e) {
+            System.out.println("Error saving recording: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Print the time spent in each tick phase and the entity pool stats.
+     */
+    private static void printPhases(GameWorld world, long totalTicks, long elapsed) {
+        System.out.println();
+        System.out.printf("%-10s %12s %14s %8s %8s%n", "Phase", "Total (ms)", "Avg (us/tick)", "Share", "Budget");
+        for (GameWorld.Phase phase : GameWorld.Phase.values()) {
+            long nanos = world.getPhaseNanos(phase);
+            System.out.printf("%-10s %12.2f %14.3f %7.1f%% %7.1f%%%n",
+                phase, nanos / 1_000_000.0, nanos / 1000.0 / totalTicks, 100.0 * nanos / elapsed,
+                100.0 * nanos / totalTicks / TICK_BUDGET_NANOS);
+        }
+        System.out.println();
+        System.out.println("Entity pools: " + world.getEntities().getPoolStats());
+    }
+
+    /**
+     * Every tick's time in total and in each phase, for checking them
+     * against the 60 Hz tick budget.
+     */
+    private static final class TickBudget {
+        private static final GameWorld.Phase[] PHASES = GameWorld.Phase.values();
+
+        private final long[] ticks;
+        private final long[][] phases = new long[PHASES.length][];
+        private int count = 0;
+
+        TickBudget(long totalTicks) {
+            int capacity = (int) Math.min(totalTicks, Integer.MAX_VALUE - 8);
+            ticks = new long[capacity];
+            for (int p = 0; p < PHASES.length; p++) {
+                phases[p] = new long[capacity];
+            }
+        }
+
+        void record(GameWorld world, long tickNanos) {
+            if (count == ticks.length) {
+                return;
+            }
+            ticks[count] = tickNanos;
+            for (int p = 0; p < PHASES.length; p++) {
+                phases[p][count] = Math.max(0, world.getLastPhaseNanos(PHASES[p]));
+            }
+            count++;
+        }
+
+        /**
+         * Print p50, p99, and worst tick times per phase, as times and as
+         * shares of the budget, and how many ticks didn't fit in it.
+         */
+        void print() {
+            if (count == 0) {
+                return;
+            }
+            System.out.println();
+            System.out.printf("Tick budget: %.3f ms (%d Hz)%n", TICK_BUDGET_NANOS / 1e6, GameWorld.TICKS_PER_SECOND);
+            System.out.printf("%-10s %10s %10s %10s %9s%n", "Phase", "p50 (ms)", "p99 (ms)", "Max (ms)", "p99/Budget");
+            for (int p = 0; p < PHASES.length; p++) {
+                printLine(PHASES[p].name(), phases[p]);
+            }
+            printLine("TICK", ticks);
+
+            int over = 0;
+            for (int i = 0; i < count; i++) {
+                if (ticks[i] > TICK_BUDGET_NANOS) {
+                    over++;
+                }
+            }
+            System.out.printf("Ticks over budget: %d of %d (%.2f%%)%n", over, count, 100.0 * over / count);
+        }
+
+        private void printLine(String label, long[] samples) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            long p50 = sorted[Math.max(0, (int) Math.ceil(0.50 * count) - 1)];
+            long p99 = sorted[Math.max(0, (int) Math.ceil(0.99 * count) - 1)];
+            System.out.printf("%-10s %10.3f %10.3f %10.3f %8.1f%%%n", label,
+                p50 / 1e6, p99 / 1e6, sorted[count - 1] / 1e6, 100.0 * p99 / TICK_BUDGET_NANOS);
+        }
+    }
+}
@@ -0,0 +1,328 @@
+/**
+ * SpatialGrid - Uniform grid broad phase for collision detection.
+ *
+ * The board is divided into square cells (normally one coin diameter wide).
+ * Each frame the grid is rebuilt from a list of positions with a counting sort,
+ * reusing its arrays so no memory is allocated once the grid has warmed up.
+ *
+ * Two objects can only touch if they sit in the same or adjacent cells, so
+ * looking up neighbours costs about the same no matter how many objects there are.
+ *
+ * Items pushed into another cell after the grid was built can be moved there
+ * with move(), so findNeighbors() keeps finding everything within one cell
+ * of an item until the next rebuild.
+ *
+ * Several threads may search a built grid at once, as long as each passes its
+ * own Neighbors list to findNeighbors() or findWithin(), and nothing is moved
+ * while they do.
+ */
+public class SpatialGrid {
+
+    private final int cellSize;
+    private final int columns;
+    private final int rows;
+
+    // cellStart[c] .. cellStart[c + 1] is the range of cellItems belonging to cell c
+    private final int[] cellStart;
+    private int[] cellItems = new int[64];
+    private int[] itemCell = new int[64];
+    private int itemCount = 0;
+
+    // Items moved since the last rebuild: movedCell[i] is the cell item i now
+    // sits in (-1 while it is still in the cell it was binned into), and
+    // movedHead/movedNext chain together the moved items in each cell
+    private final int[] movedHead;
+    private int[] movedCell = new int[64];
+    private int[] movedNext = new int[64];
+
+    /**
+     * The items found by one findNeighbors() or findWithin() call. Threads
+     * searching the grid at the same time each need their own.
+     */
+    public static final class Neighbors {
+        private int[] items = new int[64];
+
+        /**
+         * Get a neighbour found by the last search into this list.
+         *
+         * @param k Position in the neighbour list
+         * @return The index of the neighbouring item
+         */
+        public int get(int k) {
+            return items[k];
+        }
+    }
+
+    // Scratch list filled by findNeighbors(int)
+    private final Neighbors neighbors = new Neighbors();
+
+    /**
+     * Constructor for SpatialGrid.
+     *
+     * @param boardWidth Width of the area covered by the grid
+     * @param boardHeight Height of the area covered by the grid
+     * @param cellSize Width and height of each cell (at least the largest collision diameter)
+     */
+    public SpatialGrid(int boardWidth, int boardHeight, int cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (boardWidth + cellSize - 1) / cellSize);
+        this.rows = Math.max(1, (boardHeight + cellSize - 1) / cellSize);
+        this.cellStart = new int[columns * rows + 1];
+        this.movedHead = new int[columns * rows];
+    }
+
+    /**
+     * Rebuild the grid from a list of positions.
+     * Item i is the object at (xs[i], ys[i]); items in each cell stay in ascending order.
+     *
+     * @param count Number of positions to insert
+     * @param xs X-coordinates (centers)
+     * @param ys Y-coordinates (centers)
+     */
+    public void rebuild(int count, double[] xs, double[] ys) {
+        if (cellItems.length < count) {
+            int newSize = Math.max(count, cellItems.length * 2);
+            cellItems = new int[newSize];
+            itemCell = new int[newSize];
+            movedCell = new int[newSize];
+            movedNext = new int[newSize];
+        }
+        itemCount = count;
+        java.util.Arrays.fill(cellStart, 0);
+        java.util.Arrays.fill(movedHead, -1);
+        java.util.Arrays.fill(movedCell, 0, count, -1);
+
+        // Count the items in each cell
+        for (int i = 0; i < count; i++) {
+            int cell = cellOf(xs[i], ys[i]);
+            itemCell[i] = cell;
+            cellStart[cell + 1]++;
+        }
+
+        // Turn the counts into start offsets
+        for (int c = 0; c < cellStart.length - 1; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        // Place each item, using the start of the next cell as a moving cursor
+        for (int i = 0; i < count; i++) {
+            int cell = itemCell[i];
+            cellItems[cellStart[cell]++] = i;
+        }
+
+        // Shift the cursors back so cellStart[c] is the start of cell c again
+        for (int c = cellStart.length - 1; c > 0; c--) {
+            cellStart[c] = cellStart[c - 1];
+        }
+        cellStart[0] = 0;
+    }
+
+    /**
+     * Find every item in the 3x3 block of cells around an item whose index is
+     * greater than it. Results are sorted ascending so pairs are visited in the
+     * same order as a plain nested loop, and can be read with getNeighbor().
+     *
+     * @param index The item to find neighbours for
+     * @return The number of neighbours found
+     */
+    public int findNeighbors(int index) {
+        return findNeighbors(index, neighbors);
+    }
+
+    /**
+     * Find every item in the 3x3 block of cells around an item whose index is
+     * greater than it, into a list owned by the caller. Items moved since the
+     * grid was built are looked for (and looked around) in their new cells.
+     *
+     * @param index The item to find neighbours for
+     * @param into The list to fill
+     * @return The number of neighbours found
+     */
+    public int findNeighbors(int index, Neighbors into) {
+        int cell = movedCell[index] >= 0 ? movedCell[index] : itemCell[index];
+        int column = cell % columns;
+        int row = cell / columns;
+        int found = 0;
+
+        for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+            for (int c = Math.max(0, column - 1); c <= Math.min(columns - 1, column + 1); c++) {
+                int other = r * columns + c;
+                for (int k = cellStart[other]; k < cellStart[other + 1]; k++) {
+                    int item = cellItems[k];
+                    if (item > index && movedCell[item] < 0) {
+                        found = append(into, found, item);
+                    }
+                }
+                for (int item = movedHead[other]; item >= 0; item = movedNext[item]) {
+                    if (item > index) {
+                        found = append(into, found, item);
+                    }
+                }
+            }
+        }
+
+        // Insertion sort - the list is short and already sorted within each cell
+        int[] items = into.items;
+        for (int i = 1; i < found; i++) {
+            int value = items[i];
+            int j = i - 1;
+            while (j >= 0 && items[j] > value) {
+                items[j + 1] = items[j];
+                j--;
+            }
+            items[j + 1] = value;
+        }
+        return found;
+    }
+
+    private static int append(Neighbors into, int found, int item) {
+        if (found == into.items.length) {
+            into.items = java.util.Arrays.copyOf(into.items, found * 2);
+        }
+        into.items[found] = item;
+        return found + 1;
+    }
+
+    /**
+     * Move an item to the cell containing a new position, after it has been
+     * pushed since the grid was built. Only findNeighbors() sees the move;
+     * findWithin() and the cell ranges still list items where they were binned.
+     *
+     * @param index The item that moved
+     * @param x New x-coordinate (center)
+     * @param y New y-coordinate (center)
+     * @return true if the item ended up in a different cell
+     */
+    public boolean move(int index, double x, double y) {
+        int cell = cellOf(x, y);
+        int current = movedCell[index] >= 0 ? movedCell[index] : itemCell[index];
+        if (cell == current) {
+            return false;
+        }
+        if (movedCell[index] >= 0) {
+            // Unlink it from the chain of the cell it had moved to
+            int previous = -1;
+            int item = movedHead[current];
+            while (item != index) {
+                previous = item;
+                item = movedNext[item];
+            }
+            if (previous < 0) {
+                movedHead[current] = movedNext[index];
+            } else {
+                movedNext[previous] = movedNext[index];
+            }
+        }
+        if (cell == itemCell[index]) {
+            movedCell[index] = -1;  // Back where it was binned
+        } else {
+            movedCell[index] = cell;
+            movedNext[index] = movedHead[cell];
+            movedHead[cell] = index;
+        }
+        return true;
+    }
+
+    /**
+     * Find every item in the cells overlapping a square around a point, into
+     * a list owned by the caller. Results are sorted ascending. Items in those
+     * cells but outside the square are included too, so callers check the
+     * actual distance themselves.
+     *
+     * @param x X-coordinate of the point
+     * @param y Y-coordinate of the point
+     * @param radius Half the width of the square
+     * @param into The list to fill
+     * @return The number of items found
+     */
+    public int findWithin(double x, double y, double radius, Neighbors into) {
+        int[] items = into.items;
+        int firstColumn = columnOf(x - radius);
+        int lastColumn = columnOf(x + radius);
+        int firstRow = rowOf(y - radius);
+        int lastRow = rowOf(y + radius);
+        int found = 0;
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                int cell = r * columns + c;
+                int count = cellStart[cell + 1] - cellStart[cell];
+                if (found + count > items.length) {
+                    items = java.util.Arrays.copyOf(items, Math.max(found + count, items.length * 2));
+                    into.items = items;
+                }
+                System.arraycopy(cellItems, cellStart[cell], items, found, count);
+                found += count;
+            }
+        }
+
+        java.util.Arrays.sort(items, 0, found);
+        return found;
+    }
+
+    /**
+     * Get a neighbour found by the last call to findNeighbors().
+     *
+     * @param k Position in the neighbour list
+     * @return The index of the neighbouring item
+     */
+    public int getNeighbor(int k) {
+        return neighbors.items[k];
+    }
+
+    /**
+     * Get the range of a cell's items: getCellItem(k) for getCellStart(cell) <= k < getCellEnd(cell),
+     * in ascending order.
+     *
+     * @param cell The cell index
+     * @return Position of the cell's first item
+     */
+    public int getCellStart(int cell) {
+        return cellStart[cell];
+    }
+
+    /**
+     * Get the end of a cell's item range (see getCellStart()).
+     *
+     * @param cell The cell index
+     * @return Position just past the cell's last item
+     */
+    public int getCellEnd(int cell) {
+        return cellStart[cell + 1];
+    }
+
+    /**
+     * Get an item from the cell-ordered item list.
+     *
+     * @param k Position between a cell's start and end
+     * @return The item's index
+     */
+    public int getCellItem(int k) {
+        return cellItems[k];
+    }
+
+    /**
+     * Get the cell index for a position, clamping positions that lie off the board.
+     *
+     * @param x X-coordinate
+     * @param y Y-coordinate
+     * @return The index of the cell containing the position
+     */
+    public int cellOf(double x, double y) {
+        return rowOf(y) * columns + columnOf(x);
+    }
+
+    private int columnOf(double x) {
+        return Math.max(0, Math.min(columns - 1, (int) (x / cellSize)));
+    }
+
+    private int rowOf(double y) {
+        return Math.max(0, Math.min(rows - 1, (int) (y / cellSize)));
+    }
+
+    // Getters for grid properties
+    public int getCellSize() { return cellSize; }
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public int getItemCount() { return itemCount; }
+}
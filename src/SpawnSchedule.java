@@ -0,0 +1,337 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Properties;
+
+/**
+ * SpawnSchedule - How fast coins, bombs, and powerups appear over a game.
+ *
+ * A schedule is a game length and a list of stages, each starting a number of
+ * seconds into the game. A stage sets how many frames pass between spawns,
+ * how many coins each spawn adds, how likely each coin type is, the chance of
+ * a bomb, the chance of a powerup each frame, and how fast each of them moves.
+ * A stage holds until the next one starts, or with ramp=true slides every
+ * value smoothly towards the next stage's over the time between them.
+ *
+ * Schedules are loaded from a properties file (see schedules/standard.properties
+ * for every setting). standard() is the normal game, built in so no file is
+ * needed; the rush schedule in schedules/rush.properties ramps up to a few
+ * thousand coins on the board at once.
+ *
+ * File format: duration=SECONDS, then stage.1.start, stage.1.interval, ...,
+ * stage.2.start, ... numbered from 1 with no gaps. A setting a stage leaves
+ * out is carried over from the stage before it (the first stage's come from
+ * the standard game).
+ */
+public class SpawnSchedule {
+
+    private static final int TICKS_PER_SECOND = GameWorld.TICKS_PER_SECOND;
+    private static final String SCHEDULE_DIRECTORY = "schedules";
+    private static final String STANDARD_NAME = "standard";
+
+    // Coin types in the order a roll is checked against them
+    private static final Coin.CoinType[] ROLL_ORDER = {
+        Coin.CoinType.BRONZE, Coin.CoinType.SILVER, Coin.CoinType.GOLD
+    };
+
+    /**
+     * The spawn settings in force at one moment of a game. Stages are stored
+     * as Rates, and GameWorld keeps one it refills as the game goes on.
+     */
+    public static final class Rates {
+        private int startFrame;
+        private boolean ramp;
+        private double interval;         // Frames between spawns
+        private double coinsPerSpawn;    // Whole part always spawns, fraction is the chance of one more
+        private double coinSpeed;        // Fastest a coin moves along each axis
+        private final double[] coinWeights = new double[ROLL_ORDER.length];  // Relative chance of each type, in ROLL_ORDER
+        private double bombChance;       // Chance of a bomb with each spawn
+        private double bombSpeed;
+        private double powerUpChance;    // Chance of a powerup each frame
+        private double powerUpSpeed;
+
+        private void copyFrom(Rates other) {
+            startFrame = other.startFrame;
+            ramp = other.ramp;
+            interval = other.interval;
+            coinsPerSpawn = other.coinsPerSpawn;
+            coinSpeed = other.coinSpeed;
+            System.arraycopy(other.coinWeights, 0, coinWeights, 0, coinWeights.length);
+            bombChance = other.bombChance;
+            bombSpeed = other.bombSpeed;
+            powerUpChance = other.powerUpChance;
+            powerUpSpeed = other.powerUpSpeed;
+        }
+
+        /**
+         * Get the number of frames until the next spawn.
+         *
+         * @return Frames between spawns, at least 1
+         */
+        public int getSpawnInterval() {
+            return Math.max(1, (int) Math.round(interval));
+        }
+
+        /**
+         * Work out how many coins one spawn adds.
+         *
+         * @param roll A random number from 0 (inclusive) to 1 (exclusive)
+         * @return The whole part of coins per spawn, plus one with a chance of the fraction
+         */
+        public int coinCount(double roll) {
+            int whole = (int) coinsPerSpawn;
+            return whole + (roll < coinsPerSpawn - whole ? 1 : 0);
+        }
+
+        /**
+         * Pick a coin type from the probability table.
+         *
+         * @param roll A random number from 0 (inclusive) to 1 (exclusive)
+         * @return The type the roll lands on
+         */
+        public Coin.CoinType coinType(double roll) {
+            double total = 0;
+            for (double weight : coinWeights) {
+                total += weight;
+            }
+            double cumulative = 0;
+            for (int i = 0; i < ROLL_ORDER.length - 1; i++) {
+                cumulative += coinWeights[i];
+                if (roll < cumulative / total) {
+                    return ROLL_ORDER[i];
+                }
+            }
+            return ROLL_ORDER[ROLL_ORDER.length - 1];
+        }
+
+        public double getCoinSpeed() { return coinSpeed; }
+        public double getBombChance() { return bombChance; }
+        public double getBombSpeed() { return bombSpeed; }
+        public double getPowerUpChance() { return powerUpChance; }
+        public double getPowerUpSpeed() { return powerUpSpeed; }
+    }
+
+    private final String name;
+    private final int durationSeconds;
+    private final Rates[] stages;
+
+    /**
+     * Constructor for SpawnSchedule.
+     *
+     * @param name Name shown in reports
+     * @param durationSeconds Length of a game
+     * @param stages Stages in order of start time, the first starting at 0
+     */
+    private SpawnSchedule(String name, int durationSeconds, Rates[] stages) {
+        this.name = name;
+        this.durationSeconds = durationSeconds;
+        this.stages = stages;
+    }
+
+    /**
+     * Get the normal game: 60 seconds, 1-2 coins every 10 frames (60% bronze,
+     * 25% silver, 15% gold), a 20% chance of a bomb with each spawn, and a
+     * 0.05% chance of a powerup every frame.
+     *
+     * @return The standard schedule
+     */
+    public static SpawnSchedule standard() {
+        return new SpawnSchedule(STANDARD_NAME, 60, new Rates[] {standardStage()});
+    }
+
+    private static Rates standardStage() {
+        Rates stage = new Rates();
+        stage.interval = 10;
+        stage.coinsPerSpawn = 1.5;
+        stage.coinSpeed = 3;
+        stage.coinWeights[0] = 0.6;   // Bronze
+        stage.coinWeights[1] = 0.25;  // Silver
+        stage.coinWeights[2] = 0.15;  // Gold
+        stage.bombChance = 0.2;
+        stage.bombSpeed = 2;
+        stage.powerUpChance = 0.0005;
+        stage.powerUpSpeed = 5;
+        return stage;
+    }
+
+    /**
+     * Find a schedule by name: the standard game, or NAME.properties in the
+     * schedules directory (e.g. to replay a recording with the schedule it names).
+     *
+     * @param name The schedule's name
+     * @return The schedule
+     * @throws IOException If there is no such schedule file or it can't be loaded
+     */
+    public static SpawnSchedule named(String name) throws IOException {
+        if (name.equals(STANDARD_NAME)) {
+            return standard();
+        }
+        return load(new File(SCHEDULE_DIRECTORY, name + ".properties"));
+    }
+
+    /**
+     * Load a schedule from a properties file.
+     *
+     * @param file The file to read
+     * @return The schedule, named after the file
+     * @throws IOException If the file can't be read or a setting is missing or invalid
+     */
+    public static SpawnSchedule load(File file) throws IOException {
+        Properties settings = new Properties();
+        try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            settings.load(in);
+        }
+        String name = file.getName();
+        if (name.endsWith(".properties")) {
+            name = name.substring(0, name.length() - ".properties".length());
+        }
+        return parse(name, settings);
+    }
+
+    /**
+     * Build a schedule from loaded settings.
+     *
+     * @param name Name shown in reports
+     * @param settings The settings, in the file format described above
+     * @return The schedule
+     * @throws IOException If a setting is missing or invalid
+     */
+    public static SpawnSchedule parse(String name, Properties settings) throws IOException {
+        double seconds = number(settings, "duration", 1, Integer.MAX_VALUE / TICKS_PER_SECOND);
+        if (seconds != Math.rint(seconds)) {
+            throw new IOException("duration must be a whole number of seconds");
+        }
+        int duration = (int) seconds;
+
+        ArrayList<Rates> stages = new ArrayList<>();
+        Rates previous = standardStage();
+        for (int n = 1; settings.containsKey("stage." + n + ".start"); n++) {
+            String prefix = "stage." + n + ".";
+            Rates stage = new Rates();
+            stage.copyFrom(previous);
+            double start = number(settings, prefix + "start", 0, duration);
+            stage.startFrame = (int) Math.round(start * TICKS_PER_SECOND);
+            if (n == 1 ? stage.startFrame != 0 : stage.startFrame <= previous.startFrame) {
+                throw new IOException(prefix + "start must be " + (n == 1 ? "0" : "later than the stage before"));
+            }
+            stage.ramp = Boolean.parseBoolean(settings.getProperty(prefix + "ramp", "false").trim());
+            stage.interval = optional(settings, prefix + "interval", stage.interval, 1, Integer.MAX_VALUE);
+            stage.coinsPerSpawn = optional(settings, prefix + "coins", stage.coinsPerSpawn, 0, 1000);
+            stage.coinSpeed = optional(settings, prefix + "coinSpeed", stage.coinSpeed, 0, 100);
+            for (int i = 0; i < ROLL_ORDER.length; i++) {
+                String key = prefix + ROLL_ORDER[i].name().toLowerCase();
+                stage.coinWeights[i] = optional(settings, key, stage.coinWeights[i], 0, Double.MAX_VALUE);
+            }
+            if (stage.coinWeights[0] + stage.coinWeights[1] + stage.coinWeights[2] <= 0) {
+                throw new IOException(prefix + "bronze, silver, and gold can't all be 0");
+            }
+            stage.bombChance = optional(settings, prefix + "bombChance", stage.bombChance, 0, 1);
+            stage.bombSpeed = optional(settings, prefix + "bombSpeed", stage.bombSpeed, 0, 100);
+            stage.powerUpChance = optional(settings, prefix + "powerUpChance", stage.powerUpChance, 0, 1);
+            stage.powerUpSpeed = optional(settings, prefix + "powerUpSpeed", stage.powerUpSpeed, 0, 100);
+            stages.add(stage);
+            previous = stage;
+        }
+        if (stages.isEmpty()) {
+            throw new IOException("stage.1.start is missing");
+        }
+
+        // Catch misspelled settings, which would otherwise be silently ignored
+        for (String key : settings.stringPropertyNames()) {
+            if (!isKnownSetting(key, stages.size())) {
+                throw new IOException("unknown setting " + key);
+            }
+        }
+        return new SpawnSchedule(name, duration, stages.toArray(new Rates[0]));
+    }
+
+    private static boolean isKnownSetting(String key, int stageCount) {
+        if (key.equals("duration")) {
+            return true;
+        }
+        String[] parts = key.split("\\.");
+        if (parts.length != 3 || !parts[0].equals("stage")) {
+            return false;
+        }
+        try {
+            int n = Integer.parseInt(parts[1]);
+            if (n < 1 || n > stageCount) {
+                return false;
+            }
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        switch (parts[2]) {
+            case "start": case "ramp": case "interval": case "coins": case "coinSpeed":
+            case "bronze": case "silver": case "gold":
+            case "bombChance": case "bombSpeed": case "powerUpChance": case "powerUpSpeed":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static double optional(Properties settings, String key, double fallback, double min, double max)
+            throws IOException {
+        return settings.containsKey(key) ? number(settings, key, min, max) : fallback;
+    }
+
+    private static double number(Properties settings, String key, double min, double max) throws IOException {
+        String text = settings.getProperty(key);
+        if (text == null) {
+            throw new IOException(key + " is missing");
+        }
+        double value;
+        try {
+            value = Double.parseDouble(text.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException(key + " is not a number: " + text);
+        }
+        if (!(value >= min && value <= max)) {
+            throw new IOException(key + " must be between " + min + " and " + max + ": " + text);
+        }
+        return value;
+    }
+
+    /**
+     * Work out the spawn settings for a frame of the game. Within a ramped
+     * stage every value is blended between that stage and the next one; the
+     * stage's ramp and start are copied as they are.
+     *
+     * @param frame Frames since the game started
+     * @param into The Rates to fill
+     */
+    public void ratesAt(int frame, Rates into) {
+        int s = 0;
+        while (s + 1 < stages.length && stages[s + 1].startFrame <= frame) {
+            s++;
+        }
+        Rates stage = stages[s];
+        into.copyFrom(stage);
+        if (!stage.ramp || s + 1 == stages.length) {
+            return;
+        }
+
+        Rates next = stages[s + 1];
+        double t = (double) (frame - stage.startFrame) / (next.startFrame - stage.startFrame);
+        into.interval = blend(stage.interval, next.interval, t);
+        into.coinsPerSpawn = blend(stage.coinsPerSpawn, next.coinsPerSpawn, t);
+        into.coinSpeed = blend(stage.coinSpeed, next.coinSpeed, t);
+        for (int i = 0; i < into.coinWeights.length; i++) {
+            into.coinWeights[i] = blend(stage.coinWeights[i], next.coinWeights[i], t);
+        }
+        into.bombChance = blend(stage.bombChance, next.bombChance, t);
+        into.bombSpeed = blend(stage.bombSpeed, next.bombSpeed, t);
+        into.powerUpChance = blend(stage.powerUpChance, next.powerUpChance, t);
+        into.powerUpSpeed = blend(stage.powerUpSpeed, next.powerUpSpeed, t);
+    }
+
+    private static double blend(double from, double to, double t) {
+        return from + (to - from) * t;
+    }
+
+    // Getters for schedule properties
+    public String getName() { return name; }
+    public int getDurationSeconds() { return durationSeconds; }
+    public int getStageCount() { return stages.length; }
+}
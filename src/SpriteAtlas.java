@@ -0,0 +1,105 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+/**
+ * SpriteAtlas - Keeps copies of the game's images pre-scaled to the sizes
+ * they're drawn at.
+ *
+ * The images themselves come from AssetManager. Scaling an image inside
+ * drawImage() resamples every pixel on every frame, so instead each sprite is
+ * scaled once, with smooth interpolation, into an image compatible with the
+ * screen it's drawn on; drawing it is then a straight copy. If the window
+ * moves to a screen with a different pixel format, the sprites are rebuilt
+ * for it. An image that is still decoding is skipped for that frame.
+ */
+public class SpriteAtlas {
+
+    // Scaled sprites, by file name and size, for one screen configuration
+    private static final HashMap<String, Image> sprites = new HashMap<>();
+    private static GraphicsConfiguration spriteConfig;
+
+    /**
+     * Draw an image at a size without scaling it on every call.
+     * The first draw at a size scales the image; later draws copy the result.
+     *
+     * @param g2 Graphics object to draw on
+     * @param name File name of the image in the images folder
+     * @param x X-coordinate of the top-left corner
+     * @param y Y-coordinate of the top-left corner
+     * @param width Width to draw the image at
+     * @param height Height to draw the image at
+     */
+    public static void draw(Graphics2D g2, String name, int x, int y, int width, int height) {
+        Image sprite = getSprite(name, width, height, g2.getDeviceConfiguration());
+        if (sprite != null) {
+            g2.drawImage(sprite, x, y, null);
+        }
+    }
+
+    /**
+     * Get an image scaled to a size, for drawing on a screen configuration.
+     *
+     * @param name File name of the image in the images folder
+     * @param width Width of the sprite
+     * @param height Height of the sprite
+     * @param config The screen configuration the sprite will be drawn on
+     * @return The scaled sprite, or null if the image is still decoding or couldn't be loaded
+     */
+    public static synchronized Image getSprite(String name, int width, int height, GraphicsConfiguration config) {
+        if (config != spriteConfig) {
+            // Drawing on a different screen (or offscreen image): rebuild every sprite for it
+            sprites.clear();
+            spriteConfig = config;
+        }
+        String key = name + '@' + width + 'x' + height;
+        Image sprite = sprites.get(key);
+        if (sprite == null && !sprites.containsKey(key) && AssetManager.isSettled(name)) {
+            BufferedImage source = AssetManager.getImageNow(name);
+            sprite = source == null ? null : scale(source, width, height, config);
+            sprites.put(key, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Scale an image once, smoothly, into an image compatible with a screen.
+     *
+     * @param source The image to scale
+     * @param width Width of the result
+     * @param height Height of the result
+     * @param config The screen configuration, or null for a plain ARGB image
+     * @return The scaled image
+     */
+    public static BufferedImage scale(BufferedImage source, int width, int height, GraphicsConfiguration config) {
+        BufferedImage scaled = createImage(config, width, height, source.getTransparency());
+        Graphics2D g2 = scaled.createGraphics();
+        g2.setComposite(AlphaComposite.Src);
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2.drawImage(source, 0, 0, width, height, null);
+        g2.dispose();
+        return scaled;
+    }
+
+    /**
+     * Create an empty image for a sprite, compatible with a screen.
+     * Transparent images are always premultiplied, since blending those is
+     * much faster wherever drawing isn't done by the graphics card.
+     *
+     * @param config The screen configuration, or null if unknown
+     * @param width Width of the image
+     * @param height Height of the image
+     * @param transparency One of the java.awt.Transparency constants
+     * @return The image
+     */
+    public static BufferedImage createImage(GraphicsConfiguration config, int width, int height, int transparency) {
+        if (config != null) {
+            BufferedImage image = config.createCompatibleImage(width, height, transparency);
+            if (transparency == Transparency.OPAQUE || image.isAlphaPremultiplied()) {
+                return image;
+            }
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+}
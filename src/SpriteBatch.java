@@ -0,0 +1,139 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * SpriteBatch - Pre-rendered sprites for the things the game draws in bulk:
+ * coins and bomb explosions.
+ *
+ * Drawing a coin as shapes means an antialiased fill and outline, two colour
+ * changes, and a new stroke for every coin on every frame. Instead, one sprite
+ * is rendered per coin type, and one per explosion frame (a strip of
+ * EXPLOSION_DURATION images, since an explosion only ever has that many
+ * looks). Drawing is then a single image copy, which doesn't allocate or
+ * change the Graphics2D's colour, stroke, or hints, so thousands of coins can
+ * be drawn back to back in one batch.
+ *
+ * Like SpriteAtlas, the sprites are made compatible with the screen they're
+ * drawn on (premultiplied) and rebuilt if that changes.
+ */
+public class SpriteBatch {
+
+    private static final Coin.CoinType[] COIN_TYPES = Coin.CoinType.values();
+    private static final int COIN_OUTLINE = 2;  // Outline stroke width
+    private static final int COIN_PAD = COIN_OUTLINE / 2;  // The outline reaches this far outside the coin
+
+    /**
+     * Sprites rendered for one screen configuration
+     */
+    public static final class Sprites {
+        private final BufferedImage[] coins = new BufferedImage[COIN_TYPES.length];
+        private final BufferedImage[] explosions = new BufferedImage[Bomb.EXPLOSION_DURATION + 1];
+        private final int[] explosionRadii = new int[Bomb.EXPLOSION_DURATION + 1];
+
+        private Sprites(GraphicsConfiguration config) {
+            for (Coin.CoinType type : COIN_TYPES) {
+                coins[type.ordinal()] = renderCoin(config, type);
+            }
+            for (int frame = 0; frame < explosions.length; frame++) {
+                explosionRadii[frame] = explosionRadius(frame);
+                explosions[frame] = renderExplosion(config, frame);
+            }
+        }
+
+        /**
+         * Draw a coin centered at a position.
+         *
+         * @param g2 Graphics object to draw on
+         * @param type The type of coin
+         * @param x X-coordinate of the center
+         * @param y Y-coordinate of the center
+         */
+        public void drawCoin(Graphics2D g2, Coin.CoinType type, double x, double y) {
+            g2.drawImage(coins[type.ordinal()],
+                (int) (x - Coin.COIN_SIZE / 2) - COIN_PAD, (int) (y - Coin.COIN_SIZE / 2) - COIN_PAD, null);
+        }
+
+        /**
+         * Draw one frame of a bomb explosion centered at a position.
+         *
+         * @param g2 Graphics object to draw on
+         * @param x X-coordinate of the center
+         * @param y Y-coordinate of the center
+         * @param frame How many frames the explosion has been running
+         */
+        public void drawExplosion(Graphics2D g2, double x, double y, int frame) {
+            frame = Math.min(frame, explosions.length - 1);
+            int radius = explosionRadii[frame];
+            g2.drawImage(explosions[frame], (int) (x - radius), (int) (y - radius), null);
+        }
+    }
+
+    private static Sprites sprites;
+    private static GraphicsConfiguration spritesConfig;
+
+    /**
+     * Get the sprites for drawing on a graphics object, rendering them the
+     * first time (or when drawing moves to a different screen). Fetch them
+     * once per frame and draw every coin with the result.
+     *
+     * @param g2 The graphics object that will be drawn on
+     * @return The sprites
+     */
+    public static synchronized Sprites getSprites(Graphics2D g2) {
+        GraphicsConfiguration config = g2.getDeviceConfiguration();
+        if (sprites == null || config != spritesConfig) {
+            sprites = new Sprites(config);
+            spritesConfig = config;
+        }
+        return sprites;
+    }
+
+    /**
+     * Get the radius of an explosion on a frame.
+     *
+     * @param frame How many frames the explosion has been running
+     * @return Radius of the outer circle
+     */
+    public static int explosionRadius(int frame) {
+        return 10 + frame * 5;
+    }
+
+    /**
+     * Render a coin: a filled circle in the coin's colour with a dark outline for visibility.
+     */
+    private static BufferedImage renderCoin(GraphicsConfiguration config, Coin.CoinType type) {
+        int size = Coin.COIN_SIZE + 2 * COIN_PAD + 1;
+        BufferedImage image = SpriteAtlas.createImage(config, size, size, Transparency.TRANSLUCENT);
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2.setColor(type.color);
+        g2.fillOval(COIN_PAD, COIN_PAD, Coin.COIN_SIZE, Coin.COIN_SIZE);
+        g2.setColor(Color.BLACK);
+        g2.setStroke(new BasicStroke(COIN_OUTLINE));
+        g2.drawOval(COIN_PAD, COIN_PAD, Coin.COIN_SIZE, Coin.COIN_SIZE);
+        g2.dispose();
+        return image;
+    }
+
+    /**
+     * Render one explosion frame: expanding circles with fading colour.
+     */
+    private static BufferedImage renderExplosion(GraphicsConfiguration config, int frame) {
+        int radius = explosionRadius(frame);
+        int alpha = Math.max(0, 255 - frame * 20);
+        BufferedImage image = SpriteAtlas.createImage(config, radius * 2 + 1, radius * 2 + 1, Transparency.TRANSLUCENT);
+        Graphics2D g2 = image.createGraphics();
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // Outer explosion circle (bright yellow/orange)
+        g2.setColor(new Color(255, 165, 0, alpha));
+        g2.fillOval(0, 0, radius * 2, radius * 2);
+
+        // Inner explosion circle (bright white)
+        int innerRadius = (int) (radius * 0.6);
+        g2.setColor(new Color(255, 255, 255, alpha));
+        g2.fillOval(radius - innerRadius, radius - innerRadius, innerRadius * 2, innerRadius * 2);
+        g2.dispose();
+        return image;
+    }
+}